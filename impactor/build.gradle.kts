@@ -3,6 +3,7 @@ import extensions.writeVersion
 plugins {
     id("impactor.base-conventions")
     id("impactor.publishing-conventions")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -59,6 +60,13 @@ tasks.withType(Test::class) {
     jvmArgs("-Djunit.jupiter.extensions.autodetection.enabled=true")
 }
 
+jmh {
+    jmhVersion.set("1.37")
+
+    // Benchmarks launch Impactor on the same test platform used by the test suite
+    includeTests.set(true)
+}
+
 sourceSets {
     test {
         resources {
@@ -0,0 +1,92 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.jmh;
+
+import net.impactdev.impactor.api.logging.Log4jLogger;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.impactdev.impactor.test.TestBootstrapper;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Launches Impactor within a benchmark fork, using the same test platform the test suite runs on.
+ * As JMH runs each combination of parameters within its own fork, the economy configuration is
+ * written ahead of launch, allowing for each fork to select its own storage method.
+ */
+public final class BenchmarkEnvironment {
+
+    private static final Path CONFIG = Paths.get("config");
+    private static boolean launched;
+
+    private BenchmarkEnvironment() {}
+
+    /**
+     * Launches Impactor with the economy configured to store accounts via the given method, unless
+     * Impactor has already been launched within this fork.
+     *
+     * @param method The storage method, as accepted by the economy configuration
+     * @throws IOException If the economy configuration fails to be written
+     */
+    public static synchronized void launch(String method) throws IOException {
+        if(launched) {
+            return;
+        }
+
+        Path target = CONFIG.resolve("impactor").resolve("economy.conf");
+        Files.createDirectories(target.getParent());
+        try(InputStream defaults = Objects.requireNonNull(BenchmarkEnvironment.class.getResourceAsStream("/impactor/assets/configs/economy.conf"))) {
+            String config = new String(defaults.readAllBytes(), StandardCharsets.UTF_8);
+            Files.writeString(target, config.replace("method = \"json\"", "method = \"" + method + "\""));
+        }
+
+        new TestBootstrapper(new Log4jLogger(LogManager.getLogger("Impactor Benchmarks"))).launch();
+        launched = true;
+    }
+
+    /**
+     * Shuts Impactor down, flushing any pending writes, and removes all data written by the benchmark.
+     *
+     * @throws IOException If the data written by the benchmark fails to be removed
+     */
+    public static synchronized void shutdown() throws IOException {
+        if(!launched) {
+            return;
+        }
+
+        BaseImpactorPlugin.instance().shutdown();
+        FileUtils.deleteDirectory(CONFIG.toFile());
+        launched = false;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.jmh.economy;
+
+import com.google.common.base.Strings;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.core.economy.currency.ImpactorCurrency;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static net.kyori.adventure.text.Component.text;
+
+/**
+ * Compares formatting through the precompiled currency formatter against the previous approach of
+ * parsing the currency template and building a new number format on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyFormatBenchmark {
+
+    @Param({"true", "false"})
+    private boolean condensed;
+
+    private Currency currency;
+    private BigDecimal amount;
+
+    @Setup
+    public void setup() {
+        this.currency = new ImpactorCurrency.ImpactorCurrencyBuilder()
+                .key(Key.key("impactor", "dollars"))
+                .name(text("Dollar"))
+                .plural(text("Dollars"))
+                .symbol(text("$"))
+                .formatting(new Currency.CurrencyFormatting("<green><symbol><amount>", "<yellow><amount> <gray><name>"))
+                .decimals(2)
+                .starting(BigDecimal.valueOf(500))
+                .build();
+        this.amount = new BigDecimal("1234567.89");
+    }
+
+    @Benchmark
+    public Component precompiled() {
+        return this.currency.format(this.amount, this.condensed, Locale.US);
+    }
+
+    @Benchmark
+    public Component parsed() {
+        String pattern = "#,##0." + Strings.repeat("0", this.currency.decimals());
+        DecimalFormat formatter = new DecimalFormat(pattern, new DecimalFormatSymbols(Locale.US));
+
+        Currency.CurrencyFormatting formatting = this.currency.formatting();
+        return MiniMessage.miniMessage().deserialize(
+                this.condensed ? formatting.condensed() : formatting.expanded(),
+                Placeholder.component("symbol", this.currency.symbol()),
+                Placeholder.component("amount", text(formatter.format(this.amount.doubleValue()))),
+                Placeholder.component("name", this.amount.doubleValue() == 1 ? this.currency.singular() : this.currency.plural())
+        );
+    }
+
+}
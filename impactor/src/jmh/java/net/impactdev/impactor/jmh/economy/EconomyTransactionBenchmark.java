@@ -0,0 +1,129 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.jmh.economy;
+
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
+import net.impactdev.impactor.api.economy.transactions.EconomyTransferTransaction;
+import net.impactdev.impactor.jmh.BenchmarkEnvironment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of deposits, withdrawals and transfers end to end, from composing the
+ * transaction through event posting, restriction checks, the account cache and the write-behind
+ * of the selected storage method. Each benchmark is run at 1, 4 and 16 threads, via the nested
+ * subclasses, with every thread picking accounts at random from a shared pool such that threads
+ * contend on the same accounts as they would on a busy server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class EconomyTransactionBenchmark {
+
+    private static final int ACCOUNTS = 64;
+    private static final BigDecimal STARTING = BigDecimal.valueOf(1_000_000_000);
+
+    @Param({"json", "yaml", "hocon", "h2"})
+    private String storage;
+
+    private final List<Account> accounts = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkEnvironment.launch(this.storage);
+
+        EconomyService service = EconomyService.instance();
+        Currency currency = service.currencies().primary();
+        for(int i = 0; i < ACCOUNTS; i++) {
+            Account account = service.account(currency, UUID.randomUUID()).join();
+            account.set(STARTING);
+            this.accounts.add(account);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        BenchmarkEnvironment.shutdown();
+    }
+
+    @Benchmark
+    public EconomyTransaction deposit() {
+        return this.random().deposit(BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public EconomyTransaction withdraw() {
+        return this.random().withdraw(BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public EconomyTransferTransaction transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+
+        return this.accounts.get(from).transfer(this.accounts.get(to), BigDecimal.ONE);
+    }
+
+    private Account random() {
+        return this.accounts.get(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends EconomyTransactionBenchmark {}
+
+    @Threads(4)
+    public static class FourThreads extends EconomyTransactionBenchmark {}
+
+    @Threads(16)
+    public static class SixteenThreads extends EconomyTransactionBenchmark {}
+
+}
@@ -36,6 +36,7 @@ import net.impactdev.impactor.api.scheduler.SchedulerAdapter;
 import net.impactdev.impactor.core.providers.BuilderProviderImplementation;
 import net.impactdev.impactor.core.providers.FactoryProviderImplementation;
 import net.impactdev.impactor.core.providers.ServiceProviderImplementation;
+import net.impactdev.impactor.core.utility.events.TrackedEventBus;
 import net.kyori.event.EventBus;
 
 public class ImpactorService implements Impactor {
@@ -43,7 +44,7 @@ public class ImpactorService implements Impactor {
     private final FactoryProvider factories = new FactoryProviderImplementation();
     private final BuilderProvider builders = new BuilderProviderImplementation();
     private final ServiceProvider services = new ServiceProviderImplementation();
-    private final EventBus<ImpactorEvent> bus = ImpactorEventBus.bus();
+    private final EventBus<ImpactorEvent> bus = new TrackedEventBus(ImpactorEventBus.bus());
 
     @Override
     public Platform platform() {
@@ -42,6 +42,8 @@ import net.impactdev.impactor.core.economy.EconomyConfig;
 import net.impactdev.impactor.core.economy.ImpactorEconomyService;
 import net.impactdev.impactor.core.economy.context.TransactionContext;
 import net.impactdev.impactor.core.economy.context.TransferTransactionContext;
+import net.impactdev.impactor.core.economy.metrics.EconomyStatistics;
+import net.impactdev.impactor.core.economy.storage.CacheStatistics;
 import net.impactdev.impactor.core.translations.internal.ImpactorTranslations;
 import net.kyori.adventure.util.TriState;
 import org.incendo.cloud.annotations.Argument;
@@ -56,6 +58,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
 import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings({"DuplicatedCode", "unused"})
@@ -281,29 +285,75 @@ public final class EconomyCommands {
         Currency target = currency != null ? currency : service.currencies().primary();
 
         AtomicInteger max = new AtomicInteger(10);
+        CompletableFuture<List<Account>> top;
         if(service instanceof ImpactorEconomyService) {
             Config config = ((ImpactorEconomyService) service).config();
             max.set(config.get(EconomyConfig.MAX_BALTOP_ENTRIES));
+            top = ((ImpactorEconomyService) service).top(target, 0, max.get(), nonPlayers);
+        } else {
+            top = service.accounts(target).thenApply(accounts -> accounts.stream()
+                    .sorted(Comparator.<Account, BigDecimal>comparing(Account::balance).reversed())
+                    .filter(account -> !account.virtual() || nonPlayers)
+                    .limit(max.get())
+                    .toList()
+            );
         }
 
         ImpactorTranslations.ECONOMY_BALTOP_CALCULATING.send(source, Context.empty());
-        service.accounts(target).thenAccept(accounts -> {
+        top.thenAccept(accounts -> {
             Context context = Context.empty().append(Currency.class, target);
             ImpactorTranslations.ECONOMY_BALTOP_HEADER.send(source, context);
 
             AtomicInteger ranking = new AtomicInteger(1);
-            accounts.stream()
-                    .sorted(Comparator.<Account, BigDecimal>comparing(Account::balance).reversed())
-                    .filter(account -> !account.virtual() || nonPlayers)
-                    .limit(max.get())
-                    .forEach(account -> {
-                        Context relative = Context.empty().with(context)
-                                .append(Account.class, account)
-                                .append(Integer.class, ranking.getAndIncrement());
-                        ImpactorTranslations.ECONOMY_BALTOP_ENTRY.send(source, relative);
-                    });
+            accounts.forEach(account -> {
+                Context relative = Context.empty().with(context)
+                        .append(Account.class, account)
+                        .append(Integer.class, ranking.getAndIncrement());
+                ImpactorTranslations.ECONOMY_BALTOP_ENTRY.send(source, relative);
+            });
 
             ImpactorTranslations.ECONOMY_BALTOP_FOOTER.send(source, context);
         });
     }
+
+    @Command("impactor economy cache")
+    @Permission("impactor.commands.economy.cache")
+    public void cache(final CommandSource source) {
+        EconomyService service = EconomyService.instance();
+        if(!(service instanceof ImpactorEconomyService)) {
+            ImpactorTranslations.ECONOMY_CACHE_UNAVAILABLE.send(source, Context.empty());
+            return;
+        }
+
+        CacheStatistics statistics = ((ImpactorEconomyService) service).storage().statistics();
+        Context context = Context.empty().append(CacheStatistics.class, statistics);
+
+        ImpactorTranslations.ECONOMY_CACHE_HEADER.send(source, context);
+        ImpactorTranslations.ECONOMY_CACHE_SIZE.send(source, context);
+        ImpactorTranslations.ECONOMY_CACHE_HIT_RATE.send(source, context);
+        ImpactorTranslations.ECONOMY_CACHE_LOADS.send(source, context);
+        ImpactorTranslations.ECONOMY_CACHE_EVICTIONS.send(source, context);
+        ImpactorTranslations.ECONOMY_CACHE_FOOTER.send(source, context);
+    }
+
+    @Command("impactor economy stats")
+    @Permission("impactor.commands.economy.stats")
+    public void stats(final CommandSource source) {
+        EconomyService service = EconomyService.instance();
+        if(!(service instanceof ImpactorEconomyService)) {
+            ImpactorTranslations.ECONOMY_STATS_UNAVAILABLE.send(source, Context.empty());
+            return;
+        }
+
+        EconomyStatistics statistics = ((ImpactorEconomyService) service).metrics().statistics();
+        Context context = Context.empty().append(EconomyStatistics.class, statistics);
+
+        ImpactorTranslations.ECONOMY_STATS_HEADER.send(source, context);
+        ImpactorTranslations.ECONOMY_STATS_TRANSACTIONS.send(source, context);
+        ImpactorTranslations.ECONOMY_STATS_LATENCY.send(source, context);
+        ImpactorTranslations.ECONOMY_STATS_STORAGE.send(source, context);
+        ImpactorTranslations.ECONOMY_STATS_LOADS.send(source, context);
+        ImpactorTranslations.ECONOMY_STATS_SAVES.send(source, context);
+        ImpactorTranslations.ECONOMY_STATS_FOOTER.send(source, context);
+    }
 }
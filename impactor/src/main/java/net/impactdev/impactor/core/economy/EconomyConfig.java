@@ -67,6 +67,25 @@ public final class EconomyConfig {
         return new StorageCredentials(address, database, username, password, maxPoolSize, minIdle, maxLifetime, keepAliveTime, connectionTimeout, props);
     }));
     public static final ConfigKey<String> SQL_TABLE_PREFIX = notReloadable(stringKey("storage.table-prefix", "economy_"));
+    public static final ConfigKey<Integer> WRITE_BEHIND_INTERVAL = notReloadable(intKey("storage.write-behind.flush-interval", 5000));
+    public static final ConfigKey<Integer> WRITE_BEHIND_BATCH_SIZE = notReloadable(intKey("storage.write-behind.batch-size", 250));
+    public static final ConfigKey<Boolean> JOURNAL_ENABLED = notReloadable(booleanKey("storage.journal.enabled", true));
+    public static final ConfigKey<Integer> JOURNAL_SEGMENT_SIZE = notReloadable(intKey("storage.journal.segment-size", 16));
+    public static final ConfigKey<Boolean> JOURNAL_FORCE = notReloadable(booleanKey("storage.journal.force", true));
+    public static final ConfigKey<Integer> JOURNAL_RETENTION = notReloadable(intKey("storage.journal.retention", 168));
+    public static final ConfigKey<Integer> CACHE_MAXIMUM_SIZE = notReloadable(intKey("storage.cache.maximum-size", 10000));
+    public static final ConfigKey<Integer> CACHE_EXPIRATION = notReloadable(intKey("storage.cache.expire-after-access", 60));
+    public static final ConfigKey<Integer> CACHE_REFRESH_INTERVAL = notReloadable(intKey("storage.cache.refresh-after-write", 0));
+    public static final ConfigKey<Boolean> ATOMIC_BALANCES = notReloadable(booleanKey("storage.atomic-balances", false));
+    public static final ConfigKey<Boolean> COHERENCE_ENABLED = notReloadable(booleanKey("storage.coherence.enabled", false));
+    public static final ConfigKey<Integer> COHERENCE_POLL_INTERVAL = notReloadable(intKey("storage.coherence.poll-interval", 2000));
+    public static final ConfigKey<Integer> COHERENCE_OVERLAP = notReloadable(intKey("storage.coherence.overlap", 5000));
+    public static final ConfigKey<String> COHERENCE_MESSENGER = notReloadable(stringKey("storage.coherence.messenger", "none"));
+    public static final ConfigKey<Boolean> LOCAL_STORE = notReloadable(booleanKey("storage.local-store.enabled", false));
+    public static final ConfigKey<Integer> LOCAL_STORE_COMPACTION = notReloadable(intKey("storage.local-store.compaction-threshold", 8));
+    public static final ConfigKey<Boolean> METRICS_EXPORT_ENABLED = notReloadable(booleanKey("metrics.export.enabled", false));
+    public static final ConfigKey<String> METRICS_EXPORT_PATH = notReloadable(stringKey("metrics.export.path", "config/impactor/economy/metrics.prom"));
+    public static final ConfigKey<Integer> METRICS_EXPORT_INTERVAL = notReloadable(intKey("metrics.export.interval", 60));
 
     public static final ConfigKey<Boolean> APPLY_RESTRICTIONS = booleanKey("restrictions.enabled", true);
     public static final ConfigKey<BigDecimal> MIN_BALANCE = key(adapter -> {
@@ -33,20 +33,29 @@ import net.impactdev.impactor.api.economy.currency.Currency;
 import net.impactdev.impactor.api.economy.currency.CurrencyProvider;
 import net.impactdev.impactor.api.storage.StorageType;
 import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import net.impactdev.impactor.core.economy.accounts.Money;
 import net.impactdev.impactor.core.economy.currency.ImpactorCurrencyProvider;
+import net.impactdev.impactor.core.economy.metrics.EconomyMetrics;
 import net.impactdev.impactor.core.economy.storage.EconomyStorage;
 import net.impactdev.impactor.core.economy.storage.StorageFactory;
+import net.impactdev.impactor.core.economy.transactions.TransactionRestrictions;
+import net.impactdev.impactor.core.economy.transactions.composers.BulkTransactionComposer;
 import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 
 public final class ImpactorEconomyService implements EconomyService {
 
     private final CurrencyProvider provider;
     private final EconomyStorage storage;
     private final Config config;
+    private volatile TransactionRestrictions restrictions;
 
     public ImpactorEconomyService() {
         this.config = Config.builder()
@@ -61,6 +70,8 @@ public final class ImpactorEconomyService implements EconomyService {
         }
 
         this.provider = new ImpactorCurrencyProvider(currencies);
+        this.restrictions = TransactionRestrictions.of(this.config);
+        this.validate(currencies);
         this.storage = StorageFactory.instance(BaseImpactorPlugin.instance(), this.config, StorageType.JSON);
 
         try {
@@ -84,10 +95,64 @@ public final class ImpactorEconomyService implements EconomyService {
         return this.storage;
     }
 
+    /**
+     * Provides the metrics recorded for the economy, such as the rate and latency of transactions.
+     *
+     * @return The metrics of the economy
+     */
+    public EconomyMetrics metrics() {
+        return this.storage.metrics();
+    }
+
     public Config config() {
         return this.config;
     }
 
+    /**
+     * Provides the balance restrictions currently configured for the economy. These are resolved
+     * from the configuration once, and again only when the configuration is reloaded.
+     *
+     * @return The configured balance restrictions
+     */
+    public TransactionRestrictions restrictions() {
+        return this.restrictions;
+    }
+
+    /**
+     * Reloads the reloadable settings of the economy configuration, such as balance restrictions.
+     */
+    public void reload() {
+        this.config.reload();
+        this.restrictions = TransactionRestrictions.of(this.config);
+        this.validate(this.provider.registered());
+    }
+
+    /**
+     * Reports any currency whose number of decimals leaves it unable to represent the configured
+     * maximum balance, as balances are held in minor units within a long. Transactions against such
+     * a currency are bounded by the largest representable balance instead.
+     */
+    private void validate(Collection<Currency> currencies) {
+        BigDecimal maximum = this.restrictions.maximum();
+        if(!this.restrictions.enabled() || maximum == null) {
+            return;
+        }
+
+        for(Currency currency : currencies) {
+            int scale = Money.scale(currency.decimals());
+            BigDecimal limit = BigDecimal.valueOf(Long.MAX_VALUE, scale);
+            if(maximum.compareTo(limit) > 0) {
+                BaseImpactorPlugin.instance().logger().warn(String.format(
+                        "Economy: Currency %s with %d decimals can hold balances of at most %s, below the maximum balance of %s",
+                        currency.key().asString(),
+                        currency.decimals(),
+                        limit.toPlainString(),
+                        maximum.toPlainString()
+                ));
+            }
+        }
+    }
+
     @Override
     public CompletableFuture<Boolean> hasAccount(Currency currency, UUID uuid) {
         return this.storage.hasAccount(currency, uuid);
@@ -108,6 +173,70 @@ public final class ImpactorEconomyService implements EconomyService {
         return this.storage.accounts();
     }
 
+    /**
+     * Fetches a page of accounts under the given currency, ranked by balance from highest to lowest.
+     *
+     * @param currency The currency to rank accounts by
+     * @param offset The zero-based position of the first account to include
+     * @param limit The maximum number of accounts to include
+     * @param virtual Whether virtual accounts should be included in the ranking
+     * @return A future supplying the ranked accounts
+     */
+    public CompletableFuture<List<Account>> top(Currency currency, int offset, int limit, boolean virtual) {
+        return this.storage.top(currency, offset, limit, virtual);
+    }
+
+    /**
+     * Publishes every account under the given currency. Unlike {@link #accounts()}, accounts are read
+     * from storage in pages as the subscriber signals demand, so every account may be visited without
+     * holding every account in memory at once.
+     *
+     * @param currency The currency of the accounts
+     * @return A publisher of the accounts of the currency
+     */
+    public Flow.Publisher<Account> stream(Currency currency) {
+        return this.storage.stream(currency);
+    }
+
+    /**
+     * Resolves the one-based balance rank of the given account amongst other accounts of its currency.
+     *
+     * @param account The account to rank
+     * @return A future supplying the rank of the account, or empty if the account is not ranked
+     */
+    public CompletableFuture<OptionalInt> rank(Account account) {
+        return this.storage.rank(account);
+    }
+
+    /**
+     * Loads every account of the given owner into the cache, pinning these accounts for as long as
+     * the owner remains online.
+     *
+     * @param owner The owner of the accounts
+     * @return A future completing once the accounts have been loaded
+     */
+    public CompletableFuture<Void> prefetch(UUID owner) {
+        return this.storage.prefetch(owner, this.provider.registered());
+    }
+
+    /**
+     * Releases the accounts of the given owner back to standard cache eviction.
+     *
+     * @param owner The owner of the accounts
+     */
+    public void release(UUID owner) {
+        this.storage.release(owner);
+    }
+
+    /**
+     * Creates a composer for a single transaction to be applied across many accounts at once.
+     *
+     * @return A new bulk transaction composer
+     */
+    public BulkTransactionComposer bulk() {
+        return new BulkTransactionComposer();
+    }
+
     @Override
     public CompletableFuture<Void> deleteAccount(Currency currency, UUID uuid) {
         return this.storage.delete(currency, uuid);
@@ -0,0 +1,62 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.accounts;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import net.impactdev.impactor.core.economy.ImpactorEconomyService;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+
+import java.util.UUID;
+
+/**
+ * Warms the economy account cache for players as they connect, such that the first balance query
+ * made for a player after joining is served from memory rather than from storage. Platforms are
+ * expected to invoke these hooks from their own connection listeners.
+ */
+public final class AccountPreloader {
+
+    private AccountPreloader() {}
+
+    public static void join(UUID player) {
+        EconomyService service = Impactor.instance().services().provide(EconomyService.class);
+        if(service instanceof ImpactorEconomyService) {
+            ((ImpactorEconomyService) service).prefetch(player).exceptionally(error -> {
+                ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), error);
+                return null;
+            });
+        }
+    }
+
+    public static void quit(UUID player) {
+        EconomyService service = Impactor.instance().services().provide(EconomyService.class);
+        if(service instanceof ImpactorEconomyService) {
+            ((ImpactorEconomyService) service).release(player);
+        }
+    }
+
+}
@@ -25,6 +25,8 @@
 
 package net.impactdev.impactor.core.economy.accounts;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import net.impactdev.impactor.api.Impactor;
 import net.impactdev.impactor.api.configuration.Config;
@@ -42,29 +44,39 @@ import net.impactdev.impactor.api.economy.transactions.EconomyTransferTransactio
 import net.impactdev.impactor.api.events.ImpactorEvent;
 import net.impactdev.impactor.api.scheduler.v2.Scheduler;
 import net.impactdev.impactor.api.scheduler.v2.Schedulers;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
 import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
 import net.impactdev.impactor.core.economy.EconomyConfig;
 import net.impactdev.impactor.core.economy.ImpactorEconomyService;
 import net.impactdev.impactor.core.economy.events.ImpactorEconomyTransactionEvent;
 import net.impactdev.impactor.core.economy.events.ImpactorEconomyTransferTransactionEvent;
+import net.impactdev.impactor.core.economy.storage.BalanceArithmetic;
+import net.impactdev.impactor.core.economy.storage.EconomyStorage;
 import net.impactdev.impactor.core.economy.transactions.ImpactorEconomyTransaction;
 import net.impactdev.impactor.core.economy.transactions.ImpactorEconomyTransferTransaction;
+import net.impactdev.impactor.core.economy.transactions.TransactionRestrictions;
 import net.impactdev.impactor.core.economy.transactions.composers.BaseTransactionComposer;
 import net.impactdev.impactor.core.economy.transactions.composers.TransferTransactionComposer;
 import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.impactdev.impactor.core.utility.events.EventPublisher;
 import net.impactdev.impactor.core.utility.future.Futures;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import net.kyori.event.PostResult;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
 public final class ImpactorAccount implements Account {
@@ -73,10 +85,22 @@ public final class ImpactorAccount implements Account {
             .services()
             .provide(EconomyService.class);
 
+    /**
+     * Locks guarding balance modifications, striped by account owner. Transactions against accounts
+     * of different owners are free to run in parallel, while those against the same owner are
+     * serialized.
+     */
+    private static final Striped<Lock> LOCKS = Striped.lock(Runtime.getRuntime().availableProcessors() * 16);
+
     private final UUID owner;
     private final Currency currency;
     private final boolean virtual;
-    private BigDecimal balance;
+
+    /** The scale of the balance, being the number of decimals of the currency */
+    private final int scale;
+
+    /** The balance of this account, held in minor units of its currency. See {@link Money} */
+    private volatile long units;
 
     private ImpactorAccount(ImpactorAccountBuilder builder) {
         this(builder.currency, builder.owner, builder.virtual, Optional.ofNullable(builder.balance).orElse(builder.currency.defaultAccountBalance()));
@@ -85,8 +109,32 @@ public final class ImpactorAccount implements Account {
     private ImpactorAccount(Currency currency, UUID owner, boolean virtual, BigDecimal balance) {
         this.owner = owner;
         this.currency = currency;
-        this.balance = balance;
         this.virtual = virtual;
+        this.scale = Money.scale(currency.decimals());
+        this.units = this.clamp(balance);
+    }
+
+    /**
+     * Converts a balance read from storage into minor units. A balance beyond the range representable
+     * at the scale of the currency, such as one written before the currency's decimals were raised, is
+     * clamped to the nearest representable balance and reported, rather than leaving the account
+     * impossible to load.
+     */
+    private long clamp(BigDecimal balance) {
+        try {
+            return Money.units(balance, this.scale);
+        } catch (ArithmeticException e) {
+            long clamped = Money.saturated(balance, this.scale);
+            BaseImpactorPlugin.instance().logger().warn(String.format(
+                    "Economy: Balance of %s for account %s (%s) exceeds the range of its currency at %d decimals, clamping to %s",
+                    balance.toPlainString(),
+                    this.owner,
+                    this.currency.key().asString(),
+                    this.scale,
+                    Money.decimal(clamped, this.scale).toPlainString()
+            ));
+            return clamped;
+        }
     }
 
     public static ImpactorAccount load(Currency currency, UUID uuid, boolean virtual, BigDecimal balance) {
@@ -110,7 +158,7 @@ public final class ImpactorAccount implements Account {
 
     @Override
     public @NotNull BigDecimal balance() {
-        return this.balance;
+        return Money.decimal(this.units, this.scale);
     }
 
     @Override
@@ -131,21 +179,20 @@ public final class ImpactorAccount implements Account {
                             .amount(amount)
                             .type(EconomyTransactionType.SET);
 
-                    EconomyTransactionEvent.Pre pre = this.createAndFirePre(amount, EconomyTransactionType.SET);
-                    if(pre.cancelled()) {
+                    if(this.cancelledByPre(amount, EconomyTransactionType.SET)) {
                         return this.complete(builder, EconomyResultType.CANCELLED, composer.messages());
                     }
 
-                    boolean restrict = this.restriction(EconomyConfig.APPLY_RESTRICTIONS).orElse(false);
-                    if(amount.signum() < 0) {
-                        return this.createAndFirePost(this.complete(builder, EconomyResultType.INVALID, composer.messages()));
-                    } else if(restrict && this.restriction(EconomyConfig.MAX_BALANCE).map(value -> amount.compareTo(value) > 0).orElse(false)) {
-                        return this.createAndFirePost(this.complete(builder, EconomyResultType.INVALID, composer.messages()));
-                    } else {
-                        this.balance = amount;
-                        this.save();
-                        return this.createAndFirePost(this.complete(builder, EconomyResultType.SUCCESS, composer.messages()));
-                    }
+                    TransactionRestrictions restrictions = this.restrictions();
+                    EconomyTransaction transaction = this.transact(builder, composer.messages(), () -> {
+                        try {
+                            return this.commit(EconomyTransactionType.SET, Money.units(amount, this.scale), restrictions);
+                        } catch (ArithmeticException e) {
+                            return EconomyResultType.INVALID;
+                        }
+                    });
+
+                    return this.firePost(transaction);
                 }, () -> ImpactorEconomyTransaction.builder()
                         .currency(this.currency)
                         .account(this)
@@ -174,26 +221,25 @@ public final class ImpactorAccount implements Account {
                             .amount(amount)
                             .type(EconomyTransactionType.WITHDRAW);
 
-                    EconomyTransactionEvent.Pre pre = this.createAndFirePre(amount, EconomyTransactionType.WITHDRAW);
-                    if(pre.cancelled()) {
+                    if(this.cancelledByPre(amount, EconomyTransactionType.WITHDRAW)) {
                         return this.complete(builder, EconomyResultType.CANCELLED, composer.messages());
                     }
 
-                    BigDecimal result = this.balance.subtract(amount);
-                    if(this.restriction(EconomyConfig.APPLY_RESTRICTIONS).orElse(false)) {
-                        Optional<BigDecimal> minimum = this.restriction(EconomyConfig.MIN_BALANCE);
-                        if(minimum.isPresent() && minimum.get().compareTo(result) > 0) {
-                            return this.createAndFirePost(this.complete(builder, EconomyResultType.NOT_ENOUGH_FUNDS, composer.messages()));
+                    TransactionRestrictions restrictions = this.restrictions();
+                    EconomyStorage storage = this.arithmetic();
+                    EconomyTransaction transaction = this.transact(builder, composer.messages(), () -> {
+                        if(storage != null) {
+                            return this.adjust(storage, amount.negate(), restrictions.floor(), TransactionRestrictions.UNBOUNDED, EconomyResultType.NOT_ENOUGH_FUNDS);
                         }
-                    }
 
-                    if(result.signum() < 0) {
-                        return this.createAndFirePost(this.complete(builder, EconomyResultType.NOT_ENOUGH_FUNDS, composer.messages()));
-                    }
+                        try {
+                            return this.commit(EconomyTransactionType.WITHDRAW, Money.subtract(this.units, Money.units(amount, this.scale)), restrictions);
+                        } catch (ArithmeticException e) {
+                            return EconomyResultType.NOT_ENOUGH_FUNDS;
+                        }
+                    });
 
-                    this.balance = result;
-                    this.save();
-                    return this.createAndFirePost(this.complete(builder, EconomyResultType.SUCCESS, composer.messages()));
+                    return this.firePost(transaction);
                 }, () -> ImpactorEconomyTransaction.builder()
                         .currency(this.currency)
                         .account(this)
@@ -222,22 +268,25 @@ public final class ImpactorAccount implements Account {
                             .amount(amount)
                             .type(EconomyTransactionType.DEPOSIT);
 
-                    EconomyTransactionEvent.Pre pre = this.createAndFirePre(amount, EconomyTransactionType.SET);
-                    if(pre.cancelled()) {
+                    if(this.cancelledByPre(amount, EconomyTransactionType.SET)) {
                         return this.complete(builder, EconomyResultType.CANCELLED, composer.messages());
                     }
 
-                    BigDecimal result = this.balance.add(amount);
-                    if(this.restriction(EconomyConfig.APPLY_RESTRICTIONS).orElse(false)) {
-                        Optional<BigDecimal> maximum = this.restriction(EconomyConfig.MAX_BALANCE);
-                        if(maximum.isPresent() && maximum.get().compareTo(result) < 0) {
-                            return this.createAndFirePost(this.complete(builder, EconomyResultType.NO_REMAINING_SPACE, composer.messages()));
+                    TransactionRestrictions restrictions = this.restrictions();
+                    EconomyStorage storage = this.arithmetic();
+                    EconomyTransaction transaction = this.transact(builder, composer.messages(), () -> {
+                        if(storage != null) {
+                            return this.adjust(storage, amount, TransactionRestrictions.UNBOUNDED.negate(), restrictions.ceiling(), EconomyResultType.NO_REMAINING_SPACE);
                         }
-                    }
 
-                    this.balance = result;
-                    this.save();
-                    return this.createAndFirePost(this.complete(builder, EconomyResultType.SUCCESS, composer.messages()));
+                        try {
+                            return this.commit(EconomyTransactionType.DEPOSIT, Money.add(this.units, Money.units(amount, this.scale)), restrictions);
+                        } catch (ArithmeticException e) {
+                            return EconomyResultType.NO_REMAINING_SPACE;
+                        }
+                    });
+
+                    return this.firePost(transaction);
                 }, () -> ImpactorEconomyTransaction.builder()
                         .currency(this.currency)
                         .account(this)
@@ -278,51 +327,57 @@ public final class ImpactorAccount implements Account {
                     return this.complete(builder, EconomyResultType.FAILED, composer.messages());
                 }
 
-                EconomyTransferTransactionEvent.Pre event = new ImpactorEconomyTransferTransactionEvent.Pre(
-                        this.currency,
-                        this,
-                        to,
-                        amount
-                );
+                if(EventPublisher.subscribed(ImpactorEconomyTransferTransactionEvent.Pre.class)) {
+                    EconomyTransferTransactionEvent.Pre event = new ImpactorEconomyTransferTransactionEvent.Pre(
+                            this.currency,
+                            this,
+                            to,
+                            amount
+                    );
 
-                this.postAndVerify(event);
-                if(event.cancelled()) {
-                    return this.complete(builder, EconomyResultType.CANCELLED, composer.messages());
+                    this.postAndVerify(event);
+                    if(event.cancelled()) {
+                        return this.complete(builder, EconomyResultType.CANCELLED, composer.messages());
+                    }
                 }
 
-                BigDecimal withdraw = this.balance.subtract(amount);
-                BigDecimal deposit = to.balance().add(amount);
-                if(this.restriction(EconomyConfig.APPLY_RESTRICTIONS).orElse(false)) {
-                    Optional<BigDecimal> minimum = this.restriction(EconomyConfig.MIN_BALANCE);
-                    Optional<BigDecimal> maximum = this.restriction(EconomyConfig.MAX_BALANCE);
-                    if(maximum.isPresent() && maximum.get().compareTo(deposit) < 0) {
-                        EconomyTransferTransactionEvent.Post post = new ImpactorEconomyTransferTransactionEvent.Post(
-                                this.complete(builder, EconomyResultType.NO_REMAINING_SPACE, composer.messages())
-                        );
-                        this.postAndVerify(post);
-                        return post.transaction();
+                TransactionRestrictions restrictions = this.restrictions();
+                EconomyStorage storage = this.arithmetic();
+                ImpactorAccount target = (ImpactorAccount) to;
+                Supplier<EconomyResultType> exchange = () -> {
+                    if(storage != null) {
+                        return this.transfer(storage, target, amount, restrictions);
                     }
 
-                    if(minimum.isPresent() && minimum.get().compareTo(withdraw) > 0) {
-                        EconomyTransferTransactionEvent.Post post = new ImpactorEconomyTransferTransactionEvent.Post(
-                                this.complete(builder, EconomyResultType.NOT_ENOUGH_FUNDS, composer.messages())
-                        );
-                        this.postAndVerify(post);
-                        return post.transaction();
+                    long withdraw;
+                    long deposit;
+                    try {
+                        withdraw = Money.subtract(this.units, Money.units(amount, this.scale));
+                        deposit = Money.add(target.units, Money.units(amount, target.scale));
+                    } catch (ArithmeticException e) {
+                        return EconomyResultType.NO_REMAINING_SPACE;
+                    }
+
+                    if(deposit > restrictions.ceiling(target.scale)) {
+                        return EconomyResultType.NO_REMAINING_SPACE;
                     }
-                }
 
-                this.balance = this.balance.subtract(amount);
-                ((ImpactorAccount) to).quietSet(to.balance().add(amount));
+                    if(withdraw < restrictions.floor(this.scale)) {
+                        return EconomyResultType.NOT_ENOUGH_FUNDS;
+                    }
 
-                this.save();
-                ((ImpactorAccount) to).save();
+                    this.units = withdraw;
+                    target.units = deposit;
+                    this.save();
+                    target.save();
+                    return EconomyResultType.SUCCESS;
+                };
 
-                EconomyTransferTransactionEvent.Post post = new ImpactorEconomyTransferTransactionEvent.Post(
-                        this.complete(builder, EconomyResultType.SUCCESS, composer.messages())
-                );
-                this.postAndVerify(post);
-                return post.transaction();
+                EconomyTransferTransaction transaction = locked(this.owner, to.owner(), () -> this.journal(this.complete(builder, exchange.get(), composer.messages())));
+                if(EventPublisher.subscribed(ImpactorEconomyTransferTransactionEvent.Post.class)) {
+                    this.postAndVerify(new ImpactorEconomyTransferTransactionEvent.Post(transaction));
+                }
+                return transaction;
             }, () -> ImpactorEconomyTransferTransaction.builder()
                     .currency(this.currency)
                     .from(this)
@@ -351,14 +406,17 @@ public final class ImpactorAccount implements Account {
                             .amount(amount)
                             .type(EconomyTransactionType.RESET);
 
-                    EconomyTransactionEvent.Pre pre = this.createAndFirePre(amount, EconomyTransactionType.RESET);
-                    if(pre.cancelled()) {
+                    if(this.cancelledByPre(amount, EconomyTransactionType.RESET)) {
                         return builder.result(EconomyResultType.CANCELLED).build();
                     }
 
-                    this.balance = this.currency.defaultAccountBalance();
-                    this.save();
-                    return this.createAndFirePost(builder.result(EconomyResultType.SUCCESS).build());
+                    long initial = Money.units(this.currency.defaultAccountBalance(), this.scale);
+                    EconomyTransaction transaction = this.locked(() -> {
+                        this.units = initial;
+                        this.save();
+                        return this.journal(builder.result(EconomyResultType.SUCCESS).build());
+                    });
+                    return this.firePost(transaction);
                 }, () -> ImpactorEconomyTransaction.builder()
                         .currency(this.currency)
                         .account(this)
@@ -369,8 +427,306 @@ public final class ImpactorAccount implements Account {
         );
     }
 
-    private void quietSet(BigDecimal amount) {
-        this.balance = amount;
+    /**
+     * Replaces the balance of this account with the given result, should the restrictions permit a
+     * transaction of the given type to leave this account with it. Callers must hold the lock of
+     * this account.
+     */
+    private EconomyResultType commit(EconomyTransactionType type, long result, TransactionRestrictions restrictions) {
+        EconomyResultType outcome = restrictions.test(type, result, this.scale);
+        if(outcome == EconomyResultType.SUCCESS) {
+            this.units = result;
+            this.save();
+        }
+
+        return outcome;
+    }
+
+    /**
+     * Applies a single transaction of a bulk operation to this account. Unlike the standard transaction
+     * methods, no events are fired and the account is only staged for writing, as the bulk operation is
+     * responsible for both firing events and flushing writes across the entire set of accounts at once.
+     *
+     * @param type The type of transaction to apply
+     * @param amount The amount of the transaction
+     * @param restrictions The restrictions to validate the resulting balance against
+     * @return The transaction applied to this account
+     */
+    public EconomyTransaction apply(EconomyTransactionType type, BigDecimal amount, TransactionRestrictions restrictions) {
+        ImpactorEconomyTransaction.TransactionBuilder builder = ImpactorEconomyTransaction.builder()
+                .account(this)
+                .currency(this.currency)
+                .amount(amount)
+                .type(type);
+
+        long start = System.nanoTime();
+        return this.measure(type, start, this.locked(() -> {
+            EconomyResultType outcome;
+            try {
+                long result = switch (type) {
+                    case DEPOSIT -> Money.add(this.units, Money.units(amount, this.scale));
+                    case WITHDRAW -> Money.subtract(this.units, Money.units(amount, this.scale));
+                    case SET -> Money.units(amount, this.scale);
+                    case RESET -> Money.units(this.currency.defaultAccountBalance(), this.scale);
+                    default -> this.units;
+                };
+
+                outcome = restrictions.test(type, result, this.scale);
+                if(outcome == EconomyResultType.SUCCESS) {
+                    this.units = result;
+                    if(this.service instanceof ImpactorEconomyService) {
+                        ((ImpactorEconomyService) this.service).storage().stage(this);
+                    }
+                }
+            } catch (ArithmeticException e) {
+                outcome = switch (type) {
+                    case DEPOSIT -> EconomyResultType.NO_REMAINING_SPACE;
+                    case WITHDRAW -> EconomyResultType.NOT_ENOUGH_FUNDS;
+                    default -> EconomyResultType.INVALID;
+                };
+            }
+
+            EconomyTransaction transaction = builder.result(outcome).build();
+            if(this.service instanceof ImpactorEconomyService) {
+                ((ImpactorEconomyService) this.service).storage().logTransaction(transaction);
+            }
+
+            return transaction;
+        }));
+    }
+
+    /**
+     * Applies a single transaction of a bulk operation to each of the given accounts, persisting every
+     * modified account together. Where storage applies balance changes itself, deposits and withdrawals
+     * are applied by storage within a single transaction whilst holding the locks of every account, such
+     * that changes made to these accounts elsewhere are never overwritten. Otherwise, each account is
+     * modified locally via {@link #apply(EconomyTransactionType, BigDecimal, TransactionRestrictions)}
+     * and written within a single batch.
+     *
+     * @param accounts The accounts to apply the transaction to
+     * @param type The type of transaction to apply
+     * @param amount The amount of the transaction
+     * @param restrictions The restrictions to validate each resulting balance against
+     * @return The transaction applied to each account, in the order supplied
+     */
+    public static List<EconomyTransaction> applyAll(List<ImpactorAccount> accounts, EconomyTransactionType type, BigDecimal amount, TransactionRestrictions restrictions) {
+        if(accounts.isEmpty()) {
+            return List.of();
+        }
+
+        ImpactorAccount first = accounts.get(0);
+        EconomyStorage storage = first.arithmetic();
+        if(storage != null && (type == EconomyTransactionType.DEPOSIT || type == EconomyTransactionType.WITHDRAW)) {
+            return adjustAll(storage, accounts, type, amount, restrictions);
+        }
+
+        List<EconomyTransaction> transactions = new ArrayList<>(accounts.size());
+        List<Account> modified = new ArrayList<>(accounts.size());
+        for(ImpactorAccount account : accounts) {
+            EconomyTransaction transaction = account.apply(type, amount, restrictions);
+            transactions.add(transaction);
+            if(transaction.result() == EconomyResultType.SUCCESS) {
+                modified.add(account);
+            }
+        }
+
+        if(first.service instanceof ImpactorEconomyService) {
+            ((ImpactorEconomyService) first.service).storage().saveAll(modified);
+        } else {
+            modified.forEach(first.service::save);
+        }
+
+        return transactions;
+    }
+
+    /**
+     * Applies a deposit or withdrawal to each of the given accounts via storage, within a single
+     * transaction of storage, adopting the balance held by storage for each account once applied.
+     */
+    private static List<EconomyTransaction> adjustAll(EconomyStorage storage, List<ImpactorAccount> accounts, EconomyTransactionType type, BigDecimal amount, TransactionRestrictions restrictions) {
+        boolean deposit = type == EconomyTransactionType.DEPOSIT;
+        BigDecimal change = deposit ? amount : amount.negate();
+        BigDecimal minimum = deposit ? TransactionRestrictions.UNBOUNDED.negate() : restrictions.floor();
+        BigDecimal maximum = deposit ? restrictions.ceiling() : TransactionRestrictions.UNBOUNDED;
+        EconomyResultType rejection = deposit ? EconomyResultType.NO_REMAINING_SPACE : EconomyResultType.NOT_ENOUGH_FUNDS;
+
+        long start = System.nanoTime();
+        List<Lock> locks = Lists.newArrayList(LOCKS.bulkGet(accounts.stream().map(ImpactorAccount::owner).toList()));
+        locks.forEach(Lock::lock);
+        try {
+            List<Optional<BigDecimal>> results;
+            try {
+                results = storage.adjustAll(List.copyOf(accounts), change, minimum, maximum);
+            } catch (Exception e) {
+                ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+                results = null;
+            }
+
+            List<EconomyTransaction> transactions = new ArrayList<>(accounts.size());
+            for(int i = 0; i < accounts.size(); i++) {
+                ImpactorAccount account = accounts.get(i);
+                EconomyResultType outcome;
+                if(results == null) {
+                    outcome = EconomyResultType.FAILED;
+                } else if(results.get(i).isEmpty()) {
+                    outcome = rejection;
+                } else {
+                    account.units = Money.units(results.get(i).get(), account.scale);
+                    storage.written(account);
+                    outcome = EconomyResultType.SUCCESS;
+                }
+
+                EconomyTransaction transaction = ImpactorEconomyTransaction.builder()
+                        .account(account)
+                        .currency(account.currency)
+                        .amount(amount)
+                        .type(type)
+                        .result(outcome)
+                        .build();
+                storage.logTransaction(transaction);
+                transactions.add(account.measure(type, start, transaction));
+            }
+
+            return transactions;
+        } finally {
+            Lists.reverse(locks).forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * Restores the balance of this account without processing a transaction, bypassing any events
+     * and restrictions. This is intended only for recovering the state of an account from a trusted
+     * source, such as the transaction journal.
+     *
+     * @param amount The balance to restore
+     */
+    public void restore(BigDecimal amount) {
+        long units = Money.units(amount, this.scale);
+        this.locked(() -> this.units = units);
+    }
+
+    /**
+     * Replaces the balance of this account with the given amount, so long as the supplied condition
+     * holds whilst the lock of this account is held. This allows for the balance to be refreshed from
+     * storage without overwriting a local modification made since the balance was read.
+     *
+     * @param amount The balance to restore
+     * @param condition The condition which must hold for the balance to be replaced
+     * @return True if the balance was replaced, false otherwise
+     */
+    public boolean restore(BigDecimal amount, BooleanSupplier condition) {
+        long units = Money.units(amount, this.scale);
+        return this.locked(() -> {
+            if(condition.getAsBoolean()) {
+                this.units = units;
+                return true;
+            }
+
+            return false;
+        });
+    }
+
+    /**
+     * Provides the balance restrictions of the economy, as cached by the service.
+     */
+    private TransactionRestrictions restrictions() {
+        if(this.service instanceof ImpactorEconomyService) {
+            return ((ImpactorEconomyService) this.service).restrictions();
+        }
+
+        return TransactionRestrictions.NONE;
+    }
+
+    /**
+     * Provides the economy storage, should it be configured to apply balance changes itself.
+     *
+     * @return The storage applying balance changes, or null if changes should be applied locally
+     */
+    private @Nullable EconomyStorage arithmetic() {
+        if(this.service instanceof ImpactorEconomyService) {
+            EconomyStorage storage = ((ImpactorEconomyService) this.service).storage();
+            return storage.atomic() ? storage : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Applies a change to the balance of this account via storage, adopting the balance held by
+     * storage once applied. Callers must hold the lock of this account.
+     */
+    private EconomyResultType adjust(EconomyStorage storage, BigDecimal amount, BigDecimal minimum, BigDecimal maximum, EconomyResultType rejection) {
+        try {
+            Optional<BigDecimal> result = storage.adjust(this, amount, minimum, maximum);
+            if(result.isEmpty()) {
+                return rejection;
+            }
+
+            this.units = Money.units(result.get(), this.scale);
+            storage.written(this);
+            return EconomyResultType.SUCCESS;
+        } catch (Exception e) {
+            ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+            return EconomyResultType.FAILED;
+        }
+    }
+
+    /**
+     * Moves funds from this account to the target via storage, adopting the balances held by storage
+     * once applied. Callers must hold the locks of both accounts.
+     */
+    private EconomyResultType transfer(EconomyStorage storage, ImpactorAccount to, BigDecimal amount, TransactionRestrictions restrictions) {
+        try {
+            BalanceArithmetic.TransferResult result = storage.transfer(this, to, amount, restrictions.floor(), restrictions.ceiling());
+            if(result.result() == EconomyResultType.SUCCESS) {
+                this.units = Money.units(result.from(), this.scale);
+                to.units = Money.units(result.to(), to.scale);
+                storage.written(this);
+                storage.written(to);
+            }
+
+            return result.result();
+        } catch (Exception e) {
+            ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+            return EconomyResultType.FAILED;
+        }
+    }
+
+    /**
+     * Runs the given action while holding the lock of this account, serializing it against
+     * any other balance modification made to this account.
+     *
+     * @param action The action to perform
+     * @return The result of the action
+     */
+    private <T> T locked(Supplier<T> action) {
+        Lock lock = LOCKS.get(this.owner);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the given action while holding the locks of both accounts. Locks are always acquired
+     * in stripe order, regardless of the order of the accounts supplied, such that two opposing
+     * transfers can never deadlock one another.
+     *
+     * @param first The owner of the first account
+     * @param second The owner of the second account
+     * @param action The action to perform
+     * @return The result of the action
+     */
+    private static <T> T locked(UUID first, UUID second, Supplier<T> action) {
+        List<Lock> locks = Lists.newArrayList(LOCKS.bulkGet(List.of(first, second)));
+        locks.forEach(Lock::lock);
+        try {
+            return action.get();
+        } finally {
+            Lists.reverse(locks).forEach(Lock::unlock);
+        }
     }
 
     private void save() {
@@ -383,8 +739,9 @@ public final class ImpactorAccount implements Account {
     }
 
     private <T> T enact(BigDecimal amount, EconomyTransactionType type, TransactionProcessor<T> processor, Supplier<T> fallback) {
+        long start = System.nanoTime();
         try {
-            return processor.process();
+            return this.measure(type, start, processor.process());
         } catch (PostResult.CompositeException exception) {
             PrettyPrinter printer = new PrettyPrinter(80);
             printer.title("Economy Transaction - Subscriber Exceptions")
@@ -415,8 +772,24 @@ public final class ImpactorAccount implements Account {
                     });
 
             Schedulers.require(Scheduler.SYNCHRONOUS).executor().execute(() -> printer.log(BaseImpactorPlugin.instance().logger(), PrettyPrinter.Level.ERROR));
-            return fallback.get();
+            return this.measure(type, start, fallback.get());
+        }
+    }
+
+    /**
+     * Records the outcome of a transaction against the metrics of the economy, having started
+     * processing at the given time.
+     */
+    private <T> T measure(EconomyTransactionType type, long start, T transaction) {
+        if(this.service instanceof ImpactorEconomyService) {
+            EconomyResultType result = transaction instanceof EconomyTransferTransaction
+                    ? ((EconomyTransferTransaction) transaction).result()
+                    : ((EconomyTransaction) transaction).result();
+
+            ((ImpactorEconomyService) this.service).metrics().transaction(this.currency, type, result, System.nanoTime() - start);
         }
+
+        return transaction;
     }
 
     private <T> Optional<T> restriction(ConfigKey<T> key) {
@@ -444,7 +817,17 @@ public final class ImpactorAccount implements Account {
 
     }
 
-    private EconomyTransactionEvent.Pre createAndFirePre(BigDecimal amount, EconomyTransactionType type) throws PostResult.CompositeException{
+    /**
+     * Posts the pre-transaction event, unless nothing is subscribed to receive it, in which case the
+     * event is never constructed.
+     *
+     * @return True if a subscriber cancelled the transaction, false otherwise
+     */
+    private boolean cancelledByPre(BigDecimal amount, EconomyTransactionType type) throws PostResult.CompositeException {
+        if(!EventPublisher.subscribed(ImpactorEconomyTransactionEvent.Pre.class)) {
+            return false;
+        }
+
         EconomyTransactionEvent.Pre event = new ImpactorEconomyTransactionEvent.Pre(
                 this.currency,
                 this,
@@ -453,15 +836,44 @@ public final class ImpactorAccount implements Account {
         );
 
         this.postAndVerify(event);
-        return event;
+        return event.cancelled();
     }
 
-    @CanIgnoreReturnValue
-    private EconomyTransaction createAndFirePost(EconomyTransaction transaction) throws PostResult.CompositeException {
-        EconomyTransactionEvent.Post event = new ImpactorEconomyTransactionEvent.Post(transaction);
-        this.postAndVerify(event);
+    /**
+     * Determines the outcome of a transaction whilst holding the lock of this account, journaling the
+     * transaction within the same critical section that commits its change to the balance.
+     */
+    private EconomyTransaction transact(ImpactorEconomyTransaction.TransactionBuilder builder, Map<EconomyResultType, Supplier<Component>> messages, Supplier<EconomyResultType> outcome) {
+        return this.locked(() -> this.journal(this.complete(builder, outcome.get(), messages)));
+    }
+
+    /**
+     * Records the given transaction within the journal. Callers must hold the lock of the account.
+     */
+    private EconomyTransaction journal(EconomyTransaction transaction) {
+        if(this.service instanceof ImpactorEconomyService) {
+            ((ImpactorEconomyService) this.service).storage().logTransaction(transaction);
+        }
 
-        ((ImpactorEconomyService) this.service).storage().logTransaction(transaction);
+        return transaction;
+    }
+
+    /**
+     * Records the given transfer within the journal. Callers must hold the locks of both accounts.
+     */
+    private EconomyTransferTransaction journal(EconomyTransferTransaction transaction) {
+        if(this.service instanceof ImpactorEconomyService) {
+            ((ImpactorEconomyService) this.service).storage().logTransaction(transaction);
+        }
+
+        return transaction;
+    }
+
+    @CanIgnoreReturnValue
+    private EconomyTransaction firePost(EconomyTransaction transaction) throws PostResult.CompositeException {
+        if(EventPublisher.subscribed(ImpactorEconomyTransactionEvent.Post.class)) {
+            this.postAndVerify(new ImpactorEconomyTransactionEvent.Post(transaction));
+        }
         return transaction;
     }
 
@@ -0,0 +1,125 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.accounts;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic over monetary amounts held as a count of minor units, where the scale of an
+ * amount is the number of decimals of its currency. A balance of 12.34 under a currency with two
+ * decimals is therefore held as 1234. All arithmetic is performed over primitive longs, and fails
+ * with an {@link ArithmeticException} rather than overflowing, such that {@link BigDecimal} is only
+ * ever required when an amount crosses the API.
+ */
+public final class Money {
+
+    /** The most decimals a currency may be represented with, leaving room for at least a single whole digit */
+    public static final int MAXIMUM_SCALE = 18;
+
+    private Money() {}
+
+    /**
+     * Resolves the scale amounts of a currency with the given number of decimals are held at.
+     *
+     * @param decimals The number of decimals of the currency
+     * @return The scale to hold amounts at
+     */
+    public static int scale(int decimals) {
+        return Math.max(0, Math.min(MAXIMUM_SCALE, decimals));
+    }
+
+    /**
+     * Converts the given amount into minor units of the given scale. Amounts more precise than the
+     * scale are rounded to the nearest minor unit, with ties rounded towards the even neighbour.
+     *
+     * @param amount The amount to convert
+     * @param scale The scale of the minor units
+     * @return The amount in minor units
+     * @throws ArithmeticException If the amount cannot be held within a long at the given scale
+     */
+    public static long units(BigDecimal amount, int scale) {
+        return amount.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts the given minor units back into a decimal amount. Trailing zeros beyond the first
+     * decimal place are dropped, matching the representation of a balance read from a double, as
+     * has always been supplied for flat file storage.
+     *
+     * @param units The amount in minor units
+     * @param scale The scale of the minor units
+     * @return The decimal amount
+     */
+    public static BigDecimal decimal(long units, int scale) {
+        if(scale == 0) {
+            return BigDecimal.valueOf(units).setScale(1, RoundingMode.UNNECESSARY);
+        }
+
+        while(scale > 1 && units % 10 == 0) {
+            units /= 10;
+            scale--;
+        }
+
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    /**
+     * Adds two amounts of the same scale.
+     *
+     * @throws ArithmeticException If the result overflows
+     */
+    public static long add(long first, long second) {
+        return Math.addExact(first, second);
+    }
+
+    /**
+     * Subtracts an amount from another of the same scale.
+     *
+     * @throws ArithmeticException If the result overflows
+     */
+    public static long subtract(long first, long second) {
+        return Math.subtractExact(first, second);
+    }
+
+    /**
+     * Converts an amount into minor units of the given scale, saturating at the bounds of a long
+     * rather than failing. This is intended for bounds, such as restrictions, where an amount beyond
+     * the range of a long is equivalent to no bound at all.
+     *
+     * @param amount The amount to convert
+     * @param scale The scale of the minor units
+     * @return The amount in minor units, saturated to the range of a long
+     */
+    public static long saturated(BigDecimal amount, int scale) {
+        try {
+            return units(amount, scale);
+        } catch (ArithmeticException e) {
+            return amount.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+}
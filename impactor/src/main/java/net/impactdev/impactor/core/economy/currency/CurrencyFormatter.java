@@ -0,0 +1,135 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.currency;
+
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.kyori.adventure.text.Component.text;
+
+/**
+ * Formats amounts of a currency against templates which are parsed only once, when the formatter
+ * is created. Each template is parsed with a marker in place of the amount, such that formatting an
+ * amount only requires the marker to be replaced within the already parsed component.
+ */
+final class CurrencyFormatter {
+
+    /** A character from the private use area, which will never appear within a template on its own */
+    private static final String SLOT = "\uE000";
+
+    private final String pattern;
+    private final Map<Locale, ThreadLocal<DecimalFormat>> numbers = new ConcurrentHashMap<>();
+
+    private final Component condensedSingular;
+    private final Component condensedPlural;
+    private final Component expandedSingular;
+    private final Component expandedPlural;
+
+    CurrencyFormatter(String pattern, Currency.CurrencyFormatting formatting, Component symbol, Component singular, Component plural) {
+        this.pattern = pattern;
+        this.condensedSingular = compile(formatting.condensed(), symbol, singular);
+        this.condensedPlural = compile(formatting.condensed(), symbol, plural);
+        this.expandedSingular = compile(formatting.expanded(), symbol, singular);
+        this.expandedPlural = compile(formatting.expanded(), symbol, plural);
+    }
+
+    Component format(BigDecimal amount, boolean condensed, Locale locale) {
+        boolean single = amount.compareTo(BigDecimal.ONE) == 0;
+        Component template = condensed
+                ? (single ? this.condensedSingular : this.condensedPlural)
+                : (single ? this.expandedSingular : this.expandedPlural);
+
+        String value = this.numbers.computeIfAbsent(locale, this::formatter).get().format(amount);
+        return substitute(template, value);
+    }
+
+    private ThreadLocal<DecimalFormat> formatter(Locale locale) {
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols(locale);
+        return ThreadLocal.withInitial(() -> new DecimalFormat(this.pattern, symbols));
+    }
+
+    private static Component compile(String template, Component symbol, Component name) {
+        return MiniMessage.miniMessage().deserialize(
+                template,
+                Placeholder.component("symbol", symbol),
+                Placeholder.component("amount", text(SLOT)),
+                Placeholder.component("name", name)
+        );
+    }
+
+    /**
+     * Replaces the amount marker within the given component, including its children and hover text.
+     * Components without the marker are returned as is, so only the path to the marker is copied.
+     */
+    private static Component substitute(Component component, String value) {
+        Component result = component;
+        if(component instanceof TextComponent) {
+            String content = ((TextComponent) component).content();
+            if(content.contains(SLOT)) {
+                result = ((TextComponent) component).content(content.replace(SLOT, value));
+            }
+        }
+
+        HoverEvent<?> hover = component.hoverEvent();
+        if(hover != null && hover.action() == HoverEvent.Action.SHOW_TEXT) {
+            Component text = (Component) hover.value();
+            Component replaced = substitute(text, value);
+            if(replaced != text) {
+                result = result.hoverEvent(HoverEvent.showText(replaced));
+            }
+        }
+
+        List<Component> children = component.children();
+        List<Component> replaced = null;
+        for(int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component substituted = substitute(child, value);
+            if(substituted != child) {
+                if(replaced == null) {
+                    replaced = new ArrayList<>(children);
+                }
+
+                replaced.set(i, substituted);
+            }
+        }
+
+        return replaced != null ? result.children(replaced) : result;
+    }
+
+}
@@ -26,22 +26,17 @@
 package net.impactdev.impactor.core.economy.currency;
 
 import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import net.impactdev.impactor.api.economy.currency.Currency;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import net.kyori.adventure.util.TriState;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
 import java.util.Locale;
 
-import static net.kyori.adventure.text.Component.text;
-
 public class ImpactorCurrency implements Currency {
 
     private final Key key;
@@ -55,7 +50,7 @@ public class ImpactorCurrency implements Currency {
     private final boolean primary;
     private final TriState transferable;
 
-    private final String formatPattern;
+    private final Supplier<CurrencyFormatter> formatter;
 
     private ImpactorCurrency(final ImpactorCurrencyBuilder builder) {
         this.key = builder.key;
@@ -75,7 +70,8 @@ public class ImpactorCurrency implements Currency {
             sb.append(Strings.repeat("0", this.decimals));
         }
 
-        this.formatPattern = sb.toString();
+        String pattern = sb.toString();
+        this.formatter = Suppliers.memoize(() -> new CurrencyFormatter(pattern, this.formatting, this.symbol, this.name, this.plural));
     }
 
     @Override
@@ -105,16 +101,7 @@ public class ImpactorCurrency implements Currency {
 
     @Override
     public Component format(@NotNull BigDecimal amount, boolean condensed, @NotNull Locale locale) {
-        DecimalFormat formatter = new DecimalFormat(this.formatPattern, new DecimalFormatSymbols(locale));
-        MiniMessage mini = MiniMessage.miniMessage();
-        TagResolver.Single symbol = Placeholder.component("symbol", this.symbol);
-        TagResolver.Single value = Placeholder.component("amount", text(formatter.format(amount.doubleValue())));
-        TagResolver.Single expanded = Placeholder.component("name", amount.doubleValue() == 1 ? this.singular() : this.plural());
-
-        return mini.deserialize(
-                condensed ? this.formatting.condensed() : this.formatting.expanded(),
-                symbol, value, expanded
-        );
+        return this.formatter.get().format(amount, condensed, locale);
     }
 
     @Override
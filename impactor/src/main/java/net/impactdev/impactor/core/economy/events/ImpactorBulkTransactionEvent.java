@@ -0,0 +1,93 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.events;
+
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+import net.impactdev.impactor.api.events.ImpactorEvent;
+import net.impactdev.impactor.core.economy.transactions.BulkTransaction;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Fired once for an entire bulk transaction, rather than once per account involved.
+ */
+public abstract class ImpactorBulkTransactionEvent implements ImpactorEvent {
+
+    private final EconomyTransactionType type;
+    private final BigDecimal amount;
+
+    public ImpactorBulkTransactionEvent(EconomyTransactionType type, BigDecimal amount) {
+        this.type = type;
+        this.amount = amount;
+    }
+
+    public EconomyTransactionType type() {
+        return this.type;
+    }
+
+    public BigDecimal amount() {
+        return this.amount;
+    }
+
+    public static final class Pre extends ImpactorBulkTransactionEvent {
+
+        private final List<Account> accounts;
+        private boolean cancelled = false;
+
+        public Pre(EconomyTransactionType type, BigDecimal amount, List<Account> accounts) {
+            super(type, amount);
+            this.accounts = accounts;
+        }
+
+        public List<Account> accounts() {
+            return this.accounts;
+        }
+
+        public boolean cancelled() {
+            return this.cancelled;
+        }
+
+        public void cancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+    }
+
+    public static final class Post extends ImpactorBulkTransactionEvent {
+
+        private final BulkTransaction transaction;
+
+        public Post(BulkTransaction transaction) {
+            super(transaction.type(), transaction.amount());
+            this.transaction = transaction;
+        }
+
+        public BulkTransaction transaction() {
+            return this.transaction;
+        }
+    }
+}
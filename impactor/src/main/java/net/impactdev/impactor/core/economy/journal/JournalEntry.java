@@ -0,0 +1,166 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.journal;
+
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
+import net.impactdev.impactor.api.economy.transactions.EconomyTransferTransaction;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A single record of the transaction journal, describing the effect of a transaction on one account.
+ * Alongside the details of the transaction, each entry captures the balance of the account as it stood
+ * once the transaction was applied, allowing an account to be restored from its latest entry.
+ *
+ * <p>Transfers are recorded as one entry per account involved, where the amount of the entry is
+ * negative for the account funds were withdrawn from.</p>
+ *
+ * @param currency The key of the currency the transaction was made under
+ * @param owner The owner of the account affected
+ * @param counterparty The owner of the other account involved in a transfer, if any
+ * @param type The type of transaction
+ * @param result The result of the transaction
+ * @param amount The amount of the transaction
+ * @param balance The balance of the account after the transaction
+ * @param timestamp The time the transaction was recorded
+ */
+public record JournalEntry(
+        Key currency,
+        UUID owner,
+        @Nullable UUID counterparty,
+        EconomyTransactionType type,
+        EconomyResultType result,
+        BigDecimal amount,
+        BigDecimal balance,
+        Instant timestamp
+) {
+
+    private static final int COUNTERPARTY = 1;
+
+    public static JournalEntry of(EconomyTransaction transaction) {
+        Account account = transaction.account();
+        return new JournalEntry(
+                transaction.currency().key(),
+                account.owner(),
+                null,
+                transaction.type(),
+                transaction.result(),
+                transaction.amount(),
+                account.balance(),
+                transaction.timestamp()
+        );
+    }
+
+    public static List<JournalEntry> of(EconomyTransferTransaction transaction) {
+        Instant now = Instant.now();
+        Account from = transaction.from();
+        Account to = transaction.to();
+
+        return List.of(
+                new JournalEntry(
+                        from.currency().key(),
+                        from.owner(),
+                        to.owner(),
+                        EconomyTransactionType.TRANSFER,
+                        transaction.result(),
+                        transaction.amount().negate(),
+                        from.balance(),
+                        now
+                ),
+                new JournalEntry(
+                        to.currency().key(),
+                        to.owner(),
+                        from.owner(),
+                        EconomyTransactionType.TRANSFER,
+                        transaction.result(),
+                        transaction.amount(),
+                        to.balance(),
+                        now
+                )
+        );
+    }
+
+    public void write(DataOutput output) throws IOException {
+        output.writeLong(this.timestamp.toEpochMilli());
+        output.writeLong(this.owner.getMostSignificantBits());
+        output.writeLong(this.owner.getLeastSignificantBits());
+        output.writeByte(this.counterparty != null ? COUNTERPARTY : 0);
+        if(this.counterparty != null) {
+            output.writeLong(this.counterparty.getMostSignificantBits());
+            output.writeLong(this.counterparty.getLeastSignificantBits());
+        }
+        output.writeUTF(this.currency.asString());
+        output.writeUTF(this.type.name());
+        output.writeUTF(this.result.name());
+        writeDecimal(output, this.amount);
+        writeDecimal(output, this.balance);
+    }
+
+    @SuppressWarnings("PatternValidation")
+    public static JournalEntry read(DataInput input) throws IOException {
+        Instant timestamp = Instant.ofEpochMilli(input.readLong());
+        UUID owner = new UUID(input.readLong(), input.readLong());
+        UUID counterparty = null;
+        if((input.readByte() & COUNTERPARTY) != 0) {
+            counterparty = new UUID(input.readLong(), input.readLong());
+        }
+
+        Key currency = Key.key(input.readUTF());
+        EconomyTransactionType type = EconomyTransactionType.valueOf(input.readUTF());
+        EconomyResultType result = EconomyResultType.valueOf(input.readUTF());
+        BigDecimal amount = readDecimal(input);
+        BigDecimal balance = readDecimal(input);
+
+        return new JournalEntry(currency, owner, counterparty, type, result, amount, balance, timestamp);
+    }
+
+    private static void writeDecimal(DataOutput output, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        output.writeInt(value.scale());
+        output.writeShort(unscaled.length);
+        output.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInput input) throws IOException {
+        int scale = input.readInt();
+        byte[] unscaled = new byte[input.readUnsignedShort()];
+        input.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+}
@@ -0,0 +1,370 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.journal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * A single file of the transaction journal. Records are appended to the segment as length prefixed
+ * payloads followed by a checksum of the payload, allowing a partially written record at the tail of
+ * a segment to be detected and discarded after a crash.
+ *
+ * <p>While a segment is active, the positions of each account's records are tracked in memory. Once
+ * sealed, these positions are written to a companion index file, sorted by account, such that later
+ * lookups only need to read the records of the account in question.</p>
+ */
+final class JournalSegment {
+
+    static final String EXTENSION = ".journal";
+    static final String INDEX_EXTENSION = ".index";
+
+    private static final int MAGIC = 0x494A524E;
+    private static final int INDEX_MAGIC = 0x494A4958;
+    private static final int VERSION = 1;
+    private static final int HEADER = 8;
+
+    /** The upper bound of a single record, used to reject corrupted length prefixes */
+    private static final int MAX_RECORD = 1 << 16;
+
+    private final long id;
+    private final Path file;
+    private final Path index;
+
+    private FileChannel channel;
+    private long size;
+    private long minimum = Long.MAX_VALUE;
+    private long maximum = Long.MIN_VALUE;
+    private int records;
+
+    private Map<UUID, Offsets> offsets;
+
+    private JournalSegment(long id, Path file) {
+        this.id = id;
+        this.file = file;
+        this.index = file.resolveSibling(file.getFileName().toString().replace(EXTENSION, INDEX_EXTENSION));
+    }
+
+    static JournalSegment create(Path directory, long id) throws IOException {
+        JournalSegment segment = new JournalSegment(id, directory.resolve(name(id) + EXTENSION));
+        segment.channel = FileChannel.open(segment.file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.READ);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION).flip();
+        while(header.hasRemaining()) {
+            segment.channel.write(header);
+        }
+        segment.channel.force(true);
+
+        segment.size = HEADER;
+        segment.offsets = new HashMap<>();
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment. Segments with an index are considered sealed, and only have their
+     * summary read. Segments without an index are scanned in full, discarding any incomplete record
+     * found at the end of the segment, and are left open for further appends.
+     */
+    static JournalSegment open(Path file, long id) throws IOException {
+        JournalSegment segment = new JournalSegment(id, file);
+        if(Files.exists(segment.index)) {
+            try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.index)))) {
+                if(input.readInt() == INDEX_MAGIC) {
+                    segment.size = input.readLong();
+                    segment.records = input.readInt();
+                    segment.minimum = input.readLong();
+                    segment.maximum = input.readLong();
+                    return segment;
+                }
+            } catch (EOFException ignored) {}
+        }
+
+        segment.offsets = new HashMap<>();
+        segment.size = segment.scan((offset, entry) -> segment.track(offset, entry));
+        segment.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        if(segment.channel.size() > segment.size) {
+            segment.channel.truncate(segment.size);
+        }
+
+        return segment;
+    }
+
+    long id() {
+        return this.id;
+    }
+
+    long size() {
+        return this.size;
+    }
+
+    int records() {
+        return this.records;
+    }
+
+    long maximum() {
+        return this.maximum;
+    }
+
+    boolean active() {
+        return this.offsets != null;
+    }
+
+    /**
+     * Appends the encoded records to the end of the segment.
+     *
+     * @param records The records to write
+     * @param force Whether the write should be forced to the storage device before returning
+     */
+    void append(List<Encoded> records, boolean force) throws IOException {
+        int length = records.stream().mapToInt(record -> record.data.length).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long position = this.size;
+        for(Encoded record : records) {
+            buffer.put(record.data);
+        }
+
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            this.channel.write(buffer, this.size + buffer.position());
+        }
+
+        if(force) {
+            this.channel.force(false);
+        }
+
+        for(Encoded record : records) {
+            this.track(position, record.entry);
+            position += record.data.length;
+        }
+        this.size = position;
+    }
+
+    /**
+     * Seals the segment, writing its index to disk and releasing the in-memory positions
+     * tracked for it.
+     */
+    void seal() throws IOException {
+        if(this.offsets == null) {
+            return;
+        }
+
+        SegmentIndex built = SegmentIndex.build(this.offsets);
+        Path temp = this.index.resolveSibling(this.index.getFileName() + ".tmp");
+        try(DataOutputStream output = new DataOutputStream(Files.newOutputStream(temp))) {
+            output.writeInt(INDEX_MAGIC);
+            output.writeLong(this.size);
+            output.writeInt(this.records);
+            output.writeLong(this.minimum);
+            output.writeLong(this.maximum);
+            built.write(output);
+        }
+        Files.move(temp, this.index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        this.close();
+        this.offsets = null;
+    }
+
+    void close() throws IOException {
+        if(this.channel != null) {
+            this.channel.force(false);
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Fetches the positions of each record belonging to the given owner within the active segment.
+     */
+    long[] positions(UUID owner) {
+        Offsets offsets = this.offsets.get(owner);
+        return offsets == null ? new long[0] : offsets.values();
+    }
+
+    /**
+     * Loads the index of a sealed segment from disk.
+     */
+    SegmentIndex index() throws IOException {
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.index)))) {
+            input.readInt();
+            input.readLong();
+            input.readInt();
+            input.readLong();
+            input.readLong();
+            return SegmentIndex.read(input);
+        }
+    }
+
+    /**
+     * Reads the records located at each of the given positions.
+     */
+    void read(long[] positions, RecordConsumer consumer) throws IOException {
+        try(FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+            ByteBuffer prefix = ByteBuffer.allocate(Integer.BYTES);
+            for(long position : positions) {
+                prefix.clear();
+                this.readFully(channel, prefix, position);
+
+                ByteBuffer payload = ByteBuffer.allocate(prefix.flip().getInt());
+                this.readFully(channel, payload, position + Integer.BYTES);
+                consumer.accept(position, JournalEntry.read(new DataInputStream(new ByteArrayInputStream(payload.array()))));
+            }
+        }
+    }
+
+    /**
+     * Reads every intact record of the segment, in the order they were appended.
+     */
+    void entries(RecordConsumer consumer) throws IOException {
+        this.scan(consumer);
+    }
+
+    void delete() throws IOException {
+        this.close();
+        Files.deleteIfExists(this.index);
+        Files.deleteIfExists(this.file);
+    }
+
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of journal segment " + this.file.getFileName());
+            }
+        }
+    }
+
+    /**
+     * Reads every intact record of the segment in order, stopping at the first record which is
+     * incomplete or fails its checksum.
+     *
+     * @return The position directly following the last intact record
+     */
+    private long scan(RecordConsumer consumer) throws IOException {
+        try(InputStream stream = new BufferedInputStream(Files.newInputStream(this.file))) {
+            DataInputStream input = new DataInputStream(stream);
+            if(input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Invalid journal segment: " + this.file.getFileName());
+            }
+
+            long position = HEADER;
+            CRC32 crc = new CRC32();
+            while(true) {
+                try {
+                    int length = input.readInt();
+                    if(length <= 0 || length > MAX_RECORD) {
+                        return position;
+                    }
+
+                    byte[] payload = new byte[length];
+                    input.readFully(payload);
+                    int checksum = input.readInt();
+
+                    crc.reset();
+                    crc.update(payload);
+                    if((int) crc.getValue() != checksum) {
+                        return position;
+                    }
+
+                    consumer.accept(position, JournalEntry.read(new DataInputStream(new ByteArrayInputStream(payload))));
+                    position += Integer.BYTES + length + Integer.BYTES;
+                } catch (EOFException e) {
+                    return position;
+                }
+            }
+        }
+    }
+
+    private void track(long position, JournalEntry entry) {
+        this.offsets.computeIfAbsent(entry.owner(), ignore -> new Offsets()).add(position);
+        long timestamp = entry.timestamp().toEpochMilli();
+        this.minimum = Math.min(this.minimum, timestamp);
+        this.maximum = Math.max(this.maximum, timestamp);
+        this.records++;
+    }
+
+    static String name(long id) {
+        return String.format("segment-%012d", id);
+    }
+
+    static Encoded encode(JournalEntry entry) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(96);
+        entry.write(new DataOutputStream(payload));
+        byte[] bytes = payload.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + bytes.length + Integer.BYTES);
+        record.putInt(bytes.length).put(bytes).putInt((int) crc.getValue());
+        return new Encoded(entry, record.array());
+    }
+
+    record Encoded(JournalEntry entry, byte[] data) {}
+
+    @FunctionalInterface
+    interface RecordConsumer {
+
+        void accept(long position, JournalEntry entry) throws IOException;
+
+    }
+
+    static final class Offsets {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if(this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+
+            this.values[this.size++] = value;
+        }
+
+        long[] values() {
+            return Arrays.copyOf(this.values, this.size);
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The index of a sealed journal segment, mapping each account owner to the positions of their records
+ * within the segment. Owners are held in sorted order within flat arrays, so a lookup is a binary search
+ * without any per-owner object overhead.
+ */
+final class SegmentIndex {
+
+    private final long[] most;
+    private final long[] least;
+    private final int[] starts;
+    private final long[] positions;
+
+    private SegmentIndex(long[] most, long[] least, int[] starts, long[] positions) {
+        this.most = most;
+        this.least = least;
+        this.starts = starts;
+        this.positions = positions;
+    }
+
+    static SegmentIndex build(Map<UUID, JournalSegment.Offsets> offsets) {
+        List<UUID> owners = new ArrayList<>(offsets.keySet());
+        owners.sort(Comparator.naturalOrder());
+
+        long[] most = new long[owners.size()];
+        long[] least = new long[owners.size()];
+        int[] starts = new int[owners.size() + 1];
+        long[] positions = new long[offsets.values().stream().mapToInt(o -> o.values().length).sum()];
+
+        int cursor = 0;
+        for(int i = 0; i < owners.size(); i++) {
+            UUID owner = owners.get(i);
+            long[] values = offsets.get(owner).values();
+
+            most[i] = owner.getMostSignificantBits();
+            least[i] = owner.getLeastSignificantBits();
+            starts[i] = cursor;
+            System.arraycopy(values, 0, positions, cursor, values.length);
+            cursor += values.length;
+        }
+        starts[owners.size()] = cursor;
+
+        return new SegmentIndex(most, least, starts, positions);
+    }
+
+    static SegmentIndex read(DataInput input) throws IOException {
+        int owners = input.readInt();
+        long[] most = new long[owners];
+        long[] least = new long[owners];
+        int[] starts = new int[owners + 1];
+        for(int i = 0; i < owners; i++) {
+            most[i] = input.readLong();
+            least[i] = input.readLong();
+            starts[i] = input.readInt();
+        }
+
+        long[] positions = new long[input.readInt()];
+        starts[owners] = positions.length;
+        for(int i = 0; i < positions.length; i++) {
+            positions[i] = input.readLong();
+        }
+
+        return new SegmentIndex(most, least, starts, positions);
+    }
+
+    void write(DataOutput output) throws IOException {
+        output.writeInt(this.most.length);
+        for(int i = 0; i < this.most.length; i++) {
+            output.writeLong(this.most[i]);
+            output.writeLong(this.least[i]);
+            output.writeInt(this.starts[i]);
+        }
+
+        output.writeInt(this.positions.length);
+        for(long position : this.positions) {
+            output.writeLong(position);
+        }
+    }
+
+    long[] positions(UUID owner) {
+        int low = 0;
+        int high = this.most.length - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(this.most[mid], this.least[mid], owner);
+            if(comparison < 0) {
+                low = mid + 1;
+            } else if(comparison > 0) {
+                high = mid - 1;
+            } else {
+                int start = this.starts[mid];
+                int end = this.starts[mid + 1];
+                long[] result = new long[end - start];
+                System.arraycopy(this.positions, start, result, 0, result.length);
+                return result;
+            }
+        }
+
+        return new long[0];
+    }
+
+    /**
+     * Compares an indexed owner against the target, following the ordering of {@link UUID#compareTo(UUID)}
+     * such that the index remains sorted in the same order it was built with.
+     */
+    private static int compare(long most, long least, UUID target) {
+        int result = Long.compare(most, target.getMostSignificantBits());
+        return result != 0 ? result : Long.compare(least, target.getLeastSignificantBits());
+    }
+
+}
@@ -0,0 +1,406 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.journal;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.kyori.adventure.key.Key;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * An append-only, binary journal of every transaction processed by the economy. Records are appended to
+ * the active segment by a single writer, which drains every record queued since its last write and commits
+ * them together, such that concurrent transactions share a single write and sync to disk.
+ *
+ * <p>Once the active segment exceeds the configured size, it is sealed with an index of its records by
+ * account and a new segment is started. Lookups for an account only read the segments which contain
+ * records newer than the requested time, and within those, only the records of that account.</p>
+ */
+public final class TransactionJournal {
+
+    /** The maximum number of records committed within a single write */
+    private static final int GROUP_SIZE = 1024;
+
+    /** The file recording the time before which every journaled change is held by storage */
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean force;
+    private final Duration retention;
+    private final Executor executor;
+
+    private final List<JournalSegment> segments = new ArrayList<>();
+    private final LoadingCache<JournalSegment, SegmentIndex> indexes;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private JournalSegment active;
+
+    public TransactionJournal(Path directory, long segmentSize, boolean force, Executor executor) {
+        this(directory, segmentSize, force, Duration.ZERO, executor);
+    }
+
+    /**
+     * @param directory The directory to store segments within
+     * @param segmentSize The number of bytes a segment may reach before it is sealed
+     * @param force Whether each commit should wait for its records to reach the disk
+     * @param retention How long sealed segments are kept once covered by a checkpoint, such that
+     *                  the history of each account remains available to lookups
+     * @param executor The executor committing queued records
+     */
+    public TransactionJournal(Path directory, long segmentSize, boolean force, Duration retention, Executor executor) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.force = force;
+        this.retention = retention;
+        this.executor = executor;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(16)
+                .build(segment -> {
+                    try {
+                        return segment.index();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    public void init() throws IOException {
+        Files.createDirectories(this.directory);
+        try(Stream<Path> files = Files.list(this.directory)) {
+            List<Path> existing = files.filter(path -> path.getFileName().toString().endsWith(JournalSegment.EXTENSION))
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+
+            for(Path file : existing) {
+                String name = file.getFileName().toString();
+                long id = Long.parseLong(name.substring(name.indexOf('-') + 1, name.length() - JournalSegment.EXTENSION.length()));
+                this.segments.add(JournalSegment.open(file, id));
+            }
+        }
+
+        // Only the newest segment may remain open for appends, any others left unsealed by an
+        // unclean shutdown are sealed now
+        for(int i = 0; i < this.segments.size() - 1; i++) {
+            this.segments.get(i).seal();
+        }
+
+        JournalSegment last = this.segments.isEmpty() ? null : this.segments.get(this.segments.size() - 1);
+        if(last != null && last.active()) {
+            this.active = last;
+        } else {
+            this.rotate();
+        }
+    }
+
+    public void shutdown() throws IOException {
+        this.lock.lock();
+        try {
+            this.write();
+            for(JournalSegment segment : this.segments) {
+                segment.close();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Queues the given entries to be appended to the journal. Entries queued by a single call are
+     * guaranteed to be committed within the same write.
+     *
+     * @param entries The entries to append
+     * @return A future completing once the entries have been committed
+     */
+    public CompletableFuture<Void> append(List<JournalEntry> entries) {
+        Pending pending = new Pending(entries, new CompletableFuture<>());
+        this.queue.add(pending);
+
+        if(this.draining.compareAndSet(false, true)) {
+            this.executor.execute(this::drain);
+        }
+
+        return pending.future;
+    }
+
+    /**
+     * Provides a future completing once every entry queued prior to this call has been committed.
+     *
+     * @return A future completing once the queue has been committed up to this point
+     */
+    public CompletableFuture<Void> committed() {
+        return this.append(List.of());
+    }
+
+    /**
+     * Fetches the journaled entries of an account recorded at or after the given time, in the order
+     * they were appended.
+     *
+     * @param owner The owner of the account
+     * @param currency The currency of the account
+     * @param since The earliest time of entries to include
+     * @return The matching entries
+     */
+    public List<JournalEntry> entries(UUID owner, Key currency, Instant since) throws IOException {
+        long threshold = since.toEpochMilli();
+        List<JournalSegment> candidates;
+        JournalSegment current;
+        long[] active;
+
+        this.lock.lock();
+        try {
+            candidates = this.segments.stream()
+                    .filter(segment -> segment.records() > 0 && segment.maximum() >= threshold)
+                    .toList();
+            current = this.active;
+            active = current.positions(owner);
+        } finally {
+            this.lock.unlock();
+        }
+
+        List<JournalEntry> results = new ArrayList<>();
+        for(JournalSegment segment : candidates) {
+            long[] positions;
+            if(segment == current) {
+                positions = active;
+            } else {
+                try {
+                    positions = this.indexes.get(segment).positions(owner);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+
+            segment.read(positions, (position, entry) -> {
+                if(entry.currency().equals(currency) && !entry.timestamp().isBefore(since)) {
+                    results.add(entry);
+                }
+            });
+        }
+
+        return results;
+    }
+
+    /**
+     * Locates the most recent successful entry of an account recorded at or after the given time.
+     *
+     * @param owner The owner of the account
+     * @param currency The currency of the account
+     * @param since The earliest time of entries to consider
+     * @return The latest successful entry, if any
+     */
+    public Optional<JournalEntry> latest(UUID owner, Key currency, Instant since) throws IOException {
+        List<JournalEntry> entries = this.entries(owner, currency, since);
+        for(int i = entries.size() - 1; i >= 0; i--) {
+            if(entries.get(i).result() == EconomyResultType.SUCCESS) {
+                return Optional.of(entries.get(i));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Fetches every journaled entry recorded at or after the given time, across all accounts, in the
+     * order they were appended.
+     *
+     * @param since The earliest time of entries to include
+     * @return The matching entries
+     */
+    public List<JournalEntry> entries(Instant since) throws IOException {
+        long threshold = since.toEpochMilli();
+        List<JournalEntry> results = new ArrayList<>();
+
+        this.lock.lock();
+        try {
+            for(JournalSegment segment : this.segments) {
+                if(segment.records() > 0 && segment.maximum() >= threshold) {
+                    segment.entries((position, entry) -> {
+                        if(!entry.timestamp().isBefore(since)) {
+                            results.add(entry);
+                        }
+                    });
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        return results;
+    }
+
+    /**
+     * Reads the time recorded by the latest checkpoint, before which every journaled change is known
+     * to be held by storage. If no checkpoint has been recorded, every entry of the journal is
+     * considered to be newer than the checkpoint.
+     *
+     * @return The time of the latest checkpoint
+     */
+    public Instant checkpoint() throws IOException {
+        Path file = this.directory.resolve(CHECKPOINT);
+        if(!Files.exists(file)) {
+            return Instant.EPOCH;
+        }
+
+        try(DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            return Instant.ofEpochMilli(input.readLong());
+        } catch (EOFException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    /**
+     * Records that every change journaled before the given time is now held by storage, and deletes
+     * each sealed segment containing only entries older than this time, less the configured retention,
+     * as they are no longer required for recovery.
+     *
+     * @param covered The time before which every journaled change has been written to storage
+     */
+    public void checkpoint(Instant covered) throws IOException {
+        Path file = this.directory.resolve(CHECKPOINT);
+        Path temp = file.resolveSibling(CHECKPOINT + ".tmp");
+        try(DataOutputStream output = new DataOutputStream(Files.newOutputStream(temp))) {
+            output.writeLong(covered.toEpochMilli());
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        long threshold = covered.minus(this.retention).toEpochMilli();
+        this.lock.lock();
+        try {
+            Iterator<JournalSegment> iterator = this.segments.iterator();
+            while(iterator.hasNext()) {
+                JournalSegment segment = iterator.next();
+                if(segment != this.active && segment.maximum() < threshold) {
+                    segment.delete();
+                    this.indexes.invalidate(segment);
+                    iterator.remove();
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void meta(PrettyPrinter printer) {
+        this.lock.lock();
+        try {
+            long size = this.segments.stream().mapToLong(JournalSegment::size).sum();
+            printer.add("Journal Segments: %d", (Number) this.segments.size());
+            printer.add("Journal Size: %d bytes", (Number) size);
+            printer.add("Journal Queue: %d", (Number) this.queue.size());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void drain() {
+        do {
+            try {
+                this.lock.lock();
+                try {
+                    this.write();
+                } finally {
+                    this.lock.unlock();
+                }
+            } catch (Exception e) {
+                ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+            } finally {
+                this.draining.set(false);
+            }
+        } while(!this.queue.isEmpty() && this.draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Writes every queued entry to the active segment. Expects the journal lock to be held.
+     */
+    private void write() throws IOException {
+        while(!this.queue.isEmpty()) {
+            List<Pending> group = new ArrayList<>();
+            List<JournalSegment.Encoded> records = new ArrayList<>();
+
+            Pending next;
+            while(records.size() < GROUP_SIZE && (next = this.queue.poll()) != null) {
+                group.add(next);
+                for(JournalEntry entry : next.entries) {
+                    records.add(JournalSegment.encode(entry));
+                }
+            }
+
+            try {
+                if(!records.isEmpty()) {
+                    this.active.append(records, this.force);
+                }
+                group.forEach(pending -> pending.future.complete(null));
+            } catch (IOException e) {
+                group.forEach(pending -> pending.future.completeExceptionally(e));
+                throw e;
+            }
+
+            if(this.active.size() >= this.segmentSize) {
+                this.active.seal();
+                this.rotate();
+            }
+        }
+    }
+
+    private void rotate() throws IOException {
+        long id = this.segments.isEmpty() ? 1 : this.segments.get(this.segments.size() - 1).id() + 1;
+        this.active = JournalSegment.create(this.directory, id);
+        this.segments.add(this.active);
+    }
+
+    private record Pending(List<JournalEntry> entries, CompletableFuture<Void> future) {}
+
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.metrics;
+
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+import net.kyori.adventure.key.Key;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Tracks the activity of the economy, being the number and latency of transactions processed for
+ * each currency, alongside the latency of reads and writes made against the backing storage. Every
+ * measurement is recorded without locking, such that tracking adds no contention to the
+ * transactions being measured.
+ */
+public final class EconomyMetrics {
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+    private final String implementation;
+    private final IntSupplier pending;
+    private final Instant started = Instant.now();
+
+    private final Map<TransactionKey, LongAdder> transactions = new ConcurrentHashMap<>();
+    private final Map<LatencyKey, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<StorageOperation, LatencyHistogram> storage = new EnumMap<>(StorageOperation.class);
+    private final Map<StorageOperation, LongAdder> failures = new EnumMap<>(StorageOperation.class);
+
+    /**
+     * @param implementation The name of the storage implementation accounts are held by
+     * @param pending Supplies the number of accounts with changes yet to be written to storage
+     */
+    public EconomyMetrics(String implementation, IntSupplier pending) {
+        this.implementation = implementation;
+        this.pending = pending;
+        for(StorageOperation operation : StorageOperation.values()) {
+            this.storage.put(operation, new LatencyHistogram());
+            this.failures.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Records the outcome of a single transaction.
+     *
+     * @param currency The currency of the transaction
+     * @param type The type of the transaction
+     * @param result The result of the transaction
+     * @param nanos The time taken to process the transaction, in nanoseconds
+     */
+    public void transaction(Currency currency, EconomyTransactionType type, EconomyResultType result, long nanos) {
+        Key key = currency.key();
+        this.transactions.computeIfAbsent(new TransactionKey(key, type, result), ignore -> new LongAdder()).increment();
+        this.latencies.computeIfAbsent(new LatencyKey(key, type), ignore -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Records a single read or write made against the backing storage.
+     *
+     * @param operation The kind of request made to storage
+     * @param nanos The time taken by storage to complete the request, in nanoseconds
+     * @param successful Whether storage completed the request without error
+     */
+    public void storage(StorageOperation operation, long nanos, boolean successful) {
+        this.storage.get(operation).record(nanos);
+        if(!successful) {
+            this.failures.get(operation).increment();
+        }
+    }
+
+    /**
+     * Summarizes the activity recorded since the economy was started.
+     *
+     * @return A summary of the recorded activity
+     */
+    public EconomyStatistics statistics() {
+        long total = 0;
+        long failed = 0;
+        for(Map.Entry<TransactionKey, LongAdder> entry : this.transactions.entrySet()) {
+            long count = entry.getValue().sum();
+            total += count;
+            if(entry.getKey().result() != EconomyResultType.SUCCESS) {
+                failed += count;
+            }
+        }
+
+        LatencyHistogram combined = new LatencyHistogram();
+        this.latencies.values().forEach(histogram -> combined.merge(histogram.snapshot()));
+
+        double seconds = Math.max(1, Duration.between(this.started, Instant.now()).toSeconds());
+        return new EconomyStatistics(
+                total,
+                failed,
+                total / seconds,
+                combined.snapshot(),
+                this.storage.get(StorageOperation.LOAD).snapshot(),
+                this.storage.get(StorageOperation.SAVE).snapshot(),
+                this.pending.getAsInt(),
+                this.implementation
+        );
+    }
+
+    /**
+     * Writes every recorded metric in the Prometheus text exposition format.
+     *
+     * @param writer The writer to output the metrics to
+     * @throws IOException If the metrics fail to be written
+     */
+    public void prometheus(Writer writer) throws IOException {
+        writer.write("# HELP impactor_economy_transactions_total Transactions processed by the economy\n");
+        writer.write("# TYPE impactor_economy_transactions_total counter\n");
+        for(Map.Entry<TransactionKey, LongAdder> entry : sorted(this.transactions, TransactionKey.ORDER)) {
+            TransactionKey key = entry.getKey();
+            sample(writer, "impactor_economy_transactions_total", labels(
+                    "currency", key.currency().asString(),
+                    "type", lower(key.type()),
+                    "result", lower(key.result())
+            ), entry.getValue().sum());
+        }
+
+        writer.write("# HELP impactor_economy_transaction_latency_seconds Time taken to process a transaction\n");
+        writer.write("# TYPE impactor_economy_transaction_latency_seconds summary\n");
+        for(Map.Entry<LatencyKey, LatencyHistogram> entry : sorted(this.latencies, LatencyKey.ORDER)) {
+            LatencyKey key = entry.getKey();
+            summary(writer, "impactor_economy_transaction_latency_seconds", labels(
+                    "currency", key.currency().asString(),
+                    "type", lower(key.type())
+            ), entry.getValue().snapshot());
+        }
+
+        writer.write("# HELP impactor_economy_storage_latency_seconds Time taken by storage to complete a request\n");
+        writer.write("# TYPE impactor_economy_storage_latency_seconds summary\n");
+        for(StorageOperation operation : StorageOperation.values()) {
+            summary(writer, "impactor_economy_storage_latency_seconds", labels(
+                    "implementation", this.implementation,
+                    "operation", lower(operation)
+            ), this.storage.get(operation).snapshot());
+        }
+
+        writer.write("# HELP impactor_economy_storage_failures_total Requests to storage which failed\n");
+        writer.write("# TYPE impactor_economy_storage_failures_total counter\n");
+        for(StorageOperation operation : StorageOperation.values()) {
+            sample(writer, "impactor_economy_storage_failures_total", labels(
+                    "implementation", this.implementation,
+                    "operation", lower(operation)
+            ), this.failures.get(operation).sum());
+        }
+
+        writer.write("# HELP impactor_economy_pending_saves Accounts with changes yet to be written to storage\n");
+        writer.write("# TYPE impactor_economy_pending_saves gauge\n");
+        sample(writer, "impactor_economy_pending_saves", labels("implementation", this.implementation), this.pending.getAsInt());
+    }
+
+    /**
+     * Writes every recorded metric to the given file in the Prometheus text exposition format. The
+     * file is replaced as a whole, such that a reader never observes a partially written file.
+     *
+     * @param target The file to write the metrics to
+     * @throws IOException If the metrics fail to be written
+     */
+    public void export(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        Path temporary = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            try(Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                this.prometheus(writer);
+            }
+
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void summary(Writer writer, String name, String labels, LatencyHistogram.Snapshot snapshot) throws IOException {
+        for(double quantile : QUANTILES) {
+            String extended = labels.substring(0, labels.length() - 1) + ",quantile=\"" + quantile + "\"}";
+            sample(writer, name, extended, seconds(snapshot.quantile(quantile)));
+        }
+
+        sample(writer, name + "_sum", labels, seconds(snapshot.sum()));
+        sample(writer, name + "_count", labels, snapshot.count());
+    }
+
+    private static void sample(Writer writer, String name, String labels, Number value) throws IOException {
+        writer.write(name);
+        writer.write(labels);
+        writer.write(' ');
+        writer.write(value.toString());
+        writer.write('\n');
+    }
+
+    private static String labels(String... pairs) {
+        StringBuilder builder = new StringBuilder("{");
+        for(int i = 0; i < pairs.length; i += 2) {
+            if(i > 0) {
+                builder.append(',');
+            }
+
+            builder.append(pairs[i]).append("=\"").append(escape(pairs[i + 1])).append('"');
+        }
+
+        return builder.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String lower(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+
+    private static <K, V> Iterable<Map.Entry<K, V>> sorted(Map<K, V> source, Comparator<K> order) {
+        return source.entrySet().stream().sorted(Map.Entry.comparingByKey(order)).toList();
+    }
+
+    private record TransactionKey(Key currency, EconomyTransactionType type, EconomyResultType result) {
+
+        private static final Comparator<TransactionKey> ORDER = Comparator.comparing((TransactionKey key) -> key.currency().asString())
+                .thenComparing(TransactionKey::type)
+                .thenComparing(TransactionKey::result);
+
+    }
+
+    private record LatencyKey(Key currency, EconomyTransactionType type) {
+
+        private static final Comparator<LatencyKey> ORDER = Comparator.comparing((LatencyKey key) -> key.currency().asString())
+                .thenComparing(LatencyKey::type);
+
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.metrics;
+
+/**
+ * A summary of the activity of the economy, as recorded by its {@link EconomyMetrics}.
+ *
+ * @param transactions The number of transactions processed
+ * @param failed The number of transactions which were not successful
+ * @param rate The average number of transactions processed per second
+ * @param latency The time taken to process transactions, across all currencies
+ * @param loads The time taken by storage to load accounts
+ * @param saves The time taken by storage to save accounts
+ * @param pending The number of accounts with changes yet to be written to storage
+ * @param implementation The name of the storage implementation
+ */
+public record EconomyStatistics(
+        long transactions,
+        long failed,
+        double rate,
+        LatencyHistogram.Snapshot latency,
+        LatencyHistogram.Snapshot loads,
+        LatencyHistogram.Snapshot saves,
+        int pending,
+        String implementation
+) {}
@@ -25,11 +25,9 @@
 
 package net.impactdev.impactor.core.economy.placeholders;
 
-import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.Suppliers;
+import net.impactdev.impactor.api.Impactor;
 import net.impactdev.impactor.api.economy.EconomyService;
-import net.impactdev.impactor.api.economy.accounts.Account;
 import net.impactdev.impactor.api.economy.currency.Currency;
 import net.impactdev.impactor.api.platform.sources.PlatformSource;
 import net.impactdev.impactor.api.text.placeholders.PlaceholderArguments;
@@ -40,19 +38,19 @@ import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.function.Supplier;
 
 public class AccountPlaceholderParser implements PlaceholderParser {
 
     private static final Supplier<EconomyService> service = Suppliers.memoize(EconomyService::instance);
 
-    private record AccountRequest(UUID uuid, Currency currency) {}
+    private final BalanceView balances = new BalanceView(service, Duration.ofSeconds(30), Duration.ofMinutes(5));
 
-    private final AsyncLoadingCache<AccountRequest, Account> cache = Caffeine.newBuilder()
-            .expireAfterAccess(1, TimeUnit.MINUTES)
-            .buildAsync(request -> service.get().account(request.currency, request.uuid).join());
+    public AccountPlaceholderParser() {
+        this.balances.subscribe(Impactor.instance().events());
+    }
 
     @Override
     public @NotNull Component parse(@Nullable PlatformSource viewer, @NotNull Context context) {
@@ -63,9 +61,9 @@ public class AccountPlaceholderParser implements PlaceholderParser {
             return Component.empty();
         }
 
-        Account account = this.cache.get(new AccountRequest(viewer.uuid(), currency)).getNow(null);
-        if(account != null) {
-            return currency.format(account.balance());
+        BigDecimal balance = this.balances.balance(viewer.uuid(), currency);
+        if(balance != null) {
+            return currency.format(balance);
         }
 
         return Component.text("Fetching balance...");
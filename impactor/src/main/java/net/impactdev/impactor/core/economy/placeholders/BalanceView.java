@@ -0,0 +1,145 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.placeholders;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.economy.events.EconomyTransactionEvent;
+import net.impactdev.impactor.api.economy.events.EconomyTransferTransactionEvent;
+import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
+import net.impactdev.impactor.api.economy.transactions.EconomyTransferTransaction;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.events.ImpactorEvent;
+import net.impactdev.impactor.core.economy.ImpactorEconomyService;
+import net.impactdev.impactor.core.economy.events.ImpactorBulkTransactionEvent;
+import net.kyori.event.EventBus;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A view of account balances which may be read without ever blocking the calling thread, intended
+ * for rendering balances each tick or frame, such as within scoreboards or the tab list.
+ *
+ * <p>Balances of accounts held in memory by the economy service, which always includes the accounts
+ * of online players, are read directly from those accounts. Other balances are held by the view,
+ * where they are pushed by each successful transaction as it is posted, and are otherwise refreshed
+ * in the background once held for the refresh interval, picking up changes made outside of this
+ * server. Balances held nowhere are loaded from storage in the background, while being reported as
+ * unavailable.</p>
+ */
+public final class BalanceView {
+
+    private final Supplier<EconomyService> service;
+    private final AsyncLoadingCache<BalanceKey, BigDecimal> balances;
+
+    public BalanceView(Supplier<EconomyService> service, Duration refresh, Duration expiration) {
+        this.service = service;
+        this.balances = Caffeine.newBuilder()
+                .refreshAfterWrite(refresh)
+                .expireAfterAccess(expiration)
+                .buildAsync((key, executor) -> this.service.get()
+                        .account(key.currency(), key.owner())
+                        .thenApply(Account::balance)
+                );
+    }
+
+    /**
+     * Subscribes the view to the posted outcomes of transactions, such that balances held by the view
+     * are updated the moment they change.
+     *
+     * @param bus The event bus transactions are posted to
+     */
+    public void subscribe(EventBus<ImpactorEvent> bus) {
+        bus.subscribe(EconomyTransactionEvent.Post.class, event -> this.record(event.transaction()));
+        bus.subscribe(EconomyTransferTransactionEvent.Post.class, event -> this.record(event.transaction()));
+        bus.subscribe(ImpactorBulkTransactionEvent.Post.class, event -> event.transaction().successful().forEach(this::record));
+    }
+
+    /**
+     * Reads the balance of the given account, without blocking.
+     *
+     * @param owner The owner of the account
+     * @param currency The currency of the account
+     * @return The balance of the account, or null if the balance is still being loaded
+     */
+    public @Nullable BigDecimal balance(UUID owner, Currency currency) {
+        // Accounts held in memory always carry their latest balance, and can be read without blocking
+        Optional<Account> resident = this.resident(currency, owner);
+        if(resident.isPresent()) {
+            return resident.get().balance();
+        }
+
+        CompletableFuture<BigDecimal> held = this.balances.get(new BalanceKey(owner, currency));
+        if(held.isDone() && !held.isCompletedExceptionally()) {
+            return held.join();
+        }
+
+        return null;
+    }
+
+    /**
+     * Records the balance of the given account within the view.
+     *
+     * @param account The account to record
+     */
+    public void update(Account account) {
+        this.balances.put(new BalanceKey(account.owner(), account.currency()), CompletableFuture.completedFuture(account.balance()));
+    }
+
+    private void record(EconomyTransaction transaction) {
+        if(transaction.result() == EconomyResultType.SUCCESS) {
+            this.update(transaction.account());
+        }
+    }
+
+    private void record(EconomyTransferTransaction transaction) {
+        if(transaction.result() == EconomyResultType.SUCCESS) {
+            this.update(transaction.from());
+            this.update(transaction.to());
+        }
+    }
+
+    private Optional<Account> resident(Currency currency, UUID owner) {
+        EconomyService service = this.service.get();
+        if(service instanceof ImpactorEconomyService) {
+            return ((ImpactorEconomyService) service).storage().resident(currency, owner);
+        }
+
+        return Optional.empty();
+    }
+
+    private record BalanceKey(UUID owner, Currency currency) {}
+
+}
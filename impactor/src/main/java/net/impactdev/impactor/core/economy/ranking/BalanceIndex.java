@@ -0,0 +1,222 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.ranking;
+
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.kyori.adventure.key.Key;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maintains a ranking of accounts by balance for each currency, such that the top accounts and the
+ * rank of any individual account may be resolved without scanning and sorting every account. Rankings
+ * are kept current by feeding the index each account as its balance changes.
+ */
+public final class BalanceIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::balance, Comparator.reverseOrder())
+            .thenComparing(Entry::owner);
+
+    private final Map<Key, Rankings> rankings = new ConcurrentHashMap<>();
+
+    /**
+     * Records the current balance of the given account, replacing any previously recorded balance.
+     *
+     * @param account The account to record
+     */
+    public void update(Account account) {
+        this.rankings(account.currency()).update(account, true);
+    }
+
+    /**
+     * Records the balance of the given account only if the account is not already indexed. This is
+     * intended for populating the index from storage, where a more recent balance may have already
+     * been recorded by a transaction.
+     *
+     * @param account The account to record
+     */
+    public void seed(Account account) {
+        this.rankings(account.currency()).update(account, false);
+    }
+
+    public void remove(Currency currency, UUID owner) {
+        Rankings rankings = this.rankings.get(currency.key());
+        if(rankings != null) {
+            rankings.remove(owner);
+        }
+    }
+
+    public void clear() {
+        this.rankings.clear();
+    }
+
+    /**
+     * Fetches the owners of the accounts at the given positions of the ranking, ordered by balance
+     * from highest to lowest.
+     *
+     * @param currency The currency to rank accounts by
+     * @param offset The zero-based position of the first account to include
+     * @param limit The maximum number of accounts to include
+     * @param virtual Whether virtual accounts should be included in the ranking
+     * @return The owners of the ranked accounts
+     */
+    public List<UUID> top(Currency currency, int offset, int limit, boolean virtual) {
+        Rankings rankings = this.rankings.get(currency.key());
+        if(rankings == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        return rankings.top(Math.max(0, offset), limit, virtual);
+    }
+
+    /**
+     * Resolves the one-based rank of the given account. Player accounts are ranked amongst other
+     * player accounts, while virtual accounts are ranked amongst all accounts.
+     *
+     * @param account The account to rank
+     * @return The rank of the account, or empty if the account is not indexed
+     */
+    public OptionalInt rank(Account account) {
+        Rankings rankings = this.rankings.get(account.currency().key());
+        if(rankings == null) {
+            return OptionalInt.empty();
+        }
+
+        return rankings.rank(account.owner());
+    }
+
+    public int size(Currency currency) {
+        Rankings rankings = this.rankings.get(currency.key());
+        return rankings == null ? 0 : rankings.size();
+    }
+
+    private Rankings rankings(Currency currency) {
+        return this.rankings.computeIfAbsent(currency.key(), key -> new Rankings());
+    }
+
+    private record Entry(UUID owner, BigDecimal balance, boolean virtual) {}
+
+    private static final class Rankings {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<UUID, Entry> entries = new HashMap<>();
+        private final RankedTree<Entry> all = new RankedTree<>(ORDER);
+        private final RankedTree<Entry> players = new RankedTree<>(ORDER);
+
+        private void update(Account account, boolean replace) {
+            this.lock.writeLock().lock();
+            try {
+                Entry previous = this.entries.get(account.owner());
+                if(previous != null && !replace) {
+                    return;
+                }
+
+                Entry entry = new Entry(account.owner(), account.balance(), account.virtual());
+                if(previous != null) {
+                    if(previous.balance.compareTo(entry.balance) == 0 && previous.virtual == entry.virtual) {
+                        return;
+                    }
+
+                    this.detach(previous);
+                }
+
+                this.entries.put(entry.owner, entry);
+                this.all.insert(entry);
+                if(!entry.virtual) {
+                    this.players.insert(entry);
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(UUID owner) {
+            this.lock.writeLock().lock();
+            try {
+                Entry previous = this.entries.remove(owner);
+                if(previous != null) {
+                    this.detach(previous);
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+
+        private void detach(Entry entry) {
+            this.all.remove(entry);
+            if(!entry.virtual) {
+                this.players.remove(entry);
+            }
+        }
+
+        private List<UUID> top(int offset, int limit, boolean virtual) {
+            this.lock.readLock().lock();
+            try {
+                RankedTree<Entry> tree = virtual ? this.all : this.players;
+                return tree.page(offset, limit).stream().map(Entry::owner).toList();
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        private OptionalInt rank(UUID owner) {
+            this.lock.readLock().lock();
+            try {
+                Entry entry = this.entries.get(owner);
+                if(entry == null) {
+                    return OptionalInt.empty();
+                }
+
+                RankedTree<Entry> tree = entry.virtual ? this.all : this.players;
+                return OptionalInt.of(tree.rank(entry) + 1);
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+        private int size() {
+            this.lock.readLock().lock();
+            try {
+                return this.entries.size();
+            } finally {
+                this.lock.readLock().unlock();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.ranking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An order statistic tree, implemented as a treap where each node additionally tracks the size of
+ * its subtree. This allows insertion, removal, rank lookups and positional access to all be performed
+ * in expected logarithmic time, rather than requiring a full sort of the underlying set.
+ *
+ * <p>This structure is not thread-safe, and expects callers to handle synchronization.</p>
+ *
+ * @param <K> The type of key held by the tree
+ */
+final class RankedTree<K> {
+
+    private final Comparator<K> comparator;
+    private Node<K> root;
+
+    RankedTree(Comparator<K> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(this.root);
+    }
+
+    public void insert(K key) {
+        this.root = this.insert(this.root, new Node<>(key, ThreadLocalRandom.current().nextInt()));
+    }
+
+    public void remove(K key) {
+        this.root = this.remove(this.root, key);
+    }
+
+    public void clear() {
+        this.root = null;
+    }
+
+    /**
+     * Calculates the number of keys within the tree which are ordered before the given key.
+     *
+     * @param key The key to rank
+     * @return The zero-based position the key holds, or would hold, within the tree
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node<K> node = this.root;
+        while(node != null) {
+            if(this.comparator.compare(key, node.key) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+
+        return rank;
+    }
+
+    /**
+     * Collects up to the specified number of keys, in order, beginning at the given position.
+     *
+     * @param offset The zero-based position of the first key to collect
+     * @param limit The maximum number of keys to collect
+     * @return The collected keys
+     */
+    public List<K> page(int offset, int limit) {
+        List<K> results = new ArrayList<>(Math.max(0, Math.min(limit, this.size() - offset)));
+        this.collect(this.root, offset, limit, results);
+        return results;
+    }
+
+    private void collect(Node<K> node, int offset, int limit, List<K> results) {
+        if(node == null || results.size() >= limit) {
+            return;
+        }
+
+        int left = size(node.left);
+        if(offset < left) {
+            this.collect(node.left, offset, limit, results);
+        }
+
+        if(results.size() >= limit) {
+            return;
+        }
+
+        if(offset <= left) {
+            results.add(node.key);
+        }
+
+        this.collect(node.right, Math.max(0, offset - left - 1), limit, results);
+    }
+
+    private Node<K> insert(Node<K> node, Node<K> created) {
+        if(node == null) {
+            return created;
+        }
+
+        if(created.priority > node.priority) {
+            Split<K> split = this.split(node, created.key);
+            created.left = split.left;
+            created.right = split.right;
+            return update(created);
+        }
+
+        if(this.comparator.compare(created.key, node.key) < 0) {
+            node.left = this.insert(node.left, created);
+        } else {
+            node.right = this.insert(node.right, created);
+        }
+
+        return update(node);
+    }
+
+    private Node<K> remove(Node<K> node, K key) {
+        if(node == null) {
+            return null;
+        }
+
+        int comparison = this.comparator.compare(key, node.key);
+        if(comparison == 0) {
+            return merge(node.left, node.right);
+        }
+
+        if(comparison < 0) {
+            node.left = this.remove(node.left, key);
+        } else {
+            node.right = this.remove(node.right, key);
+        }
+
+        return update(node);
+    }
+
+    /**
+     * Splits the given subtree into two, with the left containing all keys ordered before the
+     * given key, and the right containing all remaining keys.
+     */
+    private Split<K> split(Node<K> node, K key) {
+        if(node == null) {
+            return new Split<>(null, null);
+        }
+
+        if(this.comparator.compare(node.key, key) < 0) {
+            Split<K> split = this.split(node.right, key);
+            node.right = split.left;
+            return new Split<>(update(node), split.right);
+        } else {
+            Split<K> split = this.split(node.left, key);
+            node.left = split.right;
+            return new Split<>(split.left, update(node));
+        }
+    }
+
+    /**
+     * Merges two subtrees, where every key of the left subtree is ordered before every
+     * key of the right.
+     */
+    private static <K> Node<K> merge(Node<K> left, Node<K> right) {
+        if(left == null) {
+            return right;
+        }
+
+        if(right == null) {
+            return left;
+        }
+
+        if(left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        } else {
+            right.left = merge(left, right.left);
+            return update(right);
+        }
+    }
+
+    private static <K> Node<K> update(Node<K> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<K> {
+
+        private final K key;
+        private final int priority;
+
+        private Node<K> left;
+        private Node<K> right;
+        private int size = 1;
+
+        private Node(K key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+
+    }
+
+    private record Split<K>(Node<K> left, Node<K> right) {}
+
+}
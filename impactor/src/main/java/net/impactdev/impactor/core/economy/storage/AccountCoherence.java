@@ -0,0 +1,199 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.scheduler.SchedulerTask;
+import net.impactdev.impactor.api.scheduler.v2.Scheduler;
+import net.impactdev.impactor.api.scheduler.v2.Schedulers;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
+import net.impactdev.impactor.core.economy.storage.coherence.AccountChange;
+import net.impactdev.impactor.core.economy.storage.coherence.ChangeTracker;
+import net.impactdev.impactor.core.economy.storage.coherence.EconomyMessenger;
+import net.impactdev.impactor.core.economy.storage.coherence.Invalidation;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the accounts cached by an {@link EconomyStorage} coherent with changes made to shared storage
+ * by other servers. Changes are discovered by polling storage for accounts written since the last poll,
+ * and optionally by invalidations sent through an {@link EconomyMessenger}, which propagate changes
+ * without waiting for the next poll.
+ *
+ * <p>As each server writes accounts with its own clock, every poll re-reads changes written within the
+ * configured overlap prior to the last seen change. Changes already applied are recognized by the
+ * version of the account, and skipped.
+ */
+final class AccountCoherence {
+
+    private final EconomyStorage storage;
+    private final @Nullable ChangeTracker tracker;
+    private volatile @Nullable EconomyMessenger messenger;
+
+    private final long interval;
+    private final long overlap;
+
+    private final Cache<ChangeKey, Long> versions;
+    private volatile long watermark;
+    private SchedulerTask poller;
+
+    AccountCoherence(EconomyStorage storage, @Nullable ChangeTracker tracker, @Nullable EconomyMessenger messenger, long interval, long overlap) {
+        this.storage = storage;
+        this.tracker = tracker;
+        this.messenger = messenger;
+        this.interval = interval;
+        this.overlap = overlap;
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(Math.max(overlap, interval) * 2))
+                .build();
+    }
+
+    void init() {
+        this.watermark = System.currentTimeMillis();
+        EconomyMessenger messenger = this.messenger;
+        if(messenger != null) {
+            messenger.subscribe(this::received);
+        }
+
+        if(this.tracker != null) {
+            this.poller = Schedulers.require(Scheduler.ASYNCHRONOUS).repeating(this::pollQuietly, this.interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void shutdown() {
+        if(this.poller != null) {
+            this.poller.cancel();
+        }
+
+        EconomyMessenger messenger = this.messenger;
+        if(messenger != null) {
+            messenger.close();
+        }
+    }
+
+    void messenger(EconomyMessenger messenger) {
+        EconomyMessenger previous = this.messenger;
+        if(previous != null) {
+            previous.close();
+        }
+
+        this.messenger = messenger;
+        messenger.subscribe(this::received);
+    }
+
+    void meta(PrettyPrinter printer) {
+        printer.add("Coherence: %s", this.tracker != null ? "Polling every " + this.interval + "ms" : "Messages only");
+        printer.add("Coherence Messenger: %s", Optional.ofNullable(this.messenger).map(m -> m.getClass().getSimpleName()).orElse("None"));
+    }
+
+    /**
+     * Reads every account written since the last poll, and reconciles the cached copies of these
+     * accounts with the changes.
+     */
+    void poll() throws Exception {
+        if(this.tracker == null) {
+            return;
+        }
+
+        this.storage.exclusive(() -> {
+            long latest = this.watermark;
+            for(AccountChange change : this.tracker.changes(this.watermark - this.overlap)) {
+                Account account = change.account();
+                ChangeKey key = new ChangeKey(account.currency().key(), account.owner());
+                Long applied = this.versions.getIfPresent(key);
+                if(applied == null || applied != change.version()) {
+                    this.versions.put(key, change.version());
+                    this.storage.reconcile(account.currency(), account.owner(), account);
+                }
+
+                latest = Math.max(latest, change.updated());
+            }
+
+            this.watermark = latest;
+        });
+    }
+
+    void published(Collection<Account> accounts) {
+        EconomyMessenger messenger = this.messenger;
+        if(messenger != null) {
+            accounts.forEach(account -> messenger.publish(new Invalidation(account.currency().key(), account.owner(), this.storage.origin())));
+        }
+    }
+
+    void deleted(Currency currency, UUID owner) {
+        EconomyMessenger messenger = this.messenger;
+        if(messenger != null) {
+            messenger.publish(new Invalidation(currency.key(), owner, this.storage.origin()));
+        }
+    }
+
+    private void received(Invalidation invalidation) {
+        if(invalidation.origin().equals(this.storage.origin())) {
+            return;
+        }
+
+        Optional<Currency> currency = EconomyService.instance().currencies().currency(invalidation.currency());
+        if(currency.isEmpty()) {
+            return;
+        }
+
+        Schedulers.require(Scheduler.ASYNCHRONOUS).publish(() -> {
+            try {
+                this.storage.exclusive(() -> {
+                    UUID owner = invalidation.owner();
+                    Account latest = this.storage.implementation().accounts(currency.get(), List.of(owner)).get(owner);
+                    this.storage.reconcile(currency.get(), owner, latest);
+                });
+            } catch (Exception e) {
+                ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+            }
+        });
+    }
+
+    private void pollQuietly() {
+        try {
+            this.poll();
+        } catch (Exception e) {
+            ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+        }
+    }
+
+    private record ChangeKey(Key currency, UUID owner) {}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.storage;
+
+import net.impactdev.impactor.api.economy.accounts.Account;
+
+import java.util.Iterator;
+
+/**
+ * Iterates over every account held by storage under a single currency. Accounts are read from
+ * storage only as the cursor advances, such that iterating over all accounts requires memory for
+ * no more than a single page of accounts at a time. Cursors must be closed once no longer needed,
+ * releasing any resources held against the backing storage.
+ */
+public interface AccountCursor extends AutoCloseable {
+
+    /**
+     * Creates a cursor over the given iterator, closing the given resource once the cursor is closed.
+     *
+     * @param iterator The accounts to iterate over
+     * @param resource The resource backing the iterator
+     * @return A cursor over the accounts of the iterator
+     */
+    static AccountCursor of(Iterator<? extends Account> iterator, AutoCloseable resource) {
+        return new AccountCursor() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Account next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() throws Exception {
+                resource.close();
+            }
+        };
+    }
+
+    /**
+     * Indicates whether the cursor has another account remaining, reading the next page of accounts
+     * from storage if necessary.
+     *
+     * @return True if another account remains, false otherwise
+     * @throws Exception If the next page of accounts fails to be read
+     */
+    boolean hasNext() throws Exception;
+
+    /**
+     * Advances the cursor, supplying the next account.
+     *
+     * @return The next account
+     * @throws Exception If the next page of accounts fails to be read
+     * @throws java.util.NoSuchElementException If no accounts remain
+     */
+    Account next() throws Exception;
+
+}
@@ -0,0 +1,173 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.storage;
+
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.impactdev.impactor.core.utility.future.ThrowingSupplier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Publishes the accounts of a single currency from an {@link AccountCursor}, opened separately for
+ * each subscriber. Accounts are only read from storage as subscribers signal demand for them, so
+ * subscribers are able to process every account without every account being held in memory at once.
+ *
+ * <p>Signals to a subscriber are always delivered serially on the given executor.</p>
+ */
+final class AccountPublisher implements Flow.Publisher<Account> {
+
+    private final ThrowingSupplier<AccountCursor> opener;
+    private final UnaryOperator<Account> resolver;
+    private final Executor executor;
+
+    AccountPublisher(ThrowingSupplier<AccountCursor> opener, UnaryOperator<Account> resolver, Executor executor) {
+        this.opener = opener;
+        this.resolver = resolver;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Account> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscriber.onSubscribe(new AccountSubscription(subscriber));
+    }
+
+    private final class AccountSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Account> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile @Nullable Throwable rejected;
+
+        // Only ever accessed while draining, which is never run concurrently
+        private @Nullable AccountCursor cursor;
+        private boolean terminated;
+
+        private AccountSubscription(Flow.Subscriber<? super Account> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if(n <= 0) {
+                this.rejected = new IllegalArgumentException("Requested a non-positive number of accounts: " + n);
+            } else {
+                this.demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+
+            this.schedule();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            this.schedule();
+        }
+
+        private void schedule() {
+            if(this.pending.getAndIncrement() == 0) {
+                AccountPublisher.this.executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                this.emit();
+                missed = this.pending.addAndGet(-missed);
+            } while(missed != 0);
+        }
+
+        private void emit() {
+            if(this.terminated) {
+                return;
+            }
+
+            if(this.cancelled) {
+                this.terminate();
+                return;
+            }
+
+            Throwable rejected = this.rejected;
+            if(rejected != null) {
+                this.terminate();
+                this.subscriber.onError(rejected);
+                return;
+            }
+
+            try {
+                if(this.cursor == null) {
+                    this.cursor = AccountPublisher.this.opener.supply();
+                }
+
+                while(!this.cancelled && this.rejected == null) {
+                    if(!this.cursor.hasNext()) {
+                        this.terminate();
+                        this.subscriber.onComplete();
+                        return;
+                    }
+
+                    if(this.demand.get() == 0) {
+                        return;
+                    }
+
+                    this.demand.decrementAndGet();
+                    this.subscriber.onNext(AccountPublisher.this.resolver.apply(this.cursor.next()));
+                }
+
+                // Cancelled or rejected while emitting, so go around again to signal accordingly
+                this.emit();
+            } catch (Exception e) {
+                this.terminate();
+                this.subscriber.onError(e);
+            }
+        }
+
+        private void terminate() {
+            this.terminated = true;
+            if(this.cursor != null) {
+                try {
+                    this.cursor.close();
+                } catch (Exception e) {
+                    ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+                }
+                this.cursor = null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.storage;
+
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A storage implementation capable of applying changes to balances itself, rather than persisting a
+ * balance calculated by the server. As the storage resolves each change against the balance it holds,
+ * servers and threads modifying the same account concurrently never overwrite the changes made by
+ * one another.
+ */
+public interface BalanceArithmetic {
+
+    /**
+     * Adds the given amount to the balance of the account held by storage, so long as the resulting
+     * balance falls within the given bounds. Accounts not yet held by storage are first written with
+     * the balance of the supplied account.
+     *
+     * @param account The account to modify
+     * @param amount The amount to add to the balance, negative to subtract
+     * @param minimum The lowest balance the account may be left with
+     * @param maximum The highest balance the account may be left with
+     * @return The resulting balance held by storage, or empty if the change was rejected
+     * @throws Exception If the change fails to be applied
+     */
+    Optional<BigDecimal> adjust(Account account, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws Exception;
+
+    /**
+     * Adds the given amount to the balance of each of the given accounts within a single storage
+     * transaction. Each account is bounded individually, such that an account whose resulting balance
+     * would fall outside of the bounds is left unmodified without affecting the others.
+     *
+     * @param accounts The accounts to modify
+     * @param amount The amount to add to each balance, negative to subtract
+     * @param minimum The lowest balance each account may be left with
+     * @param maximum The highest balance each account may be left with
+     * @return The resulting balance held by storage for each account, in the order supplied, or empty
+     * where the change to that account was rejected
+     * @throws Exception If the changes fail to be applied
+     */
+    List<Optional<BigDecimal>> adjustAll(List<Account> accounts, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws Exception;
+
+    /**
+     * Moves the given amount from one account to another within a single storage transaction, such
+     * that either both accounts are modified, or neither are.
+     *
+     * @param from The account to withdraw from
+     * @param to The account to deposit to
+     * @param amount The amount to move between the accounts
+     * @param minimum The lowest balance either account may be left with
+     * @param maximum The highest balance either account may be left with
+     * @return The outcome of the transfer, alongside the resulting balances if successful
+     * @throws Exception If the transfer fails to be applied
+     */
+    TransferResult transfer(Account from, Account to, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws Exception;
+
+    /**
+     * The outcome of a transfer applied by storage.
+     *
+     * @param result The result of the transfer
+     * @param from The resulting balance of the withdrawn account, if successful
+     * @param to The resulting balance of the deposited account, if successful
+     */
+    record TransferResult(EconomyResultType result, @Nullable BigDecimal from, @Nullable BigDecimal to) {}
+
+}
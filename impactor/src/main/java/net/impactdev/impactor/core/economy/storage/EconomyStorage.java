@@ -25,59 +25,243 @@
 
 package net.impactdev.impactor.core.economy.storage;
 
-import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import net.impactdev.impactor.api.configuration.Config;
+import net.impactdev.impactor.api.economy.EconomyService;
 import net.impactdev.impactor.api.economy.accounts.Account;
 import net.impactdev.impactor.api.economy.currency.Currency;
 import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
+import net.impactdev.impactor.api.economy.transactions.EconomyTransferTransaction;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.scheduler.SchedulerTask;
 import net.impactdev.impactor.api.scheduler.v2.Scheduler;
 import net.impactdev.impactor.api.scheduler.v2.Schedulers;
 import net.impactdev.impactor.api.storage.Storage;
 import net.impactdev.impactor.api.utility.ExceptionPrinter;
 import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
+import net.impactdev.impactor.core.economy.EconomyConfig;
+import net.impactdev.impactor.core.economy.accounts.ImpactorAccount;
+import net.impactdev.impactor.core.economy.journal.JournalEntry;
+import net.impactdev.impactor.core.economy.journal.TransactionJournal;
+import net.impactdev.impactor.core.economy.metrics.EconomyMetrics;
+import net.impactdev.impactor.core.economy.metrics.StorageOperation;
+import net.impactdev.impactor.core.economy.ranking.BalanceIndex;
+import net.impactdev.impactor.core.economy.storage.coherence.ChangeTracker;
+import net.impactdev.impactor.core.economy.storage.coherence.EconomyMessenger;
+import net.impactdev.impactor.core.economy.storage.coherence.LoopbackMessenger;
 import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
 import net.impactdev.impactor.core.utility.future.ThrowingRunnable;
 import net.impactdev.impactor.core.utility.future.ThrowingSupplier;
+import org.jetbrains.annotations.Nullable;
 
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 public final class EconomyStorage implements Storage {
 
     private final EconomyStorageImplementation implementation;
-    private final Cache<AccountKey, Account> accounts;
+    private final LoadingCache<AccountKey, Account> accounts;
+    private final ConcurrentStatsCounter statistics = new ConcurrentStatsCounter();
+    private final BalanceIndex index = new BalanceIndex();
 
-    public EconomyStorage(EconomyStorageImplementation implementation) {
+    /** Owners whose accounts are held in the cache regardless of access, typically whilst online */
+    private final Set<UUID> pinned = ConcurrentHashMap.newKeySet();
+    private volatile CompletableFuture<Void> ranking = new CompletableFuture<>();
+
+    /**
+     * Accounts which have been modified since the last flush. Keyed by account so that any number
+     * of changes to the same account between two flushes only ever results in a single write.
+     */
+    private final Map<AccountKey, Account> dirty = new ConcurrentHashMap<>();
+
+    /**
+     * Accounts taken from {@link #dirty} by the flush currently writing to storage. These remain visible
+     * to lookups until written, such that an account evicted from the cache is never read back from
+     * storage ahead of its pending balance.
+     */
+    private final Map<AccountKey, Account> writing = new ConcurrentHashMap<>();
+    private final AtomicReference<CompletableFuture<Void>> pending = new AtomicReference<>(new CompletableFuture<>());
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final ReentrantLock flushing = new ReentrantLock();
+
+    private final int interval;
+    private final int threshold;
+    private SchedulerTask flusher;
+
+    private final @Nullable TransactionJournal journal;
+    private volatile CompletableFuture<Void> recovery = CompletableFuture.completedFuture(null);
+
+    /** Identifies this server amongst others sharing the same storage */
+    private final UUID origin = UUID.randomUUID();
+    private final @Nullable AccountCoherence coherence;
+
+    /** Applies balance changes within storage directly, rather than writing behind, when enabled */
+    private final @Nullable BalanceArithmetic arithmetic;
+
+    private final EconomyMetrics metrics;
+    private final @Nullable Path export;
+    private final int exportInterval;
+    private SchedulerTask exporter;
+
+    public EconomyStorage(EconomyStorageImplementation implementation, Config config) {
         this.implementation = implementation;
-        this.accounts = Caffeine.newBuilder()
-                .expireAfterAccess(1, TimeUnit.HOURS)
-                .build();
+        Duration expiration = Duration.ofMinutes(Math.max(1, config.get(EconomyConfig.CACHE_EXPIRATION)));
+        Caffeine<AccountKey, Account> builder = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, config.get(EconomyConfig.CACHE_MAXIMUM_SIZE)))
+                .weigher(new PinnedWeigher(this.pinned))
+                .expireAfter(new PinnedExpiry(this.pinned, expiration))
+                .executor(Schedulers.require(Scheduler.ASYNCHRONOUS).executor())
+                .recordStats(() -> this.statistics);
+
+        int refresh = config.get(EconomyConfig.CACHE_REFRESH_INTERVAL);
+        if(refresh > 0) {
+            builder.refreshAfterWrite(Duration.ofSeconds(refresh));
+        }
+        this.accounts = builder.build(new AccountLoader());
+        this.interval = Math.max(1, config.get(EconomyConfig.WRITE_BEHIND_INTERVAL));
+        this.threshold = Math.max(1, config.get(EconomyConfig.WRITE_BEHIND_BATCH_SIZE));
+
+        if(config.get(EconomyConfig.JOURNAL_ENABLED)) {
+            this.journal = new TransactionJournal(
+                    Paths.get("config").resolve("impactor").resolve("economy").resolve("journal"),
+                    Math.max(1, config.get(EconomyConfig.JOURNAL_SEGMENT_SIZE)) * 1024L * 1024L,
+                    config.get(EconomyConfig.JOURNAL_FORCE),
+                    Duration.ofHours(Math.max(0, config.get(EconomyConfig.JOURNAL_RETENTION))),
+                    Schedulers.require(Scheduler.ASYNCHRONOUS).executor()
+            );
+        } else {
+            this.journal = null;
+        }
+
+        if(config.get(EconomyConfig.COHERENCE_ENABLED)) {
+            this.coherence = new AccountCoherence(
+                    this,
+                    implementation instanceof ChangeTracker ? (ChangeTracker) implementation : null,
+                    messenger(config.get(EconomyConfig.COHERENCE_MESSENGER)),
+                    Math.max(100, config.get(EconomyConfig.COHERENCE_POLL_INTERVAL)),
+                    Math.max(0, config.get(EconomyConfig.COHERENCE_OVERLAP))
+            );
+        } else {
+            this.coherence = null;
+        }
+
+        if(config.get(EconomyConfig.ATOMIC_BALANCES) && implementation instanceof BalanceArithmetic) {
+            this.arithmetic = (BalanceArithmetic) implementation;
+        } else {
+            this.arithmetic = null;
+        }
+
+        this.metrics = new EconomyMetrics(implementation.name(), this.dirty::size);
+        this.export = config.get(EconomyConfig.METRICS_EXPORT_ENABLED) ? Paths.get(config.get(EconomyConfig.METRICS_EXPORT_PATH)) : null;
+        this.exportInterval = Math.max(1, config.get(EconomyConfig.METRICS_EXPORT_INTERVAL));
+    }
+
+    private static @Nullable EconomyMessenger messenger(String type) {
+        return switch (type.toLowerCase(Locale.ROOT)) {
+            case "loopback" -> new LoopbackMessenger("impactor:economy");
+            default -> null;
+        };
     }
 
     @Override
     public void init() throws Exception {
         this.implementation.init();
+        if(this.journal != null) {
+            this.journal.init();
+            this.recovery = run(this::recover);
+        }
+        this.ranking = run(() -> {
+            Multimap<Currency, Account> accounts = ArrayListMultimap.create();
+            this.implementation.accounts(accounts);
+            accounts.values().forEach(this.index::seed);
+        });
+        this.flusher = Schedulers.require(Scheduler.ASYNCHRONOUS).repeating(this::flushQuietly, this.interval, TimeUnit.MILLISECONDS);
+        if(this.coherence != null) {
+            this.coherence.init();
+        }
+        if(this.export != null) {
+            this.exporter = Schedulers.require(Scheduler.ASYNCHRONOUS).repeating(this::exportQuietly, this.exportInterval, TimeUnit.SECONDS);
+        }
     }
 
     @Override
     public void shutdown() throws Exception {
+        if(this.flusher != null) {
+            this.flusher.cancel();
+        }
+
+        this.flush();
+        if(this.coherence != null) {
+            this.coherence.shutdown();
+        }
         this.implementation.shutdown();
+        if(this.journal != null) {
+            this.journal.shutdown();
+        }
+        if(this.exporter != null) {
+            this.exporter.cancel();
+            this.exportQuietly();
+        }
     }
 
     @Override
     public CompletableFuture<Void> meta(PrettyPrinter printer) {
-        return run(() -> this.implementation.meta(printer));
+        return run(() -> {
+            this.implementation.meta(printer);
+            printer.add("Pending Writes: %d", (Number) this.dirty.size());
+            printer.add("Balance Arithmetic: %s", this.arithmetic != null ? "Storage" : "Local");
+            printer.add("Pinned Owners: %d", (Number) this.pinned.size());
+            CacheStats stats = this.accounts.stats();
+            printer.add("Cached Accounts: %d", (Number) this.accounts.estimatedSize());
+            printer.add("Cache Hit Rate: %.2f%% (%d hits, %d misses)", (Number) (stats.hitRate() * 100), (Number) stats.hitCount(), (Number) stats.missCount());
+            printer.add("Cache Loads: %d (%d failed, %.3fms average)", (Number) stats.loadCount(), (Number) stats.loadFailureCount(), (Number) (stats.averageLoadPenalty() / 1_000_000));
+            printer.add("Cache Evictions: %d", (Number) stats.evictionCount());
+            printer.add("Balance Index: %s", this.ranking.isDone() ? "Ready" : "Loading");
+            if(this.coherence != null) {
+                this.coherence.meta(printer);
+            }
+            if(this.journal != null) {
+                this.journal.meta(printer);
+            }
+        });
     }
 
     @CanIgnoreReturnValue
     public CompletableFuture<Boolean> hasAccount(Currency currency, UUID uuid) {
-        if(this.accounts.getIfPresent(AccountKey.of(currency, uuid)) != null) {
+        if(this.cached(AccountKey.of(currency, uuid)) != null) {
             return CompletableFuture.completedFuture(true);
         }
 
@@ -86,22 +270,436 @@ public final class EconomyStorage implements Storage {
 
     @CanIgnoreReturnValue
     public CompletableFuture<Account> account(Currency currency, UUID uuid, Account.AccountModifier modifier) {
-        Account account = this.accounts.getIfPresent(AccountKey.of(currency, uuid));
+        AccountKey key = AccountKey.of(currency, uuid);
+        Account account = this.cached(key);
         if(account != null) {
             return CompletableFuture.completedFuture(account);
         }
 
-        return supply(() -> {
+        return supply(() -> this.load(() -> {
             Account result = this.implementation.account(currency, uuid, modifier);
-            this.accounts.put(AccountKey.of(currency, uuid), result);
+            Account cached = this.accounts.asMap().putIfAbsent(key, result);
+            if(cached != null) {
+                return cached;
+            }
 
+            this.index.update(result);
             return result;
-        });
+        }));
+    }
+
+    /**
+     * Fetches the accounts of a set of owners under the given currency, loading any accounts
+     * not already cached through a single batched request to the backing storage. Owners
+     * without an existing account are not included in the result.
+     *
+     * @param currency The currency of the accounts
+     * @param owners The owners of the accounts
+     * @return A future supplying a mapping of owner to account for each existing account
+     */
+    public CompletableFuture<Map<UUID, Account>> accounts(Currency currency, Collection<UUID> owners) {
+        Map<UUID, Account> results = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for(UUID owner : owners) {
+            Account account = this.cached(AccountKey.of(currency, owner));
+            if(account != null) {
+                results.put(owner, account);
+            } else {
+                missing.add(owner);
+            }
+        }
+
+        if(missing.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
+        }
+
+        return supply(() -> this.load(() -> {
+            this.implementation.accounts(currency, missing).forEach((owner, account) -> {
+                Account cached = this.accounts.asMap().putIfAbsent(AccountKey.of(currency, owner), account);
+                results.put(owner, cached != null ? cached : account);
+                this.index.seed(account);
+            });
+
+            return results;
+        }));
+    }
+
+    /**
+     * Loads every existing account of the given owner into the cache through a single request to
+     * the backing storage, and pins these accounts such that they are exempt from eviction until
+     * {@link #release(UUID)} is invoked for the owner.
+     *
+     * @param owner The owner of the accounts
+     * @param currencies The currencies to load accounts for
+     * @return A future completing once the accounts have been loaded
+     */
+    public CompletableFuture<Void> prefetch(UUID owner, Collection<Currency> currencies) {
+        if(this.pinned.add(owner)) {
+            // Recompute the weight and expiry of any accounts already cached now that the owner is pinned
+            this.reweigh(owner);
+        }
+
+        List<Currency> missing = currencies.stream()
+                .filter(currency -> this.cached(AccountKey.of(currency, owner)) == null)
+                .toList();
+        if(missing.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return supply(() -> this.load(() -> {
+            this.implementation.accounts(owner, missing).forEach((currency, account) -> {
+                if(this.accounts.asMap().putIfAbsent(AccountKey.of(currency, owner), account) == null) {
+                    this.index.seed(account);
+                }
+            });
+
+            return null;
+        }));
+    }
+
+    /**
+     * Releases the accounts of the given owner from being pinned within the cache, returning them
+     * to the standard expiry applied to all other cached accounts.
+     *
+     * @param owner The owner of the accounts
+     */
+    public void release(UUID owner) {
+        if(!this.pinned.remove(owner)) {
+            return;
+        }
+
+        // Recompute the weight and expiry of each account now that the owner is no longer pinned
+        this.reweigh(owner);
+    }
+
+    /**
+     * Rewrites each cached account of the given owner in place, such that the cache recomputes its
+     * weight and expiry. Only the key of the owner under each registered currency is visited.
+     */
+    private void reweigh(UUID owner) {
+        for(Currency currency : EconomyService.instance().currencies().registered()) {
+            this.accounts.asMap().computeIfPresent(AccountKey.of(currency, owner), (ignore, account) -> account);
+        }
     }
 
+    /**
+     * Fetches the account only if it is currently held in memory, never reaching storage.
+     *
+     * @param currency The currency of the account
+     * @param owner The owner of the account
+     * @return The account, or empty if the account is not held in memory
+     */
+    public Optional<Account> resident(Currency currency, UUID owner) {
+        return Optional.ofNullable(this.cached(AccountKey.of(currency, owner)));
+    }
+
+    /**
+     * Indicates whether the accounts of the given owner are currently pinned within the cache.
+     *
+     * @param owner The owner of the accounts
+     * @return True if the accounts of the owner are pinned, false otherwise
+     */
+    public boolean pinned(UUID owner) {
+        return this.pinned.contains(owner);
+    }
+
+    /**
+     * Marks the given account as requiring a write to the backing storage. Rather than writing
+     * immediately, the account is held until the next flush, which occurs either on the configured
+     * interval or once the number of pending accounts reaches the configured batch size.
+     *
+     * @param account The account to persist
+     * @return A future completing once the flush containing this account has been written
+     */
     @CanIgnoreReturnValue
     public CompletableFuture<Void> save(Account account) {
-        return run(() -> this.implementation.save(account));
+        if(this.arithmetic != null) {
+            // Balances are modified within storage directly, so the account is written immediately
+            // such that later changes applied by storage build on top of this balance
+            try {
+                this.dirty.remove(AccountKey.of(account.currency(), account.owner()));
+                this.write(() -> this.implementation.save(account));
+                this.written(account);
+                return CompletableFuture.completedFuture(null);
+            } catch (Exception e) {
+                ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+            }
+        }
+
+        this.stage(account);
+        CompletableFuture<Void> future = this.pending.get();
+
+        if(this.dirty.size() >= this.threshold && this.scheduled.compareAndSet(false, true)) {
+            Schedulers.require(Scheduler.ASYNCHRONOUS).publish(this::flushQuietly);
+        }
+
+        return future;
+    }
+
+    /**
+     * Indicates whether balance changes are applied by the backing storage itself, rather than being
+     * calculated locally and written behind.
+     *
+     * @return True if deposits, withdrawals and transfers should be applied via storage
+     */
+    public boolean atomic() {
+        return this.arithmetic != null;
+    }
+
+    /**
+     * Adds the given amount to the balance of the account within the backing storage, so long as the
+     * resulting balance falls within the given bounds. Callers should hold the lock of the account,
+     * and apply the resulting balance to the account before releasing it.
+     *
+     * @param account The account to modify
+     * @param amount The amount to add to the balance, negative to subtract
+     * @param minimum The lowest balance the account may be left with
+     * @param maximum The highest balance the account may be left with
+     * @return The resulting balance, or empty if the change was rejected
+     * @throws Exception If storage fails to apply the change
+     */
+    public Optional<BigDecimal> adjust(Account account, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws Exception {
+        Preconditions.checkState(this.arithmetic != null, "Storage does not apply balance changes");
+        this.settle(account);
+        return this.arithmetic.adjust(account, amount, minimum, maximum);
+    }
+
+    /**
+     * Adds the given amount to the balance of each of the given accounts within a single transaction
+     * of the backing storage. Callers should hold the locks of every account, and apply the resulting
+     * balances to the accounts before releasing them.
+     *
+     * @param accounts The accounts to modify
+     * @param amount The amount to add to each balance, negative to subtract
+     * @param minimum The lowest balance each account may be left with
+     * @param maximum The highest balance each account may be left with
+     * @return The resulting balance of each account in the order supplied, or empty where rejected
+     * @throws Exception If storage fails to apply the changes
+     */
+    public List<Optional<BigDecimal>> adjustAll(List<Account> accounts, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws Exception {
+        Preconditions.checkState(this.arithmetic != null, "Storage does not apply balance changes");
+        for(Account account : accounts) {
+            this.settle(account);
+        }
+        return this.arithmetic.adjustAll(accounts, amount, minimum, maximum);
+    }
+
+    /**
+     * Moves the given amount between two accounts within a single transaction of the backing storage.
+     * Callers should hold the locks of both accounts, and apply the resulting balances to the accounts
+     * before releasing them.
+     *
+     * @param from The account to withdraw from
+     * @param to The account to deposit to
+     * @param amount The amount to move between the accounts
+     * @param minimum The lowest balance either account may be left with
+     * @param maximum The highest balance either account may be left with
+     * @return The outcome of the transfer
+     * @throws Exception If storage fails to apply the transfer
+     */
+    public BalanceArithmetic.TransferResult transfer(Account from, Account to, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws Exception {
+        Preconditions.checkState(this.arithmetic != null, "Storage does not apply balance changes");
+        this.settle(from);
+        this.settle(to);
+        return this.arithmetic.transfer(from, to, amount, minimum, maximum);
+    }
+
+    /**
+     * Records that the given account has been written to storage outside of a flush, having its
+     * latest balance reflected within the balance index and announced to other servers.
+     *
+     * @param account The account which was written
+     */
+    public void written(Account account) {
+        this.index.update(account);
+        if(this.coherence != null) {
+            this.coherence.published(List.of(account));
+        }
+    }
+
+    /**
+     * Writes any pending balance of the account, such as one staged by a bulk transaction, ahead of
+     * a change applied by storage, which would otherwise be overwritten once the account is flushed.
+     */
+    private void settle(Account account) throws Exception {
+        AccountKey key = AccountKey.of(account.currency(), account.owner());
+        Account pending = this.dirty.remove(key);
+        if(pending != null) {
+            try {
+                this.write(() -> this.implementation.save(pending));
+            } catch (Exception e) {
+                this.dirty.putIfAbsent(key, pending);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Marks the given account as requiring a write, without requesting a flush. Callers should
+     * stage an account while still holding its lock, such that a modified account is never
+     * observed as being in sync with storage.
+     *
+     * @param account The account to stage
+     */
+    public void stage(Account account) {
+        this.index.update(account);
+        this.dirty.put(AccountKey.of(account.currency(), account.owner()), account);
+    }
+
+    /**
+     * Marks each of the given accounts as requiring a write, and requests an immediate flush such
+     * that the accounts are written together within a single batch.
+     *
+     * @param accounts The accounts to persist
+     * @return A future completing once the flush containing these accounts has been written
+     */
+    @CanIgnoreReturnValue
+    public CompletableFuture<Void> saveAll(Collection<Account> accounts) {
+        accounts.forEach(this::stage);
+        CompletableFuture<Void> future = this.pending.get();
+
+        if(!accounts.isEmpty() && this.scheduled.compareAndSet(false, true)) {
+            Schedulers.require(Scheduler.ASYNCHRONOUS).publish(this::flushQuietly);
+        }
+
+        return future;
+    }
+
+    /**
+     * Writes all pending accounts to the backing storage. Flushes are serialized, such that
+     * only a single flush is ever writing to storage at a given time.
+     *
+     * @throws Exception If the backing storage fails to persist the batch
+     */
+    public void flush() throws Exception {
+        this.flushing.lock();
+        try {
+            this.scheduled.set(false);
+            CompletableFuture<Void> future = this.pending.getAndSet(new CompletableFuture<>());
+
+            // Every change staged before this point is either written by this flush, or remains pending
+            // for the next, so changes journaled before this point need not be replayed once written
+            Instant covered = Instant.now();
+
+            Map<AccountKey, Account> batch = new HashMap<>();
+            for(Map.Entry<AccountKey, Account> entry : this.dirty.entrySet()) {
+                // Published as being written before leaving the pending set, such that the account
+                // is visible to lookups throughout
+                this.writing.put(entry.getKey(), entry.getValue());
+                if(this.dirty.remove(entry.getKey(), entry.getValue())) {
+                    batch.put(entry.getKey(), entry.getValue());
+                } else {
+                    this.writing.remove(entry.getKey(), entry.getValue());
+                }
+            }
+
+            try {
+                if(!batch.isEmpty()) {
+                    this.write(() -> this.implementation.saveAll(batch.values()));
+                    if(this.coherence != null) {
+                        this.coherence.published(batch.values());
+                    }
+                }
+
+                future.complete(null);
+                this.checkpoint(covered);
+            } catch (Exception e) {
+                // Re-queue the batch so it is retried on the next flush, unless a more
+                // recent change to an account has already taken its place
+                batch.forEach(this.dirty::putIfAbsent);
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                batch.forEach(this.writing::remove);
+            }
+        } finally {
+            this.flushing.unlock();
+        }
+    }
+
+    /**
+     * Replays every successful transaction journaled since the last checkpoint, restoring each affected
+     * account to the balance recorded by its latest transaction. Such transactions were applied, but may
+     * never have been written to storage, such as when the server stopped prior to the next flush.
+     */
+    private void recover() throws Exception {
+        if(this.arithmetic != null) {
+            // Balance changes are applied by storage directly, and other servers may have since modified
+            // these accounts, so journaled balances are never replayed over those held by storage
+            return;
+        }
+
+        Map<AccountKey, BigDecimal> balances = new LinkedHashMap<>();
+        EconomyService service = EconomyService.instance();
+        for(JournalEntry entry : this.journal.entries(this.journal.checkpoint())) {
+            if(entry.result() == EconomyResultType.SUCCESS) {
+                service.currencies().currency(entry.currency())
+                        .ifPresent(currency -> balances.put(AccountKey.of(currency, entry.owner()), entry.balance()));
+            }
+        }
+
+        int recovered = 0;
+        for(Map.Entry<AccountKey, BigDecimal> entry : balances.entrySet()) {
+            AccountKey key = entry.getKey();
+            Account account = this.accounts.get(key);
+            if(account == null) {
+                // The account was created, but never written prior to shutdown
+                Account created = this.implementation.account(key.currency(), key.owner(), builder -> builder);
+                Account cached = this.accounts.asMap().putIfAbsent(key, created);
+                account = cached != null ? cached : created;
+            }
+
+            if(account instanceof ImpactorAccount && account.balance().compareTo(entry.getValue()) != 0) {
+                ((ImpactorAccount) account).restore(entry.getValue());
+                this.stage(account);
+                recovered++;
+            }
+        }
+
+        if(recovered > 0) {
+            BaseImpactorPlugin.instance().logger().info("Recovered " + recovered + " account balance(s) from the transaction journal");
+            this.flush();
+        }
+    }
+
+    /**
+     * Records a checkpoint within the journal, allowing any segments it covers to be discarded. No
+     * checkpoint is recorded until the journal has been replayed, as it may otherwise cover entries
+     * yet to be recovered.
+     */
+    private void checkpoint(Instant covered) {
+        if(this.journal == null || !this.recovery.isDone() || this.recovery.isCompletedExceptionally()) {
+            return;
+        }
+
+        try {
+            this.journal.checkpoint(covered);
+        } catch (Exception e) {
+            ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+        }
+    }
+
+    /**
+     * Writes the recorded metrics of the economy to the configured export file, if any.
+     */
+    private void exportQuietly() {
+        if(this.export == null) {
+            return;
+        }
+
+        try {
+            this.metrics.export(this.export);
+        } catch (Exception e) {
+            ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            this.flush();
+        } catch (Exception e) {
+            ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+        }
     }
 
     @CanIgnoreReturnValue
@@ -109,32 +707,155 @@ public final class EconomyStorage implements Storage {
         Multimap<Currency, Account> results = ArrayListMultimap.create();
         this.accounts.asMap().forEach((key, account) -> results.put(key.currency, account));
 
-        return run(() -> this.implementation.accounts(results)).thenApply(ignore -> results);
+        return run(() -> this.implementation.accounts(results)).thenApply(ignore -> {
+            results.values().forEach(this.index::seed);
+            return results;
+        });
+    }
+
+    /**
+     * Fetches a page of accounts ranked by balance, from highest to lowest. Rankings are served from
+     * the in-memory balance index, unless the index is still being populated from storage, in which
+     * case the ranking is instead delegated to the backing storage.
+     *
+     * @param currency The currency to rank accounts by
+     * @param offset The zero-based position of the first account to include
+     * @param limit The maximum number of accounts to include
+     * @param virtual Whether virtual accounts should be included in the ranking
+     * @return A future supplying the ranked accounts
+     */
+    public CompletableFuture<List<Account>> top(Currency currency, int offset, int limit, boolean virtual) {
+        if(!this.ranking.isDone() || this.ranking.isCompletedExceptionally()) {
+            return supply(() -> this.implementation.top(currency, offset, limit, virtual));
+        }
+
+        List<UUID> owners = this.index.top(currency, offset, limit, virtual);
+        return this.accounts(currency, owners).thenApply(accounts -> owners.stream()
+                .map(accounts::get)
+                .filter(Objects::nonNull)
+                .toList()
+        );
+    }
+
+    /**
+     * Publishes every account held under the given currency, reading accounts from storage only as the
+     * subscriber requests them. Accounts currently held in memory are published in place of their
+     * stored copy, as the stored copy may not yet reflect recent changes.
+     *
+     * @param currency The currency of the accounts
+     * @return A publisher of the accounts of the currency
+     */
+    public Flow.Publisher<Account> stream(Currency currency) {
+        return new AccountPublisher(
+                () -> this.implementation.cursor(currency),
+                account -> {
+                    Account cached = this.cached(AccountKey.of(currency, account.owner()));
+                    return cached != null ? cached : account;
+                },
+                Schedulers.require(Scheduler.ASYNCHRONOUS).executor()
+        );
+    }
+
+    /**
+     * Resolves the one-based rank of the given account, once the balance index has been populated.
+     *
+     * @param account The account to rank
+     * @return A future supplying the rank of the account, or empty if the account is not ranked
+     */
+    public CompletableFuture<OptionalInt> rank(Account account) {
+        return this.ranking.thenApply(ignore -> this.index.rank(account));
     }
 
     @CanIgnoreReturnValue
     public CompletableFuture<Void> delete(Currency currency, UUID uuid) {
         return run(() -> {
+            this.dirty.remove(AccountKey.of(currency, uuid));
+            this.index.remove(currency, uuid);
             this.implementation.delete(currency, uuid);
             this.accounts.invalidate(AccountKey.of(currency, uuid));
+            if(this.coherence != null) {
+                this.coherence.deleted(currency, uuid);
+            }
         });
     }
 
+    /**
+     * Records the transaction within the transaction journal. The resulting balance of the account is
+     * captured at the time of this call, so callers should record a transaction while still holding
+     * the lock of the account it modified.
+     *
+     * @param transaction The transaction to record
+     * @return A future completing once the transaction has been committed to the journal
+     */
     @CanIgnoreReturnValue
     public CompletableFuture<Void> logTransaction(EconomyTransaction transaction) {
-//        return run(() -> this.implementation.logTransaction(transaction));
-        return CompletableFuture.completedFuture(null);
+        if(this.journal == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return this.journal.append(List.of(JournalEntry.of(transaction)));
+    }
+
+    /**
+     * Records a transfer within the transaction journal, as an entry for each of the two accounts
+     * involved.
+     *
+     * @param transaction The transfer to record
+     * @return A future completing once the transfer has been committed to the journal
+     * @see #logTransaction(EconomyTransaction)
+     */
+    @CanIgnoreReturnValue
+    public CompletableFuture<Void> logTransaction(EconomyTransferTransaction transaction) {
+        if(this.journal == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return this.journal.append(JournalEntry.of(transaction));
     }
 
+    /**
+     * Restores the balance of the given account to the balance recorded by its most recent successful
+     * transaction within the journal, provided the transaction occurred at or after the given time.
+     * This allows for recovering changes which were made to an account, but never written to storage.
+     * Transactions still queued for the journal are committed first, and only the journal segments
+     * holding transactions of the account made since the given time are read.
+     *
+     * @param account The account to synchronize
+     * @param since The earliest time of transactions to consider
+     * @return A future completing once the account has been synchronized
+     */
     @CanIgnoreReturnValue
     public CompletableFuture<Void> sync(Account account, Instant since) {
-//        return run(() -> this.implementation.sync(account, since));
-        return CompletableFuture.completedFuture(null);
+        if(this.journal == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        TransactionJournal journal = this.journal;
+        return journal.committed().thenCompose(ignored -> run(() -> journal.latest(account.owner(), account.currency().key(), since).ifPresent(entry -> {
+            if(entry.balance().compareTo(account.balance()) != 0) {
+                if(account instanceof ImpactorAccount) {
+                    ((ImpactorAccount) account).restore(entry.balance());
+                    this.save(account);
+                } else {
+                    account.set(entry.balance());
+                }
+            }
+        })));
     }
 
     @CanIgnoreReturnValue
     public CompletableFuture<Boolean> purge() {
-        return supply(this.implementation::purge);
+        return supply(() -> {
+            this.dirty.clear();
+            this.index.clear();
+            boolean purged = this.implementation.purge();
+            if(this.journal != null) {
+                // Transactions journaled prior to the purge must never be replayed onto the accounts it removed
+                this.journal.checkpoint(Instant.now());
+            }
+
+            return purged;
+        });
     }
 
     private static CompletableFuture<Void> run(ThrowingRunnable runnable) {
@@ -165,6 +886,253 @@ public final class EconomyStorage implements Storage {
         }, Schedulers.require(Scheduler.ASYNCHRONOUS).executor());
     }
 
+    /**
+     * Fetches the copy of an account awaiting a write to storage, whether staged for the next flush
+     * or being written by the current flush.
+     */
+    private @Nullable Account pending(AccountKey key) {
+        Account account = this.dirty.get(key);
+        return account != null ? account : this.writing.get(key);
+    }
+
+    /**
+     * Fetches the account from the cache, falling back to any account still pending a write. An
+     * account may be evicted from the cache prior to being flushed, in which case the pending
+     * account is reinstated rather than loading a stale copy of the account from storage.
+     *
+     * @param key The key of the account
+     * @return The cached account, or null if the account is not held in memory
+     */
+    private @Nullable Account cached(AccountKey key) {
+        Account account = this.accounts.getIfPresent(key);
+        if(account != null) {
+            return account;
+        }
+
+        Account pending = this.pending(key);
+        if(pending != null) {
+            Account cached = this.accounts.asMap().putIfAbsent(key, pending);
+            return cached != null ? cached : pending;
+        }
+
+        return null;
+    }
+
+    /**
+     * Loads accounts from storage on behalf of the cache, recording the time taken against the
+     * statistics of the cache and the metrics of the economy.
+     */
+    private <T> T load(ThrowingSupplier<T> loader) throws Exception {
+        long start = System.nanoTime();
+        try {
+            T result = loader.supply();
+            long elapsed = System.nanoTime() - start;
+            this.statistics.recordLoadSuccess(elapsed);
+            this.metrics.storage(StorageOperation.LOAD, elapsed, true);
+            return result;
+        } catch (Exception e) {
+            long elapsed = System.nanoTime() - start;
+            this.statistics.recordLoadFailure(elapsed);
+            this.metrics.storage(StorageOperation.LOAD, elapsed, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes accounts to storage, recording the time taken against the metrics of the economy.
+     */
+    private void write(ThrowingRunnable writer) throws Exception {
+        long start = System.nanoTime();
+        try {
+            writer.run();
+            this.metrics.storage(StorageOperation.SAVE, System.nanoTime() - start, true);
+        } catch (Exception e) {
+            this.metrics.storage(StorageOperation.SAVE, System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the messenger used to notify other servers sharing the same storage of changes made to
+     * accounts by this server, replacing any messenger set by configuration. This has no effect
+     * unless cache coherence is enabled.
+     *
+     * @param messenger The messenger to publish and receive changes through
+     */
+    public void messenger(EconomyMessenger messenger) {
+        if(this.coherence != null) {
+            this.coherence.messenger(messenger);
+        }
+    }
+
+    /**
+     * Polls the backing storage for changes made by other servers, regardless of the poll interval.
+     * This has no effect unless cache coherence is enabled.
+     *
+     * @throws Exception If the backing storage fails to supply its changes
+     */
+    public void poll() throws Exception {
+        if(this.coherence != null) {
+            this.coherence.poll();
+        }
+    }
+
+    UUID origin() {
+        return this.origin;
+    }
+
+    EconomyStorageImplementation implementation() {
+        return this.implementation;
+    }
+
+    /**
+     * Runs the given action whilst holding off any flush, such that accounts read from storage by
+     * the action are never a partially written batch, and no pending changes are written in the
+     * meantime.
+     */
+    void exclusive(ThrowingRunnable action) throws Exception {
+        this.flushing.lock();
+        try {
+            action.run();
+        } finally {
+            this.flushing.unlock();
+        }
+    }
+
+    /**
+     * Reconciles the local copy of an account with the latest copy held by storage, as written by
+     * another server. Accounts with changes not yet written to storage are left as is, as they are
+     * due to overwrite the copy held by storage regardless. Callers must hold off flushes via
+     * {@link #exclusive(ThrowingRunnable)}.
+     *
+     * @param currency The currency of the account
+     * @param owner The owner of the account
+     * @param latest The latest copy of the account, or null if the account has since been deleted
+     */
+    void reconcile(Currency currency, UUID owner, @Nullable Account latest) {
+        AccountKey key = AccountKey.of(currency, owner);
+        if(this.dirty.containsKey(key)) {
+            return;
+        }
+
+        Account current = this.accounts.policy().getIfPresentQuietly(key);
+        if(latest == null) {
+            this.accounts.invalidate(key);
+            this.index.remove(currency, owner);
+            return;
+        }
+
+        if(current == null) {
+            this.index.update(latest);
+        } else if(current instanceof ImpactorAccount) {
+            if(((ImpactorAccount) current).restore(latest.balance(), () -> !this.dirty.containsKey(key))) {
+                this.index.update(current);
+            }
+        }
+    }
+
+    /**
+     * Provides a snapshot of the current state of the account cache.
+     *
+     * @return The statistics of the account cache
+     */
+    public CacheStatistics statistics() {
+        return new CacheStatistics(this.accounts.estimatedSize(), this.pinned.size(), this.accounts.stats());
+    }
+
+    /**
+     * Provides the metrics recorded for the economy, covering both transactions and requests made
+     * against the backing storage.
+     *
+     * @return The metrics of the economy
+     */
+    public EconomyMetrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Loads accounts on behalf of the cache when it refreshes an account. A refresh is skipped for
+     * any account with changes not yet written to storage, and flushes are held off for the duration
+     * of the refresh so that a partially written flush is never read back.
+     */
+    private final class AccountLoader implements CacheLoader<AccountKey, Account> {
+
+        @Override
+        public @Nullable Account load(AccountKey key) throws Exception {
+            // An account evicted whilst awaiting a write is restored from its pending copy, as storage
+            // does not yet hold its latest balance
+            Account pending = EconomyStorage.this.pending(key);
+            if(pending != null) {
+                return pending;
+            }
+
+            // The cache records its own statistics for loads made through this loader
+            long start = System.nanoTime();
+            try {
+                Account account = EconomyStorage.this.implementation.accounts(key.currency(), List.of(key.owner())).get(key.owner());
+                EconomyStorage.this.metrics.storage(StorageOperation.LOAD, System.nanoTime() - start, true);
+                return account;
+            } catch (Exception e) {
+                EconomyStorage.this.metrics.storage(StorageOperation.LOAD, System.nanoTime() - start, false);
+                throw e;
+            }
+        }
+
+        @Override
+        public Account reload(AccountKey key, Account current) throws Exception {
+            if(!(current instanceof ImpactorAccount) || EconomyStorage.this.dirty.containsKey(key)) {
+                return current;
+            }
+
+            EconomyStorage.this.flushing.lock();
+            try {
+                Account latest = this.load(key);
+                if(latest != null) {
+                    ((ImpactorAccount) current).restore(latest.balance(), () -> !EconomyStorage.this.dirty.containsKey(key));
+                    EconomyStorage.this.index.update(current);
+                }
+            } finally {
+                EconomyStorage.this.flushing.unlock();
+            }
+
+            return current;
+        }
+    }
+
+    /**
+     * Weighs each cached account equally, except for accounts of pinned owners, which carry no weight
+     * so that they are never selected for eviction.
+     */
+    private record PinnedWeigher(Set<UUID> pinned) implements Weigher<AccountKey, Account> {
+
+        @Override
+        public int weigh(AccountKey key, Account value) {
+            return this.pinned.contains(key.owner()) ? 0 : 1;
+        }
+    }
+
+    /**
+     * Expires cached accounts after a period without access, unless the owner of the account is
+     * currently pinned, in which case the account is retained indefinitely.
+     */
+    private record PinnedExpiry(Set<UUID> pinned, Duration expiration) implements Expiry<AccountKey, Account> {
+
+        @Override
+        public long expireAfterCreate(AccountKey key, Account value, long currentTime) {
+            return this.pinned.contains(key.owner()) ? Long.MAX_VALUE : this.expiration.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(AccountKey key, Account value, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(AccountKey key, Account value, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(key, value, currentTime);
+        }
+    }
+
     private record AccountKey(Currency currency, UUID owner) {
 
         public static AccountKey of(Currency currency, UUID owner) {
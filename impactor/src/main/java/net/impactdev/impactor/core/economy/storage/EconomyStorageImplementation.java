@@ -28,11 +28,11 @@ package net.impactdev.impactor.core.economy.storage;
 import com.google.common.collect.Multimap;
 import net.impactdev.impactor.api.economy.accounts.Account;
 import net.impactdev.impactor.api.economy.currency.Currency;
-import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
 import net.impactdev.impactor.api.storage.connection.StorageConnection;
 
-import java.time.Instant;
-import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface EconomyStorageImplementation extends StorageConnection {
@@ -43,13 +43,64 @@ public interface EconomyStorageImplementation extends StorageConnection {
 
     void save(Account account) throws Exception;
 
+    /**
+     * Persists a batch of accounts. Implementations should make use of this to write the
+     * entire batch with as few storage operations as possible.
+     *
+     * @param accounts The accounts to persist
+     * @throws Exception If the batch fails to be written
+     */
+    void saveAll(Collection<Account> accounts) throws Exception;
+
     void accounts(Multimap<Currency, Account> cache) throws Exception;
 
-    void delete(Currency currency, UUID uuid) throws Exception;
+    /**
+     * Loads the accounts for each of the given owners under the specified currency. Owners
+     * without an existing account are omitted from the result, and no account is created
+     * on their behalf.
+     *
+     * @param currency The currency of the accounts
+     * @param owners The owners to load accounts for
+     * @return A mapping of owner to account for each existing account
+     * @throws Exception If the accounts fail to be read
+     */
+    Map<UUID, Account> accounts(Currency currency, Collection<UUID> owners) throws Exception;
+
+    /**
+     * Loads every existing account held by a single owner across the given currencies, such that
+     * all accounts of the owner may be fetched with a single request to the backing storage.
+     * Currencies the owner holds no account for are omitted from the result.
+     *
+     * @param owner The owner of the accounts
+     * @param currencies The currencies to load accounts for
+     * @return A mapping of currency to account for each existing account
+     * @throws Exception If the accounts fail to be read
+     */
+    Map<Currency, Account> accounts(UUID owner, Collection<Currency> currencies) throws Exception;
 
-    void logTransaction(EconomyTransaction transaction) throws Exception;
+    /**
+     * Fetches a page of accounts under the given currency, ordered by balance from highest to lowest.
+     *
+     * @param currency The currency of the accounts
+     * @param offset The zero-based position of the first account to include
+     * @param limit The maximum number of accounts to include
+     * @param virtual Whether virtual accounts should be included
+     * @return The ranked accounts
+     * @throws Exception If the accounts fail to be read
+     */
+    List<Account> top(Currency currency, int offset, int limit, boolean virtual) throws Exception;
 
-    void sync(Account account, Instant since) throws Exception;
+    /**
+     * Opens a cursor over every account held under the given currency, in an order of the storage's
+     * choosing. Accounts are read from storage as the cursor advances, rather than all at once.
+     *
+     * @param currency The currency of the accounts
+     * @return A cursor over the accounts of the currency, which must be closed once finished with
+     * @throws Exception If the cursor fails to be opened
+     */
+    AccountCursor cursor(Currency currency) throws Exception;
+
+    void delete(Currency currency, UUID uuid) throws Exception;
 
     boolean purge() throws Exception;
 
@@ -33,11 +33,14 @@ import net.impactdev.impactor.api.storage.connection.configurate.loaders.JsonLoa
 import net.impactdev.impactor.api.storage.connection.configurate.loaders.YamlLoader;
 import net.impactdev.impactor.core.economy.EconomyConfig;
 import net.impactdev.impactor.core.economy.storage.implementations.ConfigurateProvider;
+import net.impactdev.impactor.core.economy.storage.implementations.LocalStoreProvider;
 import net.impactdev.impactor.core.economy.storage.implementations.SQLProvider;
+import net.impactdev.impactor.core.storage.sql.H2ConnectionImpl;
 import net.impactdev.impactor.core.storage.sql.MariaDbConnectionImpl;
 import net.impactdev.impactor.core.storage.sql.MySQLConnectionImpl;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.file.Paths;
 import java.util.Optional;
 
 public final class StorageFactory {
@@ -45,10 +48,20 @@ public final class StorageFactory {
     public static EconomyStorage instance(ImpactorPlugin plugin, @NotNull Config config, @NotNull StorageType fallback) {
         StorageType use = Optional.ofNullable(config.get(EconomyConfig.STORAGE_TYPE)).orElse(fallback);
         plugin.logger().info("Loading storage provider... [" + use.getName() + "]");
-        return new EconomyStorage(createNewImplementation(use, config));
+        return new EconomyStorage(createNewImplementation(use, config), config);
     }
 
     private static EconomyStorageImplementation createNewImplementation(StorageType type, Config config) {
+        boolean flatfile = type == StorageType.JSON || type == StorageType.YAML || type == StorageType.HOCON;
+        if(flatfile && config.get(EconomyConfig.LOCAL_STORE)) {
+            return new LocalStoreProvider(
+                    Paths.get("config").resolve("impactor").resolve("economy").resolve("local"),
+                    Math.max(1, config.get(EconomyConfig.LOCAL_STORE_COMPACTION)) * 1024L * 1024L,
+                    legacy(type),
+                    config.get(EconomyConfig.CURRENCIES)
+            );
+        }
+
         return switch (type) {
             case JSON -> new ConfigurateProvider(new JsonLoader());
             case YAML -> new ConfigurateProvider(new YamlLoader());
@@ -61,8 +74,28 @@ public final class StorageFactory {
                     new MariaDbConnectionImpl(config.get(EconomyConfig.STORAGE_CREDENTIALS)),
                     config.get(EconomyConfig.SQL_TABLE_PREFIX)
             );
+            case H2 -> new SQLProvider(
+                    new H2ConnectionImpl(
+                            config.get(EconomyConfig.STORAGE_CREDENTIALS),
+                            Paths.get("config").resolve("impactor").resolve("economy").resolve("economy")
+                    ),
+                    config.get(EconomyConfig.SQL_TABLE_PREFIX)
+            );
             default -> throw new IllegalArgumentException("Unsupported storage type: " + type);
         };
 
     }
+
+    /**
+     * Creates the flat-file storage of the given type, from which existing accounts are imported when
+     * the local store is first enabled.
+     */
+    private static ConfigurateProvider legacy(StorageType type) {
+        return switch (type) {
+            case YAML -> new ConfigurateProvider(new YamlLoader());
+            case HOCON -> new ConfigurateProvider(new HoconLoader());
+            default -> new ConfigurateProvider(new JsonLoader());
+        };
+    }
+
 }
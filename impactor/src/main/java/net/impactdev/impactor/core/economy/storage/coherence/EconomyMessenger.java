@@ -0,0 +1,56 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.storage.coherence;
+
+import java.util.function.Consumer;
+
+/**
+ * A transport used to notify other servers sharing the same storage of account changes, allowing
+ * for changes to propagate faster than the polling interval of shared storage permits. Messages
+ * are only hints, and a receiver is expected to reload the account from storage.
+ */
+public interface EconomyMessenger {
+
+    /**
+     * Sends the invalidation to every other server listening on this transport.
+     *
+     * @param invalidation The invalidation to send
+     */
+    void publish(Invalidation invalidation);
+
+    /**
+     * Registers the handler for invalidations received from other servers.
+     *
+     * @param handler The handler for received invalidations
+     */
+    void subscribe(Consumer<Invalidation> handler);
+
+    /**
+     * Stops receiving invalidations and releases any resources held by this transport.
+     */
+    void close();
+
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.storage.coherence;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A messenger which only delivers invalidations to other messengers of the same channel within the
+ * current process. This is intended for testing, or for multiple storage instances within a single
+ * server.
+ */
+public final class LoopbackMessenger implements EconomyMessenger {
+
+    private static final Map<String, Set<LoopbackMessenger>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private final CopyOnWriteArrayList<Consumer<Invalidation>> handlers = new CopyOnWriteArrayList<>();
+
+    public LoopbackMessenger(String channel) {
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, ignore -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        for(LoopbackMessenger messenger : CHANNELS.getOrDefault(this.channel, Set.of())) {
+            if(messenger != this) {
+                messenger.handlers.forEach(handler -> handler.accept(invalidation));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Invalidation> handler) {
+        this.handlers.add(handler);
+    }
+
+    @Override
+    public void close() {
+        this.handlers.clear();
+        CHANNELS.computeIfPresent(this.channel, (ignore, members) -> {
+            members.remove(this);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+}
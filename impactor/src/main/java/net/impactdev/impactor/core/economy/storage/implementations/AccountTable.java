@@ -0,0 +1,200 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.storage.implementations;
+
+/**
+ * An open addressing hash table of the accounts of a single currency, held entirely within primitive
+ * arrays. Each account is represented by the two halves of its owner's UUID, its balance as an unscaled
+ * value at the scale of the currency, and whether the account is virtual.
+ *
+ * <p>This table is not thread-safe, and expects callers to handle synchronization.</p>
+ */
+final class AccountTable {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] most;
+    private long[] least;
+    private long[] balances;
+    private boolean[] occupied;
+    private boolean[] virtual;
+
+    private int size;
+    private int mask;
+
+    AccountTable() {
+        this.allocate(64);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean contains(long most, long least) {
+        return this.slot(most, least) >= 0;
+    }
+
+    /**
+     * Locates the slot of the given owner.
+     *
+     * @return The slot of the owner, or a negative value if the owner has no account
+     */
+    int slot(long most, long least) {
+        int index = hash(most, least) & this.mask;
+        while(this.occupied[index]) {
+            if(this.most[index] == most && this.least[index] == least) {
+                return index;
+            }
+
+            index = (index + 1) & this.mask;
+        }
+
+        return -1;
+    }
+
+    long balance(int slot) {
+        return this.balances[slot];
+    }
+
+    boolean virtual(int slot) {
+        return this.virtual[slot];
+    }
+
+    long most(int slot) {
+        return this.most[slot];
+    }
+
+    long least(int slot) {
+        return this.least[slot];
+    }
+
+    void put(long most, long least, long balance, boolean virtual) {
+        if(this.size + 1 > this.occupied.length * LOAD_FACTOR) {
+            this.resize(this.occupied.length * 2);
+        }
+
+        int index = hash(most, least) & this.mask;
+        while(this.occupied[index]) {
+            if(this.most[index] == most && this.least[index] == least) {
+                this.balances[index] = balance;
+                this.virtual[index] = virtual;
+                return;
+            }
+
+            index = (index + 1) & this.mask;
+        }
+
+        this.occupied[index] = true;
+        this.most[index] = most;
+        this.least[index] = least;
+        this.balances[index] = balance;
+        this.virtual[index] = virtual;
+        this.size++;
+    }
+
+    boolean remove(long most, long least) {
+        int index = this.slot(most, least);
+        if(index < 0) {
+            return false;
+        }
+
+        // Shift any following entries of the probe sequence back into the vacated slot, such
+        // that lookups never encounter a gap before reaching the entry they are probing for
+        int gap = index;
+        int next = (gap + 1) & this.mask;
+        while(this.occupied[next]) {
+            int ideal = hash(this.most[next], this.least[next]) & this.mask;
+            if(((next - ideal) & this.mask) >= ((next - gap) & this.mask)) {
+                this.most[gap] = this.most[next];
+                this.least[gap] = this.least[next];
+                this.balances[gap] = this.balances[next];
+                this.virtual[gap] = this.virtual[next];
+                gap = next;
+            }
+
+            next = (next + 1) & this.mask;
+        }
+
+        this.occupied[gap] = false;
+        this.size--;
+        return true;
+    }
+
+    void clear() {
+        this.allocate(64);
+    }
+
+    /**
+     * Visits every account within the table.
+     */
+    void forEach(Visitor visitor) {
+        for(int i = 0; i < this.occupied.length; i++) {
+            if(this.occupied[i]) {
+                visitor.visit(this.most[i], this.least[i], this.balances[i], this.virtual[i]);
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] most = this.most;
+        long[] least = this.least;
+        long[] balances = this.balances;
+        boolean[] occupied = this.occupied;
+        boolean[] virtual = this.virtual;
+
+        this.allocate(capacity);
+        for(int i = 0; i < occupied.length; i++) {
+            if(occupied[i]) {
+                this.put(most[i], least[i], balances[i], virtual[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.most = new long[capacity];
+        this.least = new long[capacity];
+        this.balances = new long[capacity];
+        this.occupied = new boolean[capacity];
+        this.virtual = new boolean[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+    }
+
+    private static int hash(long most, long least) {
+        long hash = most * 0x9E3779B97F4A7C15L ^ least;
+        hash ^= hash >>> 32;
+        hash *= 0xBF58476D1CE4E5B9L;
+        return (int) (hash ^ (hash >>> 29));
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+
+        void visit(long most, long least, long balance, boolean virtual);
+
+    }
+
+}
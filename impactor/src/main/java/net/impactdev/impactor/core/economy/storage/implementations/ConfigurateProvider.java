@@ -27,63 +27,61 @@ package net.impactdev.impactor.core.economy.storage.implementations;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
-import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import net.impactdev.impactor.api.Impactor;
 import net.impactdev.impactor.api.economy.EconomyService;
 import net.impactdev.impactor.api.economy.accounts.Account;
 import net.impactdev.impactor.api.economy.currency.Currency;
 import net.impactdev.impactor.api.economy.currency.CurrencyProvider;
-import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
-import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
-import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
-import net.impactdev.impactor.api.platform.players.PlatformPlayerService;
 import net.impactdev.impactor.api.platform.sources.PlatformSource;
 import net.impactdev.impactor.api.storage.connection.configurate.ConfigurateLoader;
 import net.impactdev.impactor.api.utility.ExceptionPrinter;
 import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
 import net.impactdev.impactor.core.economy.accounts.ImpactorAccount;
+import net.impactdev.impactor.core.economy.storage.AccountCursor;
 import net.impactdev.impactor.core.economy.storage.EconomyStorageImplementation;
 import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
 import net.kyori.adventure.key.Key;
 import org.apache.commons.io.FileUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.configurate.BasicConfigurationNode;
 import org.spongepowered.configurate.ConfigurationNode;
-import org.spongepowered.configurate.serialize.SerializationException;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.OffsetTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.function.Predicate;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 public class ConfigurateProvider implements EconomyStorageImplementation {
 
+    /** The number of account files read by a single task when loading every account */
+    private static final int BATCH_SIZE = 256;
+
     private final ConfigurateLoader loader;
     private final Path root;
 
@@ -100,13 +98,33 @@ public class ConfigurateProvider implements EconomyStorageImplementation {
         private Path transform(Path parent) {
             return parent.resolve(this.directory);
         }
+
+        /**
+         * Where an owner has files within both groups, lookups have always favored the users group, so
+         * the index does the same.
+         */
+        private static Group prefer(Group current, Group other) {
+            return current.ordinal() <= other.ordinal() ? current : other;
+        }
     }
 
     private final LoadingCache<Path, ReentrantLock> ioLocks;
 
+    /**
+     * Records the group of each owner with an account file, such that lookups for owners without
+     * a file never need to reach the file system. Populated on init, and kept up to date as files
+     * are written and deleted.
+     */
+    private final Map<UUID, Group> index = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+
     public ConfigurateProvider(@NotNull final ConfigurateLoader loader) {
+        this(loader, Paths.get("config").resolve("impactor").resolve("economy"));
+    }
+
+    public ConfigurateProvider(@NotNull final ConfigurateLoader loader, @NotNull final Path root) {
         this.loader = loader;
-        this.root = Paths.get("config").resolve("impactor").resolve("economy");
+        this.root = root;
         this.ioLocks = Caffeine.newBuilder()
                 .expireAfterAccess(10, TimeUnit.MINUTES)
                 .build(key -> new ReentrantLock());
@@ -122,24 +140,46 @@ public class ConfigurateProvider implements EconomyStorageImplementation {
         Path accounts = this.root.resolve("accounts");
         this.createDirectoriesIfNotExists(Group.Users.transform(accounts));
         this.createDirectoriesIfNotExists(Group.Virtual.transform(accounts));
+
+        this.workers = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8)),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("Impactor Economy Loader - #%d")
+                        .setDaemon(true)
+                        .build()
+        );
+
+        this.index.clear();
+        for(Group group : Group.values()) {
+            try(Stream<Path> files = Files.walk(group.transform(accounts), 2)) {
+                files.filter(path -> path.getFileName().toString().endsWith(".conf"))
+                        .forEach(path -> {
+                            String name = path.getFileName().toString();
+                            try {
+                                UUID owner = UUID.fromString(name.substring(0, name.indexOf(".")));
+                                this.index.merge(owner, group, Group::prefer);
+                            } catch (IllegalArgumentException e) {
+                                BaseImpactorPlugin.instance().logger().severe("Economy: Skipping unrecognized account file: " + name);
+                            }
+                        });
+            }
+        }
     }
 
     @Override
-    public void shutdown() throws Exception {}
+    public void shutdown() throws Exception {
+        if(this.workers != null) {
+            this.workers.shutdown();
+        }
+    }
 
     @Override
     public void meta(PrettyPrinter printer) throws Exception {
         printer.add("File Counts:");
-        long totalSize = 0;
-//        for(Group group : Group.values()) {
-//            try (Stream<Path> files = Files.walk(group.transformer.apply(this.root))) {
-//                long count = files.filter(path -> Files.isRegularFile(path) && path.endsWith(".conf")).count();
-//                printer.add("  %s: %d (%s)", group.name(), count, totalSize += this.size(files));
-//            } catch (Exception e) {
-//                printer.add("  %s: Unknown", group.name());
-//            }
-//        }
-        printer.newline().add("Total Used Space: %d", totalSize);
+        for(Group group : Group.values()) {
+            long count = this.index.values().stream().filter(group::equals).count();
+            printer.add("  %s: %d", group.name(), (Number) count);
+        }
     }
 
     private void createDirectoriesIfNotExists(Path path) throws IOException {
@@ -152,53 +192,42 @@ public class ConfigurateProvider implements EconomyStorageImplementation {
 
     @Override
     public boolean hasAccount(Currency currency, UUID uuid) throws Exception {
-        for(Group group : Group.values()) {
-            Path target = group.transform(this.root.resolve("accounts"))
-                    .resolve(uuid.toString().substring(0, 2))
-                    .resolve(uuid + ".conf");
-
-            if(Files.exists(target)) {
-                ConfigurationNode node = this.read(target).node(currency.key().asString());
-                return !node.virtual();
-            }
+        Group group = this.index.get(uuid);
+        if(group == null) {
+            return false;
         }
 
-        return false;
+        ConfigurationNode node = this.read(this.file(group, uuid)).node(currency.key().asString());
+        return !node.virtual();
     }
 
     @Override
     public Account account(Currency currency, UUID uuid, Account.AccountModifier modifier) throws Exception {
-        for(Group group : Group.values()) {
-            Path target = group.transform(this.root.resolve("accounts"))
-                    .resolve(uuid.toString().substring(0, 2))
-                    .resolve(uuid + ".conf");
-
-            if(Files.exists(target)) {
-                ConfigurationNode node = this.read(target).node(currency.key().asString());
-                if(!node.virtual()) {
-                    return ImpactorAccount.load(currency, uuid, group == Group.Virtual, BigDecimal.valueOf(node.getDouble()));
-                }
+        Group group = this.index.get(uuid);
+        if(group != null) {
+            ConfigurationNode node = this.read(this.file(group, uuid)).node(currency.key().asString());
+            if(!node.virtual()) {
+                return ImpactorAccount.load(currency, uuid, group == Group.Virtual, balance(node));
+            }
 
-                ImpactorAccount.ImpactorAccountBuilder builder = new ImpactorAccount.ImpactorAccountBuilder();
-                builder.currency(currency).owner(uuid);
-                modifier.modify(builder);
+            ImpactorAccount.ImpactorAccountBuilder builder = new ImpactorAccount.ImpactorAccountBuilder();
+            builder.currency(currency).owner(uuid);
+            modifier.modify(builder);
 
-                if(group == Group.Users) {
-                    builder.overrideVirtuality(false);
-                }
+            if(group == Group.Users) {
+                builder.overrideVirtuality(false);
+            }
 
-                Account account = builder.build();
-                this.save(account);
+            Account account = builder.build();
+            this.save(account);
 
-                return account;
-            }
+            return account;
         }
 
         Account.AccountBuilder builder = new ImpactorAccount.ImpactorAccountBuilder();
         builder.currency(currency).owner(uuid);
         builder = modifier.modify(builder);
 
-        PlatformPlayerService service = Impactor.instance().services().provide(PlatformPlayerService.class);
         if(PlatformSource.SERVER_UUID.equals(uuid)) {
             builder.virtual();
         }
@@ -213,209 +242,210 @@ public class ConfigurateProvider implements EconomyStorageImplementation {
 
     @Override
     public void save(Account account) throws Exception {
-        Path accounts = this.root.resolve("accounts");
-        Path target = (account.virtual() ? Group.Virtual.transform(accounts) : Group.Users.transform(accounts))
-                .resolve(account.owner().toString().substring(0, 2))
-                .resolve(account.owner() + ".conf");
+        this.save(this.path(account), List.of(account));
+    }
+
+    @Override
+    public void saveAll(Collection<Account> accounts) throws Exception {
+        // Accounts of the same owner share a file, so group them to read and write each file once
+        Map<Path, List<Account>> files = Maps.newHashMap();
+        for(Account account : accounts) {
+            files.computeIfAbsent(this.path(account), ignore -> Lists.newArrayList()).add(account);
+        }
 
-        this.save(target, account);
+        for(Map.Entry<Path, List<Account>> file : files.entrySet()) {
+            this.save(file.getKey(), file.getValue());
+        }
     }
 
     @Override
     public void accounts(Multimap<Currency, Account> cache) throws Exception {
-        Path root = this.root.resolve("accounts");
-
         EconomyService service = Impactor.instance().services().provide(EconomyService.class);
         CurrencyProvider currencies = service.currencies();
-        try(Stream<Path> files = Files.walk(root)) {
-            files.filter(path -> path.getFileName().toString().endsWith(".conf"))
-                    .forEach(path -> {
-                        try {
-                            boolean virtual = path.getParent().getParent().getFileName().toString().equals("virtual");
-                            String name = path.getFileName().toString();
-                            UUID owner = UUID.fromString(name.substring(0, name.indexOf(".")));
-
-                            ConfigurationNode data = this.read(path);
-                            for(Object key : data.childrenMap().keySet()) {
-                                Optional<Currency> currency = currencies.currency(Key.key((String) key));
-                                if(currency.isPresent()) {
-                                    Collection<Account> registered = cache.get(currency.get());
-                                    if(registered.stream().noneMatch(account -> account.owner().equals(owner))) {
-                                        Account account = ImpactorAccount.load(currency.get(), owner, virtual, BigDecimal.valueOf(data.node(key).getDouble()));
-                                        cache.put(account.currency(), account);
-                                    }
-                                }
-                            }
-                        } catch (Exception e) {
-                            BaseImpactorPlugin.instance().logger().severe("Economy: Failed to read account file: " + path.getFileName());
-                            e.printStackTrace();
-                        }
-                    });
+
+        Map<Currency, Set<UUID>> registered = Maps.newHashMap();
+        cache.forEach((currency, account) -> registered.computeIfAbsent(currency, ignore -> Sets.newHashSet()).add(account.owner()));
+
+        // Each file is independent of every other, so files are read in parallel, in batches, with
+        // the results merged into the cache once read
+        List<Callable<List<Account>>> tasks = Lists.newArrayList();
+        for(List<Map.Entry<UUID, Group>> batch : Lists.partition(List.copyOf(this.index.entrySet()), BATCH_SIZE)) {
+            tasks.add(() -> {
+                List<Account> results = Lists.newArrayList();
+                for(Map.Entry<UUID, Group> entry : batch) {
+                    this.load(currencies, entry.getKey(), entry.getValue(), results);
+                }
+
+                return results;
+            });
         }
-    }
 
-    @Override
-    public void delete(Currency currency, UUID uuid) throws Exception {
-        for(Group group : Group.values()) {
-            Path target = group.transform(this.root.resolve("accounts"))
-                    .resolve(uuid.toString().substring(0, 2))
-                    .resolve(uuid + ".conf");
+        for(Future<List<Account>> future : this.workers.invokeAll(tasks)) {
+            for(Account account : future.get()) {
+                Set<UUID> owners = registered.getOrDefault(account.currency(), Set.of());
+                if(!owners.contains(account.owner())) {
+                    cache.put(account.currency(), account);
+                }
+            }
+        }
+    }
 
-            if(Files.exists(target)) {
-                ConfigurationNode root = this.read(target);
-                ConfigurationNode data = root.node(currency.key().asString());
-                if (!data.virtual()) {
-                    if (!root.removeChild(data.key())) {
-                        throw new IllegalStateException("Failed to delete account...");
-                    }
+    private void load(CurrencyProvider currencies, UUID owner, Group group, List<Account> results) {
+        Path path = this.file(group, owner);
+        try {
+            ConfigurationNode data = this.read(path);
+            for(Object key : data.childrenMap().keySet()) {
+                Optional<Currency> currency = currencies.currency(Key.key((String) key));
+                currency.ifPresent(value -> results.add(ImpactorAccount.load(value, owner, group == Group.Virtual, balance(data.node(key)))));
+            }
+        } catch (Exception e) {
+            BaseImpactorPlugin.instance().logger().severe("Economy: Failed to read account file: " + path.getFileName());
+            ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+        }
+    }
 
-                    this.loader.loader(target).save(root);
+    /**
+     * Reads the balance of every account held within the account files of this provider, without
+     * creating the accounts themselves. Balances held under a currency not within the given set of
+     * currencies are skipped.
+     *
+     * @param currencies The currencies to read balances for
+     * @param consumer The consumer accepting each balance read
+     */
+    public void balances(Collection<Currency> currencies, BalanceConsumer consumer) throws Exception {
+        for(Map.Entry<UUID, Group> entry : this.index.entrySet()) {
+            ConfigurationNode data = this.read(this.file(entry.getValue(), entry.getKey()));
+            for(Currency currency : currencies) {
+                ConfigurationNode node = data.node(currency.key().asString());
+                if(!node.virtual()) {
+                    consumer.accept(currency, entry.getKey(), entry.getValue() == Group.Virtual, balance(node));
                 }
+            }
+        }
+    }
 
-                if (root.empty()) {
-                    Files.delete(target);
+    @Override
+    public Map<UUID, Account> accounts(Currency currency, Collection<UUID> owners) throws Exception {
+        Map<UUID, Account> accounts = Maps.newHashMap();
+        for(UUID owner : owners) {
+            Group group = this.index.get(owner);
+            if(group != null) {
+                ConfigurationNode node = this.read(this.file(group, owner)).node(currency.key().asString());
+                if(!node.virtual()) {
+                    accounts.put(owner, ImpactorAccount.load(currency, owner, group == Group.Virtual, balance(node)));
                 }
+            }
+        }
 
-                return;
+        return accounts;
+    }
+
+    @Override
+    public Map<Currency, Account> accounts(UUID owner, Collection<Currency> currencies) throws Exception {
+        Map<Currency, Account> accounts = Maps.newHashMap();
+        Group group = this.index.get(owner);
+        if(group != null) {
+            ConfigurationNode data = this.read(this.file(group, owner));
+            for(Currency currency : currencies) {
+                ConfigurationNode node = data.node(currency.key().asString());
+                if(!node.virtual()) {
+                    accounts.put(currency, ImpactorAccount.load(currency, owner, group == Group.Virtual, balance(node)));
+                }
             }
         }
+
+        return accounts;
     }
 
     @Override
-    public void logTransaction(EconomyTransaction transaction) throws Exception {
-        Account target = transaction.account();
-        Path accounts = this.root.resolve("accounts");
-        Path transactions = (target.virtual() ? Group.Virtual.transform(accounts) : Group.Users.transform(accounts))
-                .resolve(target.owner().toString().substring(0, 2))
-                .resolve("transactions");
+    public List<Account> top(Currency currency, int offset, int limit, boolean virtual) throws Exception {
+        Multimap<Currency, Account> accounts = ArrayListMultimap.create();
+        this.accounts(accounts);
+
+        return accounts.get(currency).stream()
+                .filter(account -> virtual || !account.virtual())
+                .sorted(Comparator.<Account, BigDecimal>comparing(Account::balance).reversed())
+                .skip(offset)
+                .limit(limit)
+                .toList();
+    }
 
-        DateTimeFormatter date = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
-        Path branch = transactions.resolve(date.format(transaction.timestamp()));
-        Path leaf = branch.resolve("transactions.log");
+    @Override
+    public AccountCursor cursor(Currency currency) throws Exception {
+        // Files are only visited as the cursor advances, rather than listing every file up front
+        Stream<Path> files = Files.walk(this.root.resolve("accounts"), 3);
+        Iterator<Account> accounts = files.filter(path -> path.getFileName().toString().endsWith(".conf"))
+                .map(path -> this.load(currency, path))
+                .filter(Objects::nonNull)
+                .iterator();
 
-        this.createDirectoriesIfNotExists(leaf.getParent());
-        ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(leaf));
-        lock.lock();
+        return AccountCursor.of(accounts, files);
+    }
 
+    private @Nullable Account load(Currency currency, Path path) {
         try {
-            ConfigurationNode node;
-            if(Files.exists(leaf)) {
-                node = this.loader.loader(leaf).load();
-            } else {
-                node = BasicConfigurationNode.root();
-            }
+            String name = path.getFileName().toString();
+            UUID owner = UUID.fromString(name.substring(0, name.indexOf(".")));
+            Group group = this.index.get(owner);
 
-            int id = node.node("transactions").getInt(0) + 1;
-            node.node("transactions").set(id);
-            node.node("" + id).node("currency").set(transaction.currency().key().asString());
-            node.node("" + id).node("type").set(transaction.type().name());
-            node.node("" + id).node("result").set(transaction.result().name());
-            node.node("" + id).node("amount").set(transaction.amount().doubleValue());
-            node.node("" + id).node("timestamp").set(transaction.timestamp());
+            // Files absent from the index, or shadowed by a file of the same owner in another group, are skipped
+            if(group == null || !this.file(group, owner).equals(path)) {
+                return null;
+            }
 
-            this.loader.loader(leaf).save(node);
+            ConfigurationNode node = this.read(path).node(currency.key().asString());
+            return !node.virtual() ? ImpactorAccount.load(currency, owner, group == Group.Virtual, balance(node)) : null;
         } catch (Exception e) {
+            BaseImpactorPlugin.instance().logger().severe("Economy: Failed to read account file: " + path.getFileName());
             ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
-        } finally {
-            lock.unlock();
+            return null;
         }
     }
 
     @Override
-    public void sync(Account account, Instant since) throws Exception {
-        Path accounts = this.root.resolve("accounts");
-        Path transactions = (account.virtual() ? Group.Virtual.transform(accounts) : Group.Users.transform(accounts))
-                .resolve(account.owner().toString().substring(0, 2))
-                .resolve("transactions");
-
-        DateTimeFormatter date = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
-        Files.walk(transactions)
-                .filter(Files::isRegularFile)
-                .filter(path -> {
-                    System.out.println("Reading path: " + path);
-                    String name = path.getParent().getFileName().toString();
-                    LocalDate timestamp = LocalDate.parse(name, date);
-
-                    LocalDate compare = LocalDate.ofInstant(since, ZoneId.systemDefault());
-                    return compare.isBefore(timestamp) || compare.isEqual(timestamp);
-                })
-                .map(path -> {
-                    ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(path));
-                    lock.lock();
-                    try {
-                        return this.loader.loader(path).load();
-                    } catch (Exception e) {
-                        ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
-                        return null;
-                    } finally {
-                        lock.unlock();
-                    }
-                })
-                .filter(Objects::nonNull)
-                .map(node -> {
-                    NodeCollection collection = new NodeCollection();
-                    int count = node.node("transactions").getInt(0);
-                    for(int i = 0; i < count; i++) {
-                        try {
-                            ConfigurationNode target = node.node("" + (i + 1));
-                            Instant timestamp = target.node("timestamp").get(Instant.class);
-                            Currency currency = EconomyService.instance()
-                                    .currencies()
-                                    .currency(Key.key(target.node("currency").getString()))
-                                    .orElse(null);
-
-                            Preconditions.checkNotNull(timestamp);
-                            if(since.isBefore(timestamp) && currency != null && account.currency().equals(currency)) {
-                                collection.append(target);
-                            }
-                        }
-                        catch (SerializationException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
+    public void delete(Currency currency, UUID uuid) throws Exception {
+        Group group = this.index.get(uuid);
+        if(group == null) {
+            return;
+        }
 
-                    return collection;
-                })
-                .flatMap(collection -> collection.valid.stream())
-                .map(node -> {
-                    try {
-                        return new LoggedTransaction(
-                                EconomyService.instance()
-                                        .currencies()
-                                        .currency(Key.key(node.node("currency").getString()))
-                                        .orElse(null),
-                                BigDecimal.valueOf(node.node("amount").getDouble(0)),
-                                EconomyTransactionType.valueOf(node.node("type").getString()),
-                                EconomyResultType.valueOf(node.node("result").getString()),
-                                node.node("timestamp").get(Instant.class)
-                        );
-                    }
-                    catch (SerializationException e) {
-                        throw new RuntimeException(e);
+        Path target = this.file(group, uuid);
+        ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(target));
+        lock.lock();
+        try {
+            ConfigurationNode root = this.read(target);
+            ConfigurationNode data = root.node(currency.key().asString());
+            if (!data.virtual()) {
+                if (!root.removeChild(data.key())) {
+                    throw new IllegalStateException("Failed to delete account...");
+                }
+
+                this.loader.loader(target).save(root);
+            }
+
+            if (root.empty()) {
+                Files.delete(target);
+                this.index.remove(uuid, group);
+
+                // The owner may still hold a file within the other group, which lookups should now fall back to
+                for(Group other : Group.values()) {
+                    if(other != group && Files.exists(this.file(other, uuid))) {
+                        this.index.merge(uuid, other, Group::prefer);
                     }
-                })
-                .sorted((a, b) -> b.timestamp.compareTo(a.timestamp))
-                .forEach(System.out::println);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public boolean purge() throws Exception {
         FileUtils.cleanDirectory(this.root.toFile());
+        this.index.clear();
         return true;
     }
 
-    private long size(Stream<Path> paths) throws IOException {
-        return paths.filter(Files::isRegularFile).mapToLong(this::sizeCatching).sum();
-    }
-
-    private long sizeCatching(Path path) {
-        try {
-            return Files.size(path);
-        } catch (IOException e) {
-            return 0L;
-        }
-    }
-
     @NotNull
     private ConfigurationNode read(Path target) throws IOException {
         ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(target));
@@ -431,7 +461,37 @@ public class ConfigurateProvider implements EconomyStorageImplementation {
         }
     }
 
-    private void save(Path target, @NotNull Account account) throws IOException {
+    /**
+     * Reads a balance exactly as written. Balances are written as plain decimal strings, though
+     * balances written as numbers by earlier versions are read just the same.
+     */
+    private static BigDecimal balance(ConfigurationNode node) {
+        String value = node.getString();
+        return value != null ? new BigDecimal(value) : BigDecimal.ZERO;
+    }
+
+    private Path file(Group group, UUID owner) {
+        return group.transform(this.root.resolve("accounts"))
+                .resolve(owner.toString().substring(0, 2))
+                .resolve(owner + ".conf");
+    }
+
+    @FunctionalInterface
+    public interface BalanceConsumer {
+
+        void accept(Currency currency, UUID owner, boolean virtual, BigDecimal balance) throws IOException;
+
+    }
+
+    private Group group(Account account) {
+        return account.virtual() ? Group.Virtual : Group.Users;
+    }
+
+    private Path path(Account account) {
+        return this.file(this.group(account), account.owner());
+    }
+
+    private void save(Path target, @NotNull List<Account> accounts) throws IOException {
         this.createDirectoriesIfNotExists(target.getParent());
         ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(target));
         lock.lock();
@@ -444,8 +504,14 @@ public class ConfigurateProvider implements EconomyStorageImplementation {
                 node = BasicConfigurationNode.root();
             }
 
-            node.node(account.currency().key().asString()).set(account.balance().doubleValue());
+            for(Account account : accounts) {
+                node.node(account.currency().key().asString()).set(account.balance().toPlainString());
+            }
             this.loader.loader(target).save(node);
+
+            // Every account within a file shares the same owner and group
+            Account account = accounts.get(0);
+            this.index.merge(account.owner(), this.group(account), Group::prefer);
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
@@ -453,20 +519,4 @@ public class ConfigurateProvider implements EconomyStorageImplementation {
         }
     }
 
-    private static final class NodeCollection {
-        public final List<ConfigurationNode> valid = Lists.newArrayList();
-
-        public void append(ConfigurationNode node) {
-            this.valid.add(node);
-        }
-    }
-
-    private record LoggedTransaction(
-            Currency currency,
-            BigDecimal amount,
-            EconomyTransactionType type,
-            EconomyResultType result,
-            Instant timestamp
-    ) {}
-
 }
@@ -0,0 +1,683 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.storage.implementations;
+
+import com.google.common.collect.Multimap;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
+import net.impactdev.impactor.core.economy.accounts.ImpactorAccount;
+import net.impactdev.impactor.core.economy.accounts.Money;
+import net.impactdev.impactor.core.economy.storage.AccountCursor;
+import net.impactdev.impactor.core.economy.storage.EconomyStorageImplementation;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A local economy store which holds every account in memory, and persists changes through an append-only
+ * write-ahead log alongside periodically compacted snapshots. On startup, the latest snapshot is loaded
+ * and the log is replayed on top of it, discarding any incomplete record left by a crash.
+ *
+ * <p>Balances are held as unscaled values at the number of decimals of their currency, so any balance
+ * with a finer precision than its currency supports is rounded to the nearest representable value.</p>
+ */
+public final class LocalStoreProvider implements EconomyStorageImplementation {
+
+    private static final int SNAPSHOT_MAGIC = 0x49534E50;
+    private static final int LOG_MAGIC = 0x49574C47;
+    private static final int VERSION = 1;
+    private static final int LOG_HEADER = 8;
+    private static final int MAX_RECORD = 1 << 16;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte PURGE = 3;
+
+    private final Path root;
+    private final Path snapshot;
+    private final Path log;
+    private final long threshold;
+
+    /** The flat-file storage whose accounts are imported on first startup, if any */
+    private final @Nullable ConfigurateProvider legacy;
+    private final Collection<Currency> currencies;
+
+    private final Map<Key, Ledger> ledgers = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel channel;
+
+    public LocalStoreProvider(Path root, long threshold) {
+        this(root, threshold, null, List.of());
+    }
+
+    public LocalStoreProvider(Path root, long threshold, @Nullable ConfigurateProvider legacy, Collection<Currency> currencies) {
+        this.root = root;
+        this.snapshot = root.resolve("accounts.snapshot");
+        this.log = root.resolve("accounts.log");
+        this.threshold = threshold;
+        this.legacy = legacy;
+        this.currencies = currencies;
+    }
+
+    @Override
+    public String name() {
+        return "Local Store";
+    }
+
+    @Override
+    public void init() throws Exception {
+        Files.createDirectories(this.root);
+        if(Files.exists(this.snapshot)) {
+            this.readSnapshot();
+        } else if(!Files.exists(this.log) && this.legacy != null) {
+            this.migrate();
+        }
+
+        long valid = LOG_HEADER;
+        if(Files.exists(this.log)) {
+            valid = this.replay();
+        }
+
+        this.channel = FileChannel.open(this.log, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if(this.channel.size() < LOG_HEADER) {
+            this.channel.truncate(0);
+            this.write(ByteBuffer.allocate(LOG_HEADER).putInt(LOG_MAGIC).putInt(VERSION).flip(), 0);
+            this.channel.force(true);
+        } else if(this.channel.size() > valid) {
+            this.channel.truncate(valid);
+        }
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        this.lock.writeLock().lock();
+        try {
+            if(this.channel != null) {
+                this.compact();
+                this.channel.close();
+                this.channel = null;
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void meta(PrettyPrinter printer) throws Exception {
+        this.lock.readLock().lock();
+        try {
+            int accounts = this.ledgers.values().stream().mapToInt(ledger -> ledger.table.size()).sum();
+            printer.add("Accounts: %d", (Number) accounts);
+            printer.add("Log Size: %d bytes", (Number) this.channel.size());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean hasAccount(Currency currency, UUID uuid) throws Exception {
+        this.lock.readLock().lock();
+        try {
+            Ledger ledger = this.ledgers.get(currency.key());
+            return ledger != null && ledger.table.contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Account account(Currency currency, UUID uuid, Account.AccountModifier modifier) throws Exception {
+        Optional<Account> existing = this.find(currency, uuid);
+        if(existing.isPresent()) {
+            return existing.get();
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            // Another thread may have created the account while the write lock was being acquired
+            existing = this.find(currency, uuid);
+            if(existing.isPresent()) {
+                return existing.get();
+            }
+
+            Account.AccountBuilder builder = new ImpactorAccount.ImpactorAccountBuilder();
+            builder.currency(currency).owner(uuid);
+
+            Account account = modifier.modify(builder).build();
+            this.saveAll(List.of(account));
+            return account;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void save(Account account) throws Exception {
+        this.saveAll(List.of(account));
+    }
+
+    @Override
+    public void saveAll(Collection<Account> accounts) throws Exception {
+        if(accounts.isEmpty()) {
+            return;
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            ByteArrayOutputStream records = new ByteArrayOutputStream(accounts.size() * 64);
+            List<Runnable> updates = new ArrayList<>(accounts.size());
+            for(Account account : accounts) {
+                Key key = account.currency().key();
+                int scale = this.ledgers.containsKey(key) ? this.ledgers.get(key).scale : Money.scale(account.currency().decimals());
+                long unscaled = Money.units(account.balance(), scale);
+                long most = account.owner().getMostSignificantBits();
+                long least = account.owner().getLeastSignificantBits();
+
+                record(records, output -> {
+                    output.writeByte(PUT);
+                    output.writeUTF(key.asString());
+                    output.writeLong(most);
+                    output.writeLong(least);
+                    output.writeBoolean(account.virtual());
+                    output.writeByte(scale);
+                    output.writeLong(unscaled);
+                });
+                updates.add(() -> this.ledger(key, scale).table.put(most, least, unscaled, account.virtual()));
+            }
+
+            this.append(records.toByteArray());
+            updates.forEach(Runnable::run);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void accounts(Multimap<Currency, Account> cache) throws Exception {
+        EconomyService service = EconomyService.instance();
+        this.lock.readLock().lock();
+        try {
+            for(Map.Entry<Key, Ledger> entry : this.ledgers.entrySet()) {
+                Optional<Currency> currency = service.currencies().currency(entry.getKey());
+                if(currency.isEmpty()) {
+                    continue;
+                }
+
+                Set<UUID> cached = new HashSet<>();
+                cache.get(currency.get()).forEach(account -> cached.add(account.owner()));
+
+                Ledger ledger = entry.getValue();
+                ledger.table.forEach((most, least, balance, virtual) -> {
+                    UUID owner = new UUID(most, least);
+                    if(!cached.contains(owner)) {
+                        cache.put(currency.get(), ImpactorAccount.load(currency.get(), owner, virtual, BigDecimal.valueOf(balance, ledger.scale)));
+                    }
+                });
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<UUID, Account> accounts(Currency currency, Collection<UUID> owners) throws Exception {
+        Map<UUID, Account> accounts = new HashMap<>();
+        this.lock.readLock().lock();
+        try {
+            for(UUID owner : owners) {
+                this.find(currency, owner).ifPresent(account -> accounts.put(owner, account));
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        return accounts;
+    }
+
+    @Override
+    public Map<Currency, Account> accounts(UUID owner, Collection<Currency> currencies) throws Exception {
+        Map<Currency, Account> accounts = new HashMap<>();
+        this.lock.readLock().lock();
+        try {
+            for(Currency currency : currencies) {
+                this.find(currency, owner).ifPresent(account -> accounts.put(currency, account));
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        return accounts;
+    }
+
+    @Override
+    public List<Account> top(Currency currency, int offset, int limit, boolean virtual) throws Exception {
+        int bound = offset + limit;
+        if(limit <= 0 || bound <= 0) {
+            return List.of();
+        }
+
+        // Retain only the highest balances while scanning, rather than sorting every account
+        record Ranked(long most, long least, long balance, boolean virtual) {}
+        Comparator<Ranked> order = Comparator.comparingLong(Ranked::balance);
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(bound + 1, order);
+
+        int scale;
+        this.lock.readLock().lock();
+        try {
+            Ledger ledger = this.ledgers.get(currency.key());
+            if(ledger == null) {
+                return List.of();
+            }
+
+            scale = ledger.scale;
+            ledger.table.forEach((most, least, balance, flag) -> {
+                if(!flag || virtual) {
+                    heap.add(new Ranked(most, least, balance, flag));
+                    if(heap.size() > bound) {
+                        heap.poll();
+                    }
+                }
+            });
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        List<Ranked> ranked = new ArrayList<>(heap);
+        ranked.sort(order.reversed());
+        return ranked.stream()
+                .skip(offset)
+                .map(entry -> (Account) ImpactorAccount.load(currency, new UUID(entry.most, entry.least), entry.virtual, BigDecimal.valueOf(entry.balance, scale)))
+                .toList();
+    }
+
+    @Override
+    public AccountCursor cursor(Currency currency) throws Exception {
+        // Only the owners are captured up front, with each account resolved once the cursor reaches it
+        long[] owners = this.owners(currency);
+        Iterator<Account> accounts = IntStream.range(0, owners.length / 2)
+                .mapToObj(index -> this.find(currency, new UUID(owners[index * 2], owners[index * 2 + 1])))
+                .flatMap(Optional::stream)
+                .iterator();
+
+        return AccountCursor.of(accounts, () -> {});
+    }
+
+    @Override
+    public void delete(Currency currency, UUID uuid) throws Exception {
+        this.lock.writeLock().lock();
+        try {
+            Ledger ledger = this.ledgers.get(currency.key());
+            if(ledger == null || !ledger.table.contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())) {
+                return;
+            }
+
+            ByteArrayOutputStream records = new ByteArrayOutputStream(64);
+            record(records, output -> {
+                output.writeByte(DELETE);
+                output.writeUTF(currency.key().asString());
+                output.writeLong(uuid.getMostSignificantBits());
+                output.writeLong(uuid.getLeastSignificantBits());
+            });
+
+            this.append(records.toByteArray());
+            ledger.table.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean purge() throws Exception {
+        this.lock.writeLock().lock();
+        try {
+            ByteArrayOutputStream records = new ByteArrayOutputStream(16);
+            record(records, output -> output.writeByte(PURGE));
+
+            this.append(records.toByteArray());
+            this.ledgers.clear();
+            this.compact();
+            return true;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private Optional<Account> find(Currency currency, UUID uuid) {
+        this.lock.readLock().lock();
+        try {
+            Ledger ledger = this.ledgers.get(currency.key());
+            if(ledger == null) {
+                return Optional.empty();
+            }
+
+            int slot = ledger.table.slot(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if(slot < 0) {
+                return Optional.empty();
+            }
+
+            return Optional.of(ImpactorAccount.load(currency, uuid, ledger.table.virtual(slot), BigDecimal.valueOf(ledger.table.balance(slot), ledger.scale)));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Captures the owners of every account under the given currency, as consecutive pairs of the most
+     * and least significant bits of each owner.
+     */
+    private long[] owners(Currency currency) {
+        this.lock.readLock().lock();
+        try {
+            Ledger ledger = this.ledgers.get(currency.key());
+            if(ledger == null) {
+                return new long[0];
+            }
+
+            long[] owners = new long[ledger.table.size() * 2];
+            AtomicInteger position = new AtomicInteger();
+            ledger.table.forEach((most, least, balance, virtual) -> {
+                int index = position.getAndAdd(2);
+                owners[index] = most;
+                owners[index + 1] = least;
+            });
+
+            return owners;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private Ledger ledger(Key key, int scale) {
+        return this.ledgers.computeIfAbsent(key, ignore -> new Ledger(scale, new AccountTable()));
+    }
+
+    /**
+     * Appends the encoded records to the log, forcing them to disk before returning. Once the log
+     * grows beyond the compaction threshold, a new snapshot is written and the log is reset. Expects
+     * the write lock to be held.
+     */
+    private void append(byte[] records) throws IOException {
+        this.write(ByteBuffer.wrap(records), this.channel.size());
+        this.channel.force(false);
+
+        if(this.channel.size() >= this.threshold) {
+            this.compact();
+        }
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            this.channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Writes the entire in-memory state to a new snapshot, replacing the previous snapshot atomically,
+     * after which the log is reset. Should the process stop between the two, the log is simply replayed
+     * over the new snapshot, which results in the same state. Expects the write lock to be held.
+     */
+    private void compact() throws IOException {
+        this.writeSnapshot();
+        this.channel.truncate(LOG_HEADER);
+        this.channel.force(true);
+    }
+
+    /**
+     * Writes the entire in-memory state to a new snapshot, replacing the previous snapshot atomically.
+     */
+    private void writeSnapshot() throws IOException {
+        Path temp = this.snapshot.resolveSibling(this.snapshot.getFileName() + ".tmp");
+        try(OutputStream file = Files.newOutputStream(temp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32());
+            DataOutputStream output = new DataOutputStream(checked);
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(this.ledgers.size());
+            for(Map.Entry<Key, Ledger> entry : this.ledgers.entrySet()) {
+                Ledger ledger = entry.getValue();
+                output.writeUTF(entry.getKey().asString());
+                output.writeByte(ledger.scale);
+                output.writeInt(ledger.table.size());
+
+                IOException[] failure = new IOException[1];
+                ledger.table.forEach((most, least, balance, virtual) -> {
+                    try {
+                        output.writeLong(most);
+                        output.writeLong(least);
+                        output.writeLong(balance);
+                        output.writeBoolean(virtual);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+
+                if(failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+
+            output.flush();
+            long checksum = checked.getChecksum().getValue();
+            output.writeLong(checksum);
+            output.flush();
+        }
+
+        try(FileChannel sync = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            sync.force(true);
+        }
+
+        Files.move(temp, this.snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Imports every account held by the flat-file storage, such that enabling the local store for an
+     * existing economy retains every balance. The imported accounts are written directly to a snapshot
+     * before the log is created, so an import interrupted part way is simply performed again on the
+     * next startup, while a completed import is never repeated.
+     */
+    private void migrate() throws Exception {
+        this.legacy.init();
+        try {
+            AtomicInteger imported = new AtomicInteger();
+            this.legacy.balances(this.currencies, (currency, owner, virtual, balance) -> {
+                int scale = Money.scale(currency.decimals());
+                this.ledger(currency.key(), scale).table.put(
+                        owner.getMostSignificantBits(),
+                        owner.getLeastSignificantBits(),
+                        Money.units(balance, scale),
+                        virtual
+                );
+                imported.incrementAndGet();
+            });
+
+            this.writeSnapshot();
+            BaseImpactorPlugin.instance().logger().info("Economy: Imported " + imported.get() + " account(s) into the local store");
+        } finally {
+            this.legacy.shutdown();
+        }
+    }
+
+    @SuppressWarnings("PatternValidation")
+    private void readSnapshot() throws IOException {
+        try(CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(this.snapshot)), new CRC32())) {
+            DataInputStream input = new DataInputStream(checked);
+            if(input.readInt() != SNAPSHOT_MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Invalid economy snapshot: " + this.snapshot);
+            }
+
+            int currencies = input.readInt();
+            for(int i = 0; i < currencies; i++) {
+                Key key = Key.key(input.readUTF());
+                int scale = input.readUnsignedByte();
+                int count = input.readInt();
+
+                AccountTable table = new AccountTable();
+                for(int j = 0; j < count; j++) {
+                    table.put(input.readLong(), input.readLong(), input.readLong(), input.readBoolean());
+                }
+
+                this.ledgers.put(key, new Ledger(scale, table));
+            }
+
+            long expected = checked.getChecksum().getValue();
+            if(input.readLong() != expected) {
+                throw new IOException("Economy snapshot failed its checksum: " + this.snapshot);
+            }
+        }
+    }
+
+    /**
+     * Applies every intact record of the log to the in-memory state, in order.
+     *
+     * @return The position directly following the last intact record
+     */
+    @SuppressWarnings("PatternValidation")
+    private long replay() throws IOException {
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.log)))) {
+            try {
+                if(input.readInt() != LOG_MAGIC || input.readInt() != VERSION) {
+                    throw new IOException("Invalid economy log: " + this.log);
+                }
+            } catch (EOFException e) {
+                return LOG_HEADER;
+            }
+
+            long position = LOG_HEADER;
+            CRC32 crc = new CRC32();
+            while(true) {
+                byte[] payload;
+                try {
+                    int length = input.readInt();
+                    if(length <= 0 || length > MAX_RECORD) {
+                        return position;
+                    }
+
+                    payload = new byte[length];
+                    input.readFully(payload);
+                    int checksum = input.readInt();
+
+                    crc.reset();
+                    crc.update(payload);
+                    if((int) crc.getValue() != checksum) {
+                        return position;
+                    }
+                } catch (EOFException e) {
+                    return position;
+                }
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                byte operation = record.readByte();
+                if(operation == PURGE) {
+                    this.ledgers.clear();
+                } else {
+                    Key key = Key.key(record.readUTF());
+                    long most = record.readLong();
+                    long least = record.readLong();
+                    if(operation == PUT) {
+                        boolean virtual = record.readBoolean();
+                        int scale = record.readUnsignedByte();
+                        long balance = record.readLong();
+
+                        Ledger ledger = this.ledger(key, scale);
+                        if(ledger.scale != scale) {
+                            balance = Money.units(BigDecimal.valueOf(balance, scale), ledger.scale);
+                        }
+                        ledger.table.put(most, least, balance, virtual);
+                    } else if(operation == DELETE) {
+                        Ledger ledger = this.ledgers.get(key);
+                        if(ledger != null) {
+                            ledger.table.remove(most, least);
+                        }
+                    }
+                }
+
+                position += Integer.BYTES + payload.length + Integer.BYTES;
+            }
+        }
+    }
+
+    private static void record(ByteArrayOutputStream records, RecordWriter writer) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        writer.write(new DataOutputStream(payload));
+        byte[] bytes = payload.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        DataOutputStream output = new DataOutputStream(records);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        output.writeInt((int) crc.getValue());
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+
+        void write(DataOutputStream output) throws IOException;
+
+    }
+
+    private record Ledger(int scale, AccountTable table) {}
+
+}
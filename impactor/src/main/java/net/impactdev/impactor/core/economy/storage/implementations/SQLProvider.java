@@ -25,55 +25,89 @@
 
 package net.impactdev.impactor.core.economy.storage.implementations;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import net.impactdev.impactor.api.economy.EconomyService;
 import net.impactdev.impactor.api.economy.accounts.Account;
 import net.impactdev.impactor.api.economy.currency.Currency;
 import net.impactdev.impactor.api.economy.currency.CurrencyProvider;
-import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
 import net.impactdev.impactor.api.storage.connection.sql.SQLConnection;
-import net.impactdev.impactor.api.utility.ExceptionPrinter;
 import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
 import net.impactdev.impactor.core.economy.accounts.ImpactorAccount;
+import net.impactdev.impactor.core.economy.storage.AccountCursor;
+import net.impactdev.impactor.core.economy.storage.BalanceArithmetic;
 import net.impactdev.impactor.core.economy.storage.EconomyStorageImplementation;
+import net.impactdev.impactor.core.economy.storage.coherence.AccountChange;
+import net.impactdev.impactor.core.economy.storage.coherence.ChangeTracker;
+import net.impactdev.impactor.core.economy.transactions.TransactionRestrictions;
 import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.impactdev.impactor.core.storage.sql.SchemaLoader;
 import net.kyori.adventure.key.Key;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
-public final class SQLProvider implements EconomyStorageImplementation {
+public final class SQLProvider implements EconomyStorageImplementation, ChangeTracker, BalanceArithmetic {
 
     public static final String HAS_ACCOUNT = "SELECT 1 FROM '{prefix}accounts' WHERE uuid = ? AND currency = ?";
     public static final String ACCOUNT = "SELECT * FROM '{prefix}accounts' WHERE uuid = ? AND currency = ?";
-    public static final String UPDATE_OR_INSERT_ACCOUNT = "INSERT INTO '{prefix}accounts' (uuid, currency, virtual, balance) VALUES(?, ?, ?, ?) ON DUPLICATE KEY UPDATE balance = VALUES(balance)";
+    public static final String UPDATE_OR_INSERT_ACCOUNT = "INSERT INTO '{prefix}accounts' (uuid, currency, virtual, balance, updated_at) VALUES(?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE balance = VALUES(balance), version = version + 1, updated_at = VALUES(updated_at)";
+    public static final String INSERT_ACCOUNT = "INSERT IGNORE INTO '{prefix}accounts' (uuid, currency, virtual, balance, updated_at) VALUES(?, ?, ?, ?, ?)";
+    public static final String ADJUST_BALANCE = "UPDATE '{prefix}accounts' SET balance = balance + ?, version = version + 1, updated_at = ? WHERE uuid = ? AND currency = ? AND balance + ? BETWEEN ? AND ?";
+    public static final String ACCOUNT_BALANCE = "SELECT balance FROM '{prefix}accounts' WHERE uuid = ? AND currency = ?";
     public static final String ALL_ACCOUNTS = "SELECT * FROM '{prefix}accounts'";
+    public static final String ACCOUNTS_BY_OWNER = "SELECT * FROM '{prefix}accounts' WHERE uuid = ?";
+    public static final String ACCOUNTS_BY_OWNERS = "SELECT * FROM '{prefix}accounts' WHERE currency = ? AND uuid IN ({owners})";
+    public static final String CHANGED_ACCOUNTS = "SELECT * FROM '{prefix}accounts' WHERE updated_at > ? ORDER BY updated_at";
+    public static final String FIRST_ACCOUNTS_PAGE = "SELECT * FROM '{prefix}accounts' WHERE currency = ? ORDER BY uuid LIMIT ?";
+    public static final String NEXT_ACCOUNTS_PAGE = "SELECT * FROM '{prefix}accounts' WHERE currency = ? AND uuid > ? ORDER BY uuid LIMIT ?";
+    public static final String TOP_ACCOUNTS = "SELECT * FROM '{prefix}accounts' WHERE currency = ? ORDER BY balance DESC LIMIT ? OFFSET ?";
+    public static final String TOP_PLAYER_ACCOUNTS = "SELECT * FROM '{prefix}accounts' WHERE currency = ? AND virtual = false ORDER BY balance DESC LIMIT ? OFFSET ?";
     public static final String DELETE_ACCOUNT = "DELETE FROM '{prefix}accounts' WHERE uuid = ? AND currency = ?";
     public static final String TRUNCATE_ACCOUNTS = "TRUNCATE TABLE '{prefix}accounts'";
+    public static final String ADD_VERSION_COLUMN = "ALTER TABLE '{prefix}accounts' ADD COLUMN version BIGINT NOT NULL DEFAULT 0";
+    public static final String ADD_UPDATED_COLUMN = "ALTER TABLE '{prefix}accounts' ADD COLUMN updated_at BIGINT NOT NULL DEFAULT 0";
+    public static final String ADD_UPDATED_INDEX = "CREATE INDEX '{prefix}accounts_updated' ON '{prefix}accounts' (updated_at)";
+
+    /** The maximum number of rows sent per batch or bound within a single IN clause */
+    private static final int BATCH_SIZE = 500;
+    private static final int PAGE_SIZE = 500;
 
     private final BaseImpactorPlugin plugin;
     private final SQLConnection factory;
     private final Function<String, String> processor;
+    private final SchemaLoader schema;
+    private final String prefix;
 
     public SQLProvider(SQLConnection connection, String prefix) {
         this.plugin = BaseImpactorPlugin.instance();
         this.factory = connection;
+        this.prefix = prefix;
         this.processor = connection.statementProcessor().compose(s -> s.replace("{prefix}", prefix));
+        this.schema = new SchemaLoader(connection, this.processor);
     }
 
     @Override
@@ -84,41 +118,9 @@ public final class SQLProvider implements EconomyStorageImplementation {
     @Override
     public void init() throws Exception {
         this.factory.init();
+        this.migrate();
         try(InputStream schema = this.plugin.resource(root -> root.resolve("schema").resolve(this.factory.name().toLowerCase() + ".sql"))) {
-            try(BufferedReader reader = new BufferedReader(new InputStreamReader(schema, StandardCharsets.UTF_8))) {
-                try(Connection connection = this.factory.connection()) {
-                    try (Statement s = connection.createStatement()) {
-                        StringBuilder sb = new StringBuilder();
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            if (line.startsWith("--") || line.startsWith("#")) continue;
-
-                            sb.append(line);
-
-                            // check for end of declaration
-                            if (line.endsWith(";")) {
-                                sb.deleteCharAt(sb.length() - 1);
-
-                                String result = this.processor.apply(sb.toString().trim());
-
-                                if (!result.isEmpty()) {
-                                    if (result.startsWith("set mode")) {
-                                        s.addBatch(result);
-                                    } else {
-                                        if (SchemaReaders.any(this, result)) {
-                                            SchemaReaders.first(this, result, s);
-                                        }
-                                    }
-                                }
-
-                                // reset
-                                sb = new StringBuilder();
-                            }
-                        }
-                        s.executeBatch();
-                    }
-                }
-            }
+            this.schema.load(schema);
         }
     }
 
@@ -151,16 +153,7 @@ public final class SQLProvider implements EconomyStorageImplementation {
             return this.results(ps, results -> {
                 Account account;
                 if(results.next()) {
-                    Account.AccountBuilder builder = Account.builder()
-                            .owner(this.bytesToUUID(results.getBytes("uuid")))
-                            .currency(currency)
-                            .balance(results.getBigDecimal("balance"));
-
-                    if(results.getBoolean("virtual")) {
-                        builder.virtual();
-                    }
-
-                    account = builder.build();
+                    account = this.read(results, currency);
                 } else {
                     Account.AccountBuilder builder = new ImpactorAccount.ImpactorAccountBuilder();
                     builder.currency(currency).owner(uuid);
@@ -181,12 +174,55 @@ public final class SQLProvider implements EconomyStorageImplementation {
             ps.setString(2, account.currency().key().asString());
             ps.setBoolean(3, account.virtual());
             ps.setBigDecimal(4, account.balance());
+            ps.setLong(5, System.currentTimeMillis());
 
             ps.executeUpdate();
             return null;
         });
     }
 
+    @Override
+    public void saveAll(Collection<Account> accounts) throws Exception {
+        if(accounts.isEmpty()) {
+            return;
+        }
+
+        this.query(UPDATE_OR_INSERT_ACCOUNT, (connection, ps) -> {
+            boolean commit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int pending = 0;
+                long updated = System.currentTimeMillis();
+                for(Account account : accounts) {
+                    ps.setBytes(1, this.uuidToBytes(account.owner()));
+                    ps.setString(2, account.currency().key().asString());
+                    ps.setBoolean(3, account.virtual());
+                    ps.setBigDecimal(4, account.balance());
+                    ps.setLong(5, updated);
+                    ps.addBatch();
+
+                    if(++pending == BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+
+                if(pending > 0) {
+                    ps.executeBatch();
+                }
+
+                connection.commit();
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(commit);
+            }
+
+            return null;
+        });
+    }
+
     @SuppressWarnings("PatternValidation")
     @Override
     public void accounts(Multimap<Currency, Account> cache) throws Exception {
@@ -197,15 +233,7 @@ public final class SQLProvider implements EconomyStorageImplementation {
                 Key key = Key.key(results.getString("currency"));
                 Optional<Currency> currency = provider.currency(key);
                 if(currency.isPresent()) {
-                    Account.AccountBuilder account = Account.builder()
-                            .owner(this.bytesToUUID(results.getBytes("uuid")))
-                            .currency(currency.get())
-                            .balance(results.getBigDecimal("balance"));
-
-                    if(results.getBoolean("virtual")) {
-                        account.virtual();
-                    }
-                    cache.put(currency.get(), account.build());
+                    cache.put(currency.get(), this.read(results, currency.get()));
                 }
             }
 
@@ -214,23 +242,164 @@ public final class SQLProvider implements EconomyStorageImplementation {
     }
 
     @Override
-    public void delete(Currency currency, UUID uuid) throws Exception {
-        this.query(DELETE_ACCOUNT, (connection, ps) -> {
-            ps.setBytes(1, this.uuidToBytes(uuid));
-            ps.setString(2, currency.key().asString());
+    public Map<UUID, Account> accounts(Currency currency, Collection<UUID> owners) throws Exception {
+        Map<UUID, Account> accounts = new HashMap<>();
+        for(List<UUID> partition : Iterables.partition(owners, BATCH_SIZE)) {
+            String placeholders = String.join(", ", Collections.nCopies(partition.size(), "?"));
+            this.query(ACCOUNTS_BY_OWNERS.replace("{owners}", placeholders), (connection, ps) -> {
+                ps.setString(1, currency.key().asString());
+                for(int i = 0; i < partition.size(); i++) {
+                    ps.setBytes(i + 2, this.uuidToBytes(partition.get(i)));
+                }
 
-            return null;
+                return this.results(ps, results -> {
+                    while(results.next()) {
+                        Account account = this.read(results, currency);
+                        accounts.put(account.owner(), account);
+                    }
+
+                    return null;
+                });
+            });
+        }
+
+        return accounts;
+    }
+
+    @Override
+    public Map<Currency, Account> accounts(UUID owner, Collection<Currency> currencies) throws Exception {
+        Map<Key, Currency> lookup = new HashMap<>();
+        currencies.forEach(currency -> lookup.put(currency.key(), currency));
+
+        return this.query(ACCOUNTS_BY_OWNER, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(owner));
+            return this.results(ps, results -> {
+                Map<Currency, Account> accounts = new HashMap<>();
+                while(results.next()) {
+                    Currency currency = lookup.get(Key.key(results.getString("currency")));
+                    if(currency != null) {
+                        accounts.put(currency, this.read(results, currency));
+                    }
+                }
+
+                return accounts;
+            });
+        });
+    }
+
+    @Override
+    public Optional<BigDecimal> adjust(Account account, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws Exception {
+        return this.transaction(connection -> {
+            if(!this.adjust(connection, account, amount, minimum, maximum)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(this.balance(connection, account));
+        });
+    }
+
+    @Override
+    public List<Optional<BigDecimal>> adjustAll(List<Account> accounts, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws Exception {
+        return this.transaction(connection -> {
+            // Rows are always modified in the same order, such that two bulk operations covering the
+            // same accounts can never deadlock within the database
+            List<Integer> order = IntStream.range(0, accounts.size())
+                    .boxed()
+                    .sorted((a, b) -> order(accounts.get(a), accounts.get(b)))
+                    .toList();
+
+            List<Optional<BigDecimal>> results = new ArrayList<>(Collections.nCopies(accounts.size(), Optional.empty()));
+            for(int index : order) {
+                Account account = accounts.get(index);
+                if(this.adjust(connection, account, amount, minimum, maximum)) {
+                    results.set(index, Optional.of(this.balance(connection, account)));
+                }
+            }
+
+            return results;
+        });
+    }
+
+    @Override
+    public TransferResult transfer(Account from, Account to, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws Exception {
+        return this.transaction(connection -> {
+            // Rows are always modified in the same order, regardless of the direction of the transfer,
+            // such that two opposing transfers can never deadlock within the database
+            boolean withdrawn;
+            boolean deposited;
+            if(order(from, to) <= 0) {
+                withdrawn = this.adjust(connection, from, amount.negate(), minimum, TransactionRestrictions.UNBOUNDED);
+                deposited = this.adjust(connection, to, amount, TransactionRestrictions.UNBOUNDED.negate(), maximum);
+            } else {
+                deposited = this.adjust(connection, to, amount, TransactionRestrictions.UNBOUNDED.negate(), maximum);
+                withdrawn = this.adjust(connection, from, amount.negate(), minimum, TransactionRestrictions.UNBOUNDED);
+            }
+
+            if(!deposited || !withdrawn) {
+                connection.rollback();
+                return new TransferResult(!deposited ? EconomyResultType.NO_REMAINING_SPACE : EconomyResultType.NOT_ENOUGH_FUNDS, null, null);
+            }
+
+            return new TransferResult(EconomyResultType.SUCCESS, this.balance(connection, from), this.balance(connection, to));
+        });
+    }
+
+    @SuppressWarnings("PatternValidation")
+    @Override
+    public List<AccountChange> changes(long since) throws Exception {
+        return this.query(CHANGED_ACCOUNTS, (connection, ps) -> {
+            ps.setLong(1, since);
+            return this.results(ps, results -> {
+                CurrencyProvider provider = EconomyService.instance().currencies();
+                List<AccountChange> changes = new ArrayList<>();
+                while(results.next()) {
+                    Optional<Currency> currency = provider.currency(Key.key(results.getString("currency")));
+                    if(currency.isPresent()) {
+                        changes.add(new AccountChange(
+                                this.read(results, currency.get()),
+                                results.getLong("version"),
+                                results.getLong("updated_at")
+                        ));
+                    }
+                }
+
+                return changes;
+            });
         });
     }
 
     @Override
-    public void logTransaction(EconomyTransaction transaction) throws Exception {
+    public List<Account> top(Currency currency, int offset, int limit, boolean virtual) throws Exception {
+        return this.query(virtual ? TOP_ACCOUNTS : TOP_PLAYER_ACCOUNTS, (connection, ps) -> {
+            ps.setString(1, currency.key().asString());
+            ps.setInt(2, limit);
+            ps.setInt(3, offset);
+
+            return this.results(ps, results -> {
+                List<Account> accounts = new ArrayList<>();
+                while(results.next()) {
+                    accounts.add(this.read(results, currency));
+                }
 
+                return accounts;
+            });
+        });
     }
 
     @Override
-    public void sync(Account account, Instant since) throws Exception {
+    public AccountCursor cursor(Currency currency) throws Exception {
+        return new PagedCursor(currency);
+    }
 
+    @Override
+    public void delete(Currency currency, UUID uuid) throws Exception {
+        this.query(DELETE_ACCOUNT, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(uuid));
+            ps.setString(2, currency.key().asString());
+
+            ps.executeUpdate();
+            return null;
+        });
     }
 
     @Override
@@ -241,17 +410,91 @@ public final class SQLProvider implements EconomyStorageImplementation {
         });
     }
 
-    private boolean tableExists(String table) throws SQLException {
-        try (Connection connection = this.factory.connection()) {
-            try (ResultSet rs = connection.getMetaData().getTables(null, null, "%", null)) {
-                while (rs.next()) {
-                    if (rs.getString(3).equalsIgnoreCase(table)) {
-                        return true;
-                    }
-                }
+    /**
+     * Adds the given amount to the balance of an account within an ongoing transaction. An update
+     * matching no row either indicates the result falls outside of the bounds, or that the account
+     * has yet to be written to storage, in which case the account is written and the update retried.
+     */
+    private boolean adjust(Connection connection, Account account, BigDecimal amount, BigDecimal minimum, BigDecimal maximum) throws SQLException {
+        try(PreparedStatement ps = connection.prepareStatement(this.processor.apply(ADJUST_BALANCE))) {
+            ps.setBigDecimal(1, amount);
+            ps.setLong(2, System.currentTimeMillis());
+            ps.setBytes(3, this.uuidToBytes(account.owner()));
+            ps.setString(4, account.currency().key().asString());
+            ps.setBigDecimal(5, amount);
+            ps.setBigDecimal(6, minimum);
+            ps.setBigDecimal(7, maximum);
+            if(ps.executeUpdate() > 0) {
+                return true;
+            }
+        }
+
+        try(PreparedStatement ps = connection.prepareStatement(this.processor.apply(INSERT_ACCOUNT))) {
+            ps.setBytes(1, this.uuidToBytes(account.owner()));
+            ps.setString(2, account.currency().key().asString());
+            ps.setBoolean(3, account.virtual());
+            ps.setBigDecimal(4, account.balance());
+            ps.setLong(5, System.currentTimeMillis());
+            if(ps.executeUpdate() == 0) {
                 return false;
             }
         }
+
+        return this.adjust(connection, account, amount, minimum, maximum);
+    }
+
+    private BigDecimal balance(Connection connection, Account account) throws SQLException {
+        try(PreparedStatement ps = connection.prepareStatement(this.processor.apply(ACCOUNT_BALANCE))) {
+            ps.setBytes(1, this.uuidToBytes(account.owner()));
+            ps.setString(2, account.currency().key().asString());
+            try(ResultSet results = ps.executeQuery()) {
+                if(!results.next()) {
+                    throw new SQLException("Account no longer exists: " + account.owner());
+                }
+
+                return results.getBigDecimal("balance");
+            }
+        }
+    }
+
+    private static int order(Account first, Account second) {
+        int result = first.owner().compareTo(second.owner());
+        return result != 0 ? result : first.currency().key().asString().compareTo(second.currency().key().asString());
+    }
+
+    /**
+     * Brings tables created prior to the tracking of account changes up to date with the
+     * current schema.
+     */
+    private void migrate() throws Exception {
+        String table = this.prefix + "accounts";
+        if(!this.schema.tableExists(table) || this.schema.columnExists(table, "updated_at")) {
+            return;
+        }
+
+        try(Connection connection = this.factory.connection()) {
+            try(Statement s = connection.createStatement()) {
+                if(!this.schema.columnExists(table, "version")) {
+                    s.addBatch(this.processor.apply(ADD_VERSION_COLUMN));
+                }
+                s.addBatch(this.processor.apply(ADD_UPDATED_COLUMN));
+                s.addBatch(this.processor.apply(ADD_UPDATED_INDEX));
+                s.executeBatch();
+            }
+        }
+    }
+
+    private Account read(ResultSet results, Currency currency) throws SQLException {
+        Account.AccountBuilder builder = Account.builder()
+                .owner(this.bytesToUUID(results.getBytes("uuid")))
+                .currency(currency)
+                .balance(results.getBigDecimal("balance"));
+
+        if(results.getBoolean("virtual")) {
+            builder.virtual();
+        }
+
+        return builder.build();
     }
 
     private byte[] uuidToBytes(UUID uuid) {
@@ -282,6 +525,32 @@ public final class SQLProvider implements EconomyStorageImplementation {
         }
     }
 
+    @FunctionalInterface
+    private interface Transaction<T> {
+        T execute(Connection connection) throws Exception;
+    }
+
+    /**
+     * Runs the given action within a single database transaction, which is committed once the
+     * action completes, or rolled back should the action fail.
+     */
+    private <T> T transaction(Transaction<T> action) throws Exception {
+        try(Connection connection = this.factory.connection()) {
+            boolean commit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                T result = action.execute(connection);
+                connection.commit();
+                return result;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(commit);
+            }
+        }
+    }
+
     @FunctionalInterface
     private interface Results<T> {
         T results(ResultSet rs) throws Exception;
@@ -293,59 +562,71 @@ public final class SQLProvider implements EconomyStorageImplementation {
         }
     }
 
-    private enum SchemaReaders {
-        CREATE_TABLE((impl, in) -> in.startsWith("CREATE TABLE"), (impl, in) -> !impl.tableExists(getTable(in))),
-        ALTER_TABLE((impl, in) -> in.startsWith("ALTER TABLE"), (impl, in) -> impl.tableExists(getTable(in))),
-        ANY((impl, input) -> true, (impl, input) -> true);
+    /**
+     * Reads accounts in pages ordered by owner, with each page starting after the last owner of the
+     * page prior. Pages are located through the primary key rather than by skipping rows, so later
+     * pages are no more expensive to read than the first, and no connection is held between pages.
+     */
+    private final class PagedCursor implements AccountCursor {
 
-        private final SchemaPredicate initial;
-        private final SchemaPredicate last;
+        private final Currency currency;
+        private final Deque<Account> page = new ArrayDeque<>();
 
-        SchemaReaders(SchemaPredicate initial, SchemaPredicate last) {
-            this.initial = initial;
-            this.last = last;
-        }
+        @Nullable
+        private byte[] last;
+        private boolean exhausted;
 
-        public static boolean any(SQLProvider impl, String in) {
-            return Arrays.stream(values()).map(sr -> {
-                try {
-                    return sr.initial.test(impl, in);
-                } catch (Exception e) {
-                    ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
-                    return false;
-                }
-            }).filter(x -> x).findAny().orElse(false);
+        private PagedCursor(Currency currency) {
+            this.currency = currency;
         }
 
-        public static void first(SQLProvider impl, String in, Statement statement) throws Exception {
-            for(SchemaReaders reader : SchemaReaders.values()) {
-                if(reader != ANY) {
-                    if (reader.initial.test(impl, in) && reader.last.test(impl, in)) {
-                        statement.addBatch(in);
-                        return;
-                    }
-                } else {
-                    for(SchemaReaders r : Arrays.stream(SchemaReaders.values()).filter(sr -> sr != ANY).toList()) {
-                        if(r.initial.test(impl, in)) {
-                            return;
-                        }
-                    }
+        @Override
+        public boolean hasNext() throws Exception {
+            if(this.page.isEmpty() && !this.exhausted) {
+                this.fetch();
+            }
 
-                    statement.addBatch(in);
-                }
+            return !this.page.isEmpty();
+        }
+
+        @Override
+        public Account next() throws Exception {
+            if(!this.hasNext()) {
+                throw new NoSuchElementException();
             }
+
+            return this.page.poll();
         }
 
-        private static String getTable(String in) {
-            int start = in.indexOf('`');
-            return in.substring(start + 1, in.indexOf('`', start + 1));
+        @Override
+        public void close() {
+            this.page.clear();
+            this.exhausted = true;
         }
 
-    }
+        private void fetch() throws Exception {
+            int read = SQLProvider.this.query(this.last == null ? FIRST_ACCOUNTS_PAGE : NEXT_ACCOUNTS_PAGE, (connection, ps) -> {
+                int index = 1;
+                ps.setString(index++, this.currency.key().asString());
+                if(this.last != null) {
+                    ps.setBytes(index++, this.last);
+                }
+                ps.setInt(index, PAGE_SIZE);
+
+                return SQLProvider.this.results(ps, results -> {
+                    int count = 0;
+                    while(results.next()) {
+                        this.page.add(SQLProvider.this.read(results, this.currency));
+                        this.last = results.getBytes("uuid");
+                        count++;
+                    }
 
-    private interface SchemaPredicate {
+                    return count;
+                });
+            });
 
-        boolean test(SQLProvider impl, String input) throws Exception;
+            this.exhausted = read < PAGE_SIZE;
+        }
 
     }
 
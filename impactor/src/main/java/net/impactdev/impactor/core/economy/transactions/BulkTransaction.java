@@ -0,0 +1,53 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.transactions;
+
+import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The outcome of a bulk transaction, holding the individual transaction applied to each account
+ * of the operation.
+ *
+ * @param type The type of transaction applied to each account
+ * @param amount The amount of the transaction
+ * @param transactions The transaction applied to each account, in the order the accounts were supplied
+ */
+public record BulkTransaction(EconomyTransactionType type, BigDecimal amount, List<EconomyTransaction> transactions) {
+
+    public List<EconomyTransaction> successful() {
+        return this.transactions.stream().filter(transaction -> transaction.result() == EconomyResultType.SUCCESS).toList();
+    }
+
+    public long count(EconomyResultType result) {
+        return this.transactions.stream().filter(transaction -> transaction.result() == result).count();
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.transactions;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.configuration.Config;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+import net.impactdev.impactor.core.economy.EconomyConfig;
+import net.impactdev.impactor.core.economy.ImpactorEconomyService;
+import net.impactdev.impactor.core.economy.accounts.Money;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+
+/**
+ * The balance restrictions configured for the economy, resolved once such that they may be applied
+ * to any number of accounts without looking up the configuration for each. Bounds are additionally
+ * held in minor units for every scale a currency may be held at, such that balances held as
+ * {@link Money fixed-point} values may be tested without any conversion.
+ */
+public final class TransactionRestrictions {
+
+    public static final TransactionRestrictions NONE = new TransactionRestrictions(false, null, null);
+
+    /** A bound well beyond any balance an account may hold, used where no restriction applies */
+    public static final BigDecimal UNBOUNDED = new BigDecimal("1E29");
+
+    private final boolean enabled;
+    private final @Nullable BigDecimal minimum;
+    private final @Nullable BigDecimal maximum;
+
+    private final long[] floors = new long[Money.MAXIMUM_SCALE + 1];
+    private final long[] ceilings = new long[Money.MAXIMUM_SCALE + 1];
+
+    /**
+     * @param enabled Whether restrictions should be applied
+     * @param minimum The minimum balance an account may hold, if any
+     * @param maximum The maximum balance an account may hold, if any
+     */
+    public TransactionRestrictions(boolean enabled, @Nullable BigDecimal minimum, @Nullable BigDecimal maximum) {
+        this.enabled = enabled;
+        this.minimum = minimum;
+        this.maximum = maximum;
+
+        for(int scale = 0; scale <= Money.MAXIMUM_SCALE; scale++) {
+            this.floors[scale] = Money.saturated(this.floor(), scale);
+            this.ceilings[scale] = this.enabled && this.maximum != null ? Money.saturated(this.maximum, scale) : Long.MAX_VALUE;
+        }
+    }
+
+    public static TransactionRestrictions of(Config config) {
+        return new TransactionRestrictions(
+                config.get(EconomyConfig.APPLY_RESTRICTIONS),
+                config.get(EconomyConfig.MIN_BALANCE),
+                config.get(EconomyConfig.MAX_BALANCE)
+        );
+    }
+
+    /**
+     * Resolves the restrictions of the active economy service. Services other than Impactor's
+     * own impose no restrictions.
+     */
+    public static TransactionRestrictions resolve() {
+        EconomyService service = Impactor.instance().services().provide(EconomyService.class);
+        if(service instanceof ImpactorEconomyService) {
+            return ((ImpactorEconomyService) service).restrictions();
+        }
+
+        return NONE;
+    }
+
+    public boolean enabled() {
+        return this.enabled;
+    }
+
+    public @Nullable BigDecimal minimum() {
+        return this.minimum;
+    }
+
+    public @Nullable BigDecimal maximum() {
+        return this.maximum;
+    }
+
+    /**
+     * Provides the lowest balance a withdrawal may leave an account with. Balances may never fall
+     * below zero, regardless of whether restrictions are enabled.
+     *
+     * @return The lowest permitted balance following a withdrawal
+     */
+    public BigDecimal floor() {
+        if(this.enabled && this.minimum != null) {
+            return this.minimum.max(BigDecimal.ZERO);
+        }
+
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Provides the highest balance a deposit may leave an account with.
+     *
+     * @return The highest permitted balance following a deposit
+     */
+    public BigDecimal ceiling() {
+        if(this.enabled && this.maximum != null) {
+            return this.maximum;
+        }
+
+        return UNBOUNDED;
+    }
+
+    /**
+     * Provides the lowest balance a withdrawal may leave an account with, in minor units.
+     *
+     * @param scale The scale of the minor units
+     * @return The lowest permitted balance following a withdrawal
+     */
+    public long floor(int scale) {
+        return this.floors[scale];
+    }
+
+    /**
+     * Provides the highest balance a deposit may leave an account with, in minor units.
+     *
+     * @param scale The scale of the minor units
+     * @return The highest permitted balance following a deposit
+     */
+    public long ceiling(int scale) {
+        return this.ceilings[scale];
+    }
+
+    /**
+     * Tests whether a transaction of the given type may leave an account with the given balance,
+     * held in minor units.
+     *
+     * @param type The type of transaction
+     * @param result The balance of the account should the transaction be applied
+     * @param scale The scale of the balance
+     * @return {@link EconomyResultType#SUCCESS} if the transaction may be applied, otherwise the
+     * result describing why it may not
+     */
+    public EconomyResultType test(EconomyTransactionType type, long result, int scale) {
+        return switch (type) {
+            case WITHDRAW -> result < this.floors[scale] ? EconomyResultType.NOT_ENOUGH_FUNDS : EconomyResultType.SUCCESS;
+            case DEPOSIT -> result > this.ceilings[scale] ? EconomyResultType.NO_REMAINING_SPACE : EconomyResultType.SUCCESS;
+            case SET -> result < 0 || result > this.ceilings[scale] ? EconomyResultType.INVALID : EconomyResultType.SUCCESS;
+            case RESET -> EconomyResultType.SUCCESS;
+            default -> EconomyResultType.INVALID;
+        };
+    }
+
+}
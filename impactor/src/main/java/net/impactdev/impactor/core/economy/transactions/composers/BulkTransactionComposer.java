@@ -0,0 +1,144 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.economy.transactions.composers;
+
+import com.google.common.base.Preconditions;
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import net.impactdev.impactor.core.economy.accounts.ImpactorAccount;
+import net.impactdev.impactor.core.economy.events.ImpactorBulkTransactionEvent;
+import net.impactdev.impactor.core.economy.transactions.BulkTransaction;
+import net.impactdev.impactor.core.economy.transactions.ImpactorEconomyTransaction;
+import net.impactdev.impactor.core.economy.transactions.TransactionRestrictions;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.impactdev.impactor.core.utility.events.EventPublisher;
+import net.kyori.event.PostResult;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Composes a single transaction to be applied to many accounts at once. Compared to processing a
+ * transaction for each account individually, restrictions are resolved once, a single pre and post
+ * event is fired for the entire operation, and every modified account is persisted within a single
+ * storage batch.
+ */
+public final class BulkTransactionComposer {
+
+    private final List<Account> accounts = new ArrayList<>();
+    private BigDecimal amount = BigDecimal.ZERO;
+    private EconomyTransactionType type;
+
+    public BulkTransactionComposer account(@NotNull Account account) {
+        this.accounts.add(account);
+        return this;
+    }
+
+    public BulkTransactionComposer accounts(@NotNull Collection<? extends Account> accounts) {
+        this.accounts.addAll(accounts);
+        return this;
+    }
+
+    public BulkTransactionComposer amount(@NotNull BigDecimal amount) {
+        this.amount = amount;
+        return this;
+    }
+
+    public BulkTransactionComposer type(@NotNull EconomyTransactionType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Applies the composed transaction to every account.
+     *
+     * @return The outcome of the transaction for each account
+     */
+    public BulkTransaction build() {
+        Preconditions.checkNotNull(this.type, "Transaction type must be specified");
+        Preconditions.checkArgument(this.type != EconomyTransactionType.TRANSFER, "Transfers are not supported in bulk");
+        Preconditions.checkArgument(
+                this.accounts.stream().allMatch(account -> account instanceof ImpactorAccount),
+                "Bulk transactions only support accounts provided by the Impactor economy service"
+        );
+
+        List<Account> accounts = Collections.unmodifiableList(new ArrayList<>(this.accounts));
+        if(EventPublisher.subscribed(ImpactorBulkTransactionEvent.Pre.class)) {
+            try {
+                ImpactorBulkTransactionEvent.Pre pre = new ImpactorBulkTransactionEvent.Pre(this.type, this.amount, accounts);
+                Impactor.instance().events().post(pre).raise();
+                if(pre.cancelled()) {
+                    return this.conclude(accounts, EconomyResultType.CANCELLED);
+                }
+            } catch (PostResult.CompositeException e) {
+                ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+                return this.conclude(accounts, EconomyResultType.FAILED);
+            }
+        }
+
+        List<EconomyTransaction> transactions = ImpactorAccount.applyAll(
+                accounts.stream().map(account -> (ImpactorAccount) account).toList(),
+                this.type,
+                this.amount,
+                TransactionRestrictions.resolve()
+        );
+
+        BulkTransaction result = new BulkTransaction(this.type, this.amount, Collections.unmodifiableList(transactions));
+        if(EventPublisher.subscribed(ImpactorBulkTransactionEvent.Post.class)) {
+            try {
+                Impactor.instance().events().post(new ImpactorBulkTransactionEvent.Post(result)).raise();
+            } catch (PostResult.CompositeException e) {
+                ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+            }
+        }
+
+        return result;
+    }
+
+    private BulkTransaction conclude(List<Account> accounts, EconomyResultType result) {
+        List<EconomyTransaction> transactions = accounts.stream()
+                .map(account -> (EconomyTransaction) ImpactorEconomyTransaction.builder()
+                        .account(account)
+                        .currency(account.currency())
+                        .amount(this.amount)
+                        .type(this.type)
+                        .result(result)
+                        .build()
+                )
+                .toList();
+
+        return new BulkTransaction(this.type, this.amount, transactions);
+    }
+
+}
@@ -32,19 +32,23 @@ import net.impactdev.impactor.api.mail.MailService;
 import net.impactdev.impactor.api.mail.events.SendMailEvent;
 import net.impactdev.impactor.api.mail.filters.MailFilter;
 import net.impactdev.impactor.api.storage.StorageType;
+import net.impactdev.impactor.core.mail.storage.MailBroadcast;
 import net.impactdev.impactor.core.mail.storage.MailStorage;
 import net.impactdev.impactor.core.mail.storage.MailStorageFactory;
 import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.impactdev.impactor.core.utility.events.EventPublisher;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.util.TriState;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public final class ImpactorMailService implements MailService {
 
@@ -60,7 +64,7 @@ public final class ImpactorMailService implements MailService {
 
         this.storage = MailStorageFactory.instance(
                 BaseImpactorPlugin.instance(),
-                this.config.get(MailConfig.STORAGE_TYPE),
+                this.config,
                 StorageType.JSON
         );
     }
@@ -70,6 +74,51 @@ public final class ImpactorMailService implements MailService {
         return this.storage.mail(target).orTimeout(5, TimeUnit.SECONDS);
     }
 
+    /**
+     * Fetches a single page of the inbox of the given target, ordered from the oldest message to the
+     * newest. The content of each message is only deserialized once accessed, where supported by
+     * the underlying storage.
+     *
+     * @param target The owner of the inbox
+     * @param offset The zero-based position of the first message to include
+     * @param limit The maximum number of messages to include
+     * @return A future supplying the messages within the requested page
+     */
+    public CompletableFuture<List<MailMessage>> inbox(@NotNull UUID target, int offset, int limit) {
+        return this.storage.mail(target, offset, limit);
+    }
+
+    /**
+     * Counts the messages held within the inbox of the given target.
+     *
+     * @param target The owner of the inbox
+     * @return A future supplying the number of messages within the inbox
+     */
+    public CompletableFuture<Integer> count(@NotNull UUID target) {
+        return this.storage.count(target);
+    }
+
+    /**
+     * Counts the messages within the inbox of the given target which arrived since the inbox was
+     * last marked as read via {@link #markRead(UUID)}.
+     *
+     * @param target The owner of the inbox
+     * @return A future supplying the number of unread messages within the inbox
+     */
+    public CompletableFuture<Integer> unreadCount(@NotNull UUID target) {
+        return this.storage.unread(target);
+    }
+
+    /**
+     * Marks every message currently within the inbox of the given target as read.
+     *
+     * @param target The owner of the inbox
+     * @return A future completing once the inbox has been marked
+     */
+    public CompletableFuture<Void> markRead(@NotNull UUID target) {
+        return this.storage.read(target, Instant.now());
+    }
+
     @Override
     public CompletableFuture<Boolean> sendFromServer(@NotNull UUID target, @NotNull Component message) {
         return this.send(target, new ImpactorMailMessage(UUID.randomUUID(), null, message, Instant.now()));
@@ -88,6 +137,56 @@ public final class ImpactorMailService implements MailService {
         return this.storage.send(target, message);
     }
 
+    /**
+     * Sends a message from the server to each of the given targets.
+     *
+     * @param targets The owners of the inboxes to deliver the message to
+     * @param message The content of the message
+     * @param progress Receives the progress of the broadcast as it is delivered, if desired
+     * @return A future supplying the number of inboxes the message was delivered to
+     * @see #broadcast(Collection, MailMessage, Consumer)
+     */
+    public CompletableFuture<Integer> broadcastFromServer(
+            @NotNull Collection<UUID> targets,
+            @NotNull Component message,
+            @Nullable Consumer<MailBroadcast.Progress> progress
+    ) {
+        return this.broadcast(targets, new ImpactorMailMessage(UUID.randomUUID(), null, message, Instant.now()), progress);
+    }
+
+    /**
+     * Delivers a single message to each of the given targets. The content of the message is stored a
+     * single time, and each inbox receives only a reference to it. Inboxes are written to in batches,
+     * with only a limited number of batches queued for the storage executor at once.
+     *
+     * <p>A {@link SendMailEvent} is posted for each target only where something is subscribed to
+     * receive it.</p>
+     *
+     * @param targets The owners of the inboxes to deliver the message to
+     * @param message The message to deliver
+     * @param progress Receives the progress of the broadcast as it is delivered, if desired
+     * @return A future supplying the number of inboxes the message was delivered to
+     */
+    public CompletableFuture<Integer> broadcast(
+            @NotNull Collection<UUID> targets,
+            @NotNull MailMessage message,
+            @Nullable Consumer<MailBroadcast.Progress> progress
+    ) {
+        if(EventPublisher.subscribed(SendMailEvent.class)) {
+            for(UUID target : targets) {
+                Impactor.instance().events().post(new SendMailEvent(target, message));
+            }
+        }
+
+        return this.storage.broadcast(
+                targets,
+                message,
+                this.config.get(MailConfig.BROADCAST_BATCH_SIZE),
+                this.config.get(MailConfig.BROADCAST_PARALLELISM),
+                progress
+        );
+    }
+
     @Override
     public CompletableFuture<TriState> delete(@NotNull UUID target, @NotNull MailMessage message) {
         return this.storage.delete(target, message);
@@ -102,4 +201,8 @@ public final class ImpactorMailService implements MailService {
     public String name() {
         return "Impactor Mail Service";
     }
+
+    public MailStorage storage() {
+        return this.storage;
+    }
 }
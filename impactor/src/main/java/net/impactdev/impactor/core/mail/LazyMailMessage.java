@@ -0,0 +1,82 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.mail;
+
+import com.google.common.base.Suppliers;
+import net.impactdev.impactor.api.mail.MailMessage;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * A mail message whose content is only deserialized once first requested, such that listing an
+ * inbox does not pay for the content of messages which are never displayed. The content is
+ * deserialized at most once.
+ */
+public final class LazyMailMessage implements MailMessage {
+
+    private final UUID uuid;
+    private final @Nullable UUID sender;
+    private final Instant timestamp;
+    private final Supplier<Component> content;
+
+    public LazyMailMessage(@NotNull UUID uuid, @Nullable UUID sender, @NotNull Instant timestamp, @NotNull Supplier<Component> content) {
+        this.uuid = uuid;
+        this.sender = sender;
+        this.timestamp = timestamp;
+        this.content = Suppliers.memoize(content::get);
+    }
+
+    @Override
+    public @NotNull UUID uuid() {
+        return this.uuid;
+    }
+
+    public @Nullable UUID sender() {
+        return this.sender;
+    }
+
+    @Override
+    public Optional<UUID> source() {
+        return Optional.ofNullable(this.sender);
+    }
+
+    @Override
+    public @NotNull Component content() {
+        return this.content.get();
+    }
+
+    @Override
+    public @NotNull Instant timestamp() {
+        return this.timestamp;
+    }
+
+}
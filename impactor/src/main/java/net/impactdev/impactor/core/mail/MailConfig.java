@@ -25,15 +25,42 @@
 
 package net.impactdev.impactor.core.mail;
 
+import com.google.common.collect.ImmutableMap;
 import net.impactdev.impactor.api.configuration.key.ConfigKey;
+import net.impactdev.impactor.api.storage.StorageCredentials;
 import net.impactdev.impactor.api.storage.StorageType;
 
+import java.util.Map;
+
+import static net.impactdev.impactor.api.configuration.key.ConfigKeyFactory.booleanKey;
+import static net.impactdev.impactor.api.configuration.key.ConfigKeyFactory.intKey;
 import static net.impactdev.impactor.api.configuration.key.ConfigKeyFactory.key;
+import static net.impactdev.impactor.api.configuration.key.ConfigKeyFactory.notReloadable;
+import static net.impactdev.impactor.api.configuration.key.ConfigKeyFactory.stringKey;
 
 public final class MailConfig {
 
     public static final ConfigKey<StorageType> STORAGE_TYPE = key(adapter ->
             StorageType.parse(adapter.getString("storage-method", "json"))
     );
+    public static final ConfigKey<StorageCredentials> STORAGE_CREDENTIALS = notReloadable(key(adapter -> {
+        String address = adapter.getString("data.address", "localhost");
+        String database = adapter.getString("data.database", "minecraft");
+        String username = adapter.getString("data.username", "root");
+        String password = adapter.getString("data.password", "");
+
+        int maxPoolSize = adapter.getInteger("data.pool-settings.maximum-pool-size", 10);
+        int minIdle = adapter.getInteger("data.pool-settings.minimum-idle", maxPoolSize);
+        int maxLifetime = adapter.getInteger("data.pool-settings.maximum-lifetime", 1800000);
+        int connectionTimeout = adapter.getInteger("data.pool-settings.connection-timeout", 5000);
+        int keepAliveTime = adapter.getInteger("data.pool-settings.keep-alive", 0);
+        Map<String, String> props = ImmutableMap.copyOf(adapter.getStringMap("data.pool-settings.properties", ImmutableMap.of()));
+        return new StorageCredentials(address, database, username, password, maxPoolSize, minIdle, maxLifetime, keepAliveTime, connectionTimeout, props);
+    }));
+    public static final ConfigKey<String> SQL_TABLE_PREFIX = notReloadable(stringKey("table-prefix", "impactor_"));
+    public static final ConfigKey<Boolean> SEGMENTED_INBOXES = notReloadable(booleanKey("segmented-inboxes.enabled", false));
+    public static final ConfigKey<Integer> SEGMENT_COMPACTION = notReloadable(intKey("segmented-inboxes.compaction-threshold", 64));
+    public static final ConfigKey<Integer> BROADCAST_BATCH_SIZE = intKey("broadcast.batch-size", 500);
+    public static final ConfigKey<Integer> BROADCAST_PARALLELISM = intKey("broadcast.parallelism", 2);
 
 }
@@ -0,0 +1,197 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.mail.filters;
+
+import com.google.common.collect.ImmutableSet;
+import net.impactdev.impactor.api.mail.MailMessage;
+import net.impactdev.impactor.api.mail.filters.MailFilter;
+import net.impactdev.impactor.api.utility.builders.Builder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A mail filter built from a fixed set of criteria, being the sender of a message, the time it was
+ * sent and its id. Each criterion set must be met for a message to match. As the criteria only
+ * concern the header of a message, storage may evaluate them against its own index of an inbox,
+ * rather than reading each message in full as is necessary for any other filter.
+ */
+public final class StructuredMailFilter implements MailFilter {
+
+    private final boolean filtersSender;
+    private final @Nullable UUID sender;
+    private final @Nullable Instant before;
+    private final @Nullable Instant after;
+    private final @Nullable Set<UUID> ids;
+
+    private StructuredMailFilter(FilterBuilder builder) {
+        this.filtersSender = builder.filtersSender;
+        this.sender = builder.sender;
+        this.before = builder.before;
+        this.after = builder.after;
+        this.ids = builder.ids;
+    }
+
+    public static FilterBuilder builder() {
+        return new FilterBuilder();
+    }
+
+    /**
+     * Provides the structured form of the given filter, where it has one.
+     *
+     * @param filter The filter to inspect
+     * @return The given filter, if it is structured
+     */
+    public static Optional<StructuredMailFilter> of(@Nullable MailFilter filter) {
+        if(filter instanceof StructuredMailFilter) {
+            return Optional.of((StructuredMailFilter) filter);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @return Whether messages are filtered by their sender
+     */
+    public boolean filtersSender() {
+        return this.filtersSender;
+    }
+
+    /**
+     * @return The sender messages must be sent by, where empty indicates the server, should
+     * messages be filtered by sender
+     */
+    public Optional<UUID> sender() {
+        return Optional.ofNullable(this.sender);
+    }
+
+    /**
+     * @return The time messages must be sent before, exclusive
+     */
+    public Optional<Instant> before() {
+        return Optional.ofNullable(this.before);
+    }
+
+    /**
+     * @return The time messages must be sent after, exclusive
+     */
+    public Optional<Instant> after() {
+        return Optional.ofNullable(this.after);
+    }
+
+    /**
+     * @return The ids of which messages must hold one
+     */
+    public Optional<Set<UUID>> ids() {
+        return Optional.ofNullable(this.ids);
+    }
+
+    /**
+     * @return Whether messages are filtered by their id alone, such that no other detail of a
+     * message need be read to evaluate the filter
+     */
+    public boolean idsOnly() {
+        return this.ids != null && !this.filtersSender && this.before == null && this.after == null;
+    }
+
+    @Override
+    public boolean test(MailMessage message) {
+        return this.matches(message.uuid(), message.source().orElse(null), message.timestamp());
+    }
+
+    /**
+     * Evaluates the filter against the header of a message alone.
+     *
+     * @param id The id of the message
+     * @param sender The sender of the message, or null if sent by the server
+     * @param timestamp The time the message was sent
+     * @return True if the message matches the filter, false otherwise
+     */
+    public boolean matches(UUID id, @Nullable UUID sender, Instant timestamp) {
+        if(this.filtersSender && !Objects.equals(this.sender, sender)) {
+            return false;
+        }
+
+        if(this.before != null && !timestamp.isBefore(this.before)) {
+            return false;
+        }
+
+        if(this.after != null && !timestamp.isAfter(this.after)) {
+            return false;
+        }
+
+        return this.ids == null || this.ids.contains(id);
+    }
+
+    public static final class FilterBuilder implements Builder<StructuredMailFilter> {
+
+        private boolean filtersSender;
+        private @Nullable UUID sender;
+        private @Nullable Instant before;
+        private @Nullable Instant after;
+        private @Nullable Set<UUID> ids;
+
+        public FilterBuilder sender(@NotNull UUID sender) {
+            this.filtersSender = true;
+            this.sender = sender;
+            return this;
+        }
+
+        public FilterBuilder server() {
+            this.filtersSender = true;
+            this.sender = null;
+            return this;
+        }
+
+        public FilterBuilder before(@NotNull Instant before) {
+            this.before = before;
+            return this;
+        }
+
+        public FilterBuilder after(@NotNull Instant after) {
+            this.after = after;
+            return this;
+        }
+
+        public FilterBuilder ids(@NotNull Collection<UUID> ids) {
+            this.ids = ImmutableSet.copyOf(ids);
+            return this;
+        }
+
+        @Override
+        public StructuredMailFilter build() {
+            return new StructuredMailFilter(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.mail.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.Striped;
+import net.impactdev.impactor.api.mail.MailMessage;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+/**
+ * Holds the content of messages delivered to many inboxes at once, such that the content is written
+ * a single time and each inbox need only reference it by the id of the message.
+ *
+ * <p>Alongside each body, the number of inboxes referencing it is recorded. Each inbox deleting the
+ * message releases its reference, and the body is removed once no references remain. Inboxes release
+ * their reference only after the message has been deleted from the inbox, such that a failure between
+ * the two can only ever leave a body behind, and never remove a body still referenced.</p>
+ */
+public final class MailBodyStore {
+
+    private final Path root;
+    private final Cache<UUID, String> bodies = Caffeine.newBuilder()
+            .maximumSize(64)
+            .build();
+    private final Striped<Lock> locks = Striped.lock(64);
+
+    public MailBodyStore(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Writes the content of the given message, should it not already be held, and records the given
+     * number of additional inboxes as referencing it.
+     *
+     * @param message The message to store the content of
+     * @param references The number of inboxes the message is being delivered to
+     * @throws IOException If the content fails to be written
+     */
+    public void store(MailMessage message, int references) throws IOException {
+        UUID id = message.uuid();
+        Lock lock = this.locks.get(id);
+        lock.lock();
+        try {
+            Path file = this.file(id);
+            if(!Files.exists(file)) {
+                String content = GsonComponentSerializer.gson().serialize(message.content());
+                Files.createDirectories(file.getParent());
+                this.write(file, content);
+                this.bodies.put(id, content);
+            }
+
+            this.write(this.references(id), Integer.toString(this.count(id) + references));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the reference of a single inbox to the body of each of the given messages, removing
+     * any body no longer referenced by any inbox.
+     *
+     * @param ids The ids of the messages deleted from an inbox
+     * @throws IOException If a body fails to be released
+     */
+    public void release(Collection<UUID> ids) throws IOException {
+        for(UUID id : ids) {
+            Lock lock = this.locks.get(id);
+            lock.lock();
+            try {
+                Path count = this.references(id);
+                int remaining = this.count(id) - 1;
+                if(remaining > 0) {
+                    this.write(count, Integer.toString(remaining));
+                } else {
+                    Files.deleteIfExists(this.file(id));
+                    Files.deleteIfExists(count);
+                    this.bodies.invalidate(id);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Provides the content of the given message, which is only read and deserialized once the
+     * supplier is first invoked.
+     *
+     * @param id The id of the message
+     * @return A supplier of the content of the message
+     */
+    public Supplier<Component> content(UUID id) {
+        return () -> GsonComponentSerializer.gson().deserialize(this.bodies.get(id, key -> {
+            try {
+                return Files.readString(this.file(key), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    private Path file(UUID id) {
+        String key = id.toString();
+        return this.root.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private Path references(UUID id) {
+        String key = id.toString();
+        return this.root.resolve(key.substring(0, 2)).resolve(key + ".refs");
+    }
+
+    /**
+     * Reads the number of inboxes referencing the body of the given message. Expects the lock of the
+     * message to be held.
+     */
+    private int count(UUID id) throws IOException {
+        Path count = this.references(id);
+        if(!Files.exists(count)) {
+            return 0;
+        }
+
+        return Integer.parseInt(Files.readString(count, StandardCharsets.UTF_8).trim());
+    }
+
+    private void write(Path file, String content) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.mail.storage;
+
+import com.google.common.collect.Iterables;
+import net.impactdev.impactor.api.mail.MailMessage;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Delivers a single message to a large set of inboxes, in batches. Rather than submitting every
+ * batch to the executor at once, only a fixed number of batches are ever in flight, and each
+ * batch to complete submits the next. This leaves the executor free to serve other work over the
+ * course of a broadcast, however large.
+ */
+public final class MailBroadcast {
+
+    private final MailStorageImplementation implementation;
+    private final MailMessage message;
+    private final Executor executor;
+    private final @Nullable Consumer<Progress> listener;
+
+    private final Iterator<List<UUID>> batches;
+    private final int total;
+    private final AtomicInteger delivered = new AtomicInteger();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger lanes;
+    private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+    MailBroadcast(
+            MailStorageImplementation implementation,
+            Collection<UUID> targets,
+            MailMessage message,
+            Executor executor,
+            int batch,
+            int parallelism,
+            @Nullable Consumer<Progress> listener
+    ) {
+        List<UUID> recipients = new ArrayList<>(new LinkedHashSet<>(targets));
+
+        this.implementation = implementation;
+        this.message = message;
+        this.executor = executor;
+        this.listener = listener;
+        this.batches = Iterables.partition(recipients, Math.max(1, batch)).iterator();
+        this.total = recipients.size();
+        this.lanes = new AtomicInteger(Math.max(1, parallelism));
+    }
+
+    /**
+     * Begins delivering the message.
+     *
+     * @return A future supplying the number of inboxes the message was delivered to
+     */
+    CompletableFuture<Integer> start() {
+        int lanes = this.lanes.get();
+        for(int i = 0; i < lanes; i++) {
+            this.next();
+        }
+
+        return this.result;
+    }
+
+    private void next() {
+        List<UUID> batch = this.poll();
+        if(batch == null || this.result.isDone()) {
+            if(this.lanes.decrementAndGet() == 0) {
+                this.result.complete(this.delivered.get());
+            }
+            return;
+        }
+
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.implementation.appendAll(batch, this.message);
+            } catch (Exception e) {
+                ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+                throw new CompletionException(e);
+            }
+        }, this.executor).whenComplete((delivered, error) -> {
+            if(error != null) {
+                this.result.completeExceptionally(error);
+            } else {
+                Progress progress = new Progress(
+                        this.delivered.addAndGet(delivered),
+                        this.processed.addAndGet(batch.size()),
+                        this.total
+                );
+
+                if(this.listener != null) {
+                    try {
+                        this.listener.accept(progress);
+                    } catch (Exception e) {
+                        ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+                    }
+                }
+            }
+
+            this.next();
+        });
+    }
+
+    private synchronized @Nullable List<UUID> poll() {
+        return this.batches.hasNext() ? this.batches.next() : null;
+    }
+
+    /**
+     * Reports the state of a broadcast, following the completion of each batch.
+     *
+     * @param delivered The number of inboxes the message has been delivered to so far
+     * @param processed The number of inboxes which have been attempted so far
+     * @param total The number of inboxes the message is to be delivered to
+     */
+    public record Progress(int delivered, int processed, int total) {
+
+        /**
+         * @return The fraction of inboxes which have been attempted so far, between 0 and 1
+         */
+        public double completion() {
+            return this.total == 0 ? 1 : (double) this.processed / this.total;
+        }
+
+    }
+
+}
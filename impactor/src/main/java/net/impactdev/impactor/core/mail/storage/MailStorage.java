@@ -35,12 +35,16 @@ import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
 import net.impactdev.impactor.core.utility.future.ThrowingRunnable;
 import net.impactdev.impactor.core.utility.future.ThrowingSupplier;
 import net.kyori.adventure.util.TriState;
+import org.jetbrains.annotations.Nullable;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public final class MailStorage implements Storage {
 
@@ -69,10 +73,55 @@ public final class MailStorage implements Storage {
         return supply(() -> this.implementation.mail(target)).orTimeout(5, TimeUnit.SECONDS);
     }
 
+    public CompletableFuture<List<MailMessage>> mail(UUID target, int offset, int limit) {
+        return supply(() -> this.implementation.mail(target, offset, limit));
+    }
+
+    public CompletableFuture<Integer> count(UUID target) {
+        return supply(() -> this.implementation.count(target));
+    }
+
+    public CompletableFuture<Integer> unread(UUID target) {
+        return supply(() -> this.implementation.unread(target));
+    }
+
+    public CompletableFuture<Void> read(UUID target, Instant time) {
+        return run(() -> this.implementation.read(target, time));
+    }
+
     public CompletableFuture<Boolean> send(UUID target, MailMessage message) {
         return supply(() -> this.implementation.append(target, message));
     }
 
+    /**
+     * Delivers the given message to each of the given inboxes, in batches of the given size, with no
+     * more than the given number of batches submitted to the async executor at once.
+     *
+     * @param targets The owners of the inboxes to deliver the message to
+     * @param message The message to deliver
+     * @param batch The number of inboxes to deliver to within each batch
+     * @param parallelism The number of batches which may be in flight at once
+     * @param listener Receives the progress of the broadcast, following each batch
+     * @return A future supplying the number of inboxes the message was delivered to
+     */
+    public CompletableFuture<Integer> broadcast(
+            Collection<UUID> targets,
+            MailMessage message,
+            int batch,
+            int parallelism,
+            @Nullable Consumer<MailBroadcast.Progress> listener
+    ) {
+        return new MailBroadcast(
+                this.implementation,
+                targets,
+                message,
+                Impactor.instance().scheduler().async(),
+                batch,
+                parallelism,
+                listener
+        ).start();
+    }
+
     public CompletableFuture<TriState> delete(UUID target, MailMessage message) {
         return supply(() -> this.implementation.delete(target, message));
     }
@@ -25,26 +25,41 @@
 
 package net.impactdev.impactor.core.mail.storage;
 
+import net.impactdev.impactor.api.configuration.Config;
 import net.impactdev.impactor.api.plugin.ImpactorPlugin;
 import net.impactdev.impactor.api.storage.StorageType;
 import net.impactdev.impactor.api.storage.connection.configurate.loaders.HoconLoader;
 import net.impactdev.impactor.api.storage.connection.configurate.loaders.JsonLoader;
 import net.impactdev.impactor.api.storage.connection.configurate.loaders.YamlLoader;
+import net.impactdev.impactor.core.mail.MailConfig;
 import net.impactdev.impactor.core.mail.storage.implementations.MailConfigurateProvider;
+import net.impactdev.impactor.core.mail.storage.implementations.MailSQLProvider;
+import net.impactdev.impactor.core.mail.storage.implementations.MailSegmentProvider;
+import net.impactdev.impactor.core.storage.sql.H2ConnectionImpl;
+import net.impactdev.impactor.core.storage.sql.MariaDbConnectionImpl;
+import net.impactdev.impactor.core.storage.sql.MySQLConnectionImpl;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
+import java.nio.file.Paths;
 import java.util.Optional;
 
 public final class MailStorageFactory {
 
-    public static MailStorage instance(ImpactorPlugin plugin, @Nullable StorageType type, @NotNull StorageType fallback) {
-        StorageType use = Optional.ofNullable(type).orElse(fallback);
+    public static MailStorage instance(ImpactorPlugin plugin, @NotNull Config config, @NotNull StorageType fallback) {
+        StorageType use = Optional.ofNullable(config.get(MailConfig.STORAGE_TYPE)).orElse(fallback);
         plugin.logger().info("Loading storage provider... [" + use.getName() + "]");
-        return new MailStorage(createNewImplementation(use));
+        return new MailStorage(createNewImplementation(use, config));
     }
 
-    private static MailStorageImplementation createNewImplementation(StorageType type) {
+    private static MailStorageImplementation createNewImplementation(StorageType type, Config config) {
+        boolean flatfile = type == StorageType.JSON || type == StorageType.YAML || type == StorageType.HOCON;
+        if(flatfile && config.get(MailConfig.SEGMENTED_INBOXES)) {
+            return new MailSegmentProvider(
+                    Paths.get("config").resolve("impactor").resolve("mail").resolve("inboxes"),
+                    Math.max(1, config.get(MailConfig.SEGMENT_COMPACTION)) * 1024L
+            );
+        }
+
         switch (type) {
             case JSON -> {
                 return new MailConfigurateProvider(new JsonLoader());
@@ -55,6 +70,27 @@ public final class MailStorageFactory {
             case HOCON -> {
                 return new MailConfigurateProvider(new HoconLoader());
             }
+            case MYSQL -> {
+                return new MailSQLProvider(
+                        new MySQLConnectionImpl(config.get(MailConfig.STORAGE_CREDENTIALS)),
+                        config.get(MailConfig.SQL_TABLE_PREFIX)
+                );
+            }
+            case MARIADB -> {
+                return new MailSQLProvider(
+                        new MariaDbConnectionImpl(config.get(MailConfig.STORAGE_CREDENTIALS)),
+                        config.get(MailConfig.SQL_TABLE_PREFIX)
+                );
+            }
+            case H2 -> {
+                return new MailSQLProvider(
+                        new H2ConnectionImpl(
+                                config.get(MailConfig.STORAGE_CREDENTIALS),
+                                Paths.get("config").resolve("impactor").resolve("mail").resolve("mail")
+                        ),
+                        config.get(MailConfig.SQL_TABLE_PREFIX)
+                );
+            }
         }
 
         throw new IllegalArgumentException("Unsupported storage type: " + type);
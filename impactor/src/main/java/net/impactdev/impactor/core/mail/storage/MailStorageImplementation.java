@@ -30,15 +30,107 @@ import net.impactdev.impactor.api.mail.filters.MailFilter;
 import net.impactdev.impactor.api.storage.connection.StorageConnection;
 import net.kyori.adventure.util.TriState;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface MailStorageImplementation extends StorageConnection {
 
     List<MailMessage> mail(UUID target) throws Exception;
 
+    /**
+     * Fetches a single page of the inbox of the given target, ordered from the oldest message to
+     * the newest. Implementations should avoid reading messages outside the requested page where
+     * possible.
+     *
+     * @param target The owner of the inbox
+     * @param offset The zero-based position of the first message to include
+     * @param limit The maximum number of messages to include
+     * @return The messages within the requested page
+     * @throws Exception If the inbox fails to be read
+     */
+    default List<MailMessage> mail(UUID target, int offset, int limit) throws Exception {
+        return this.mail(target).stream()
+                .sorted(Comparator.comparing(MailMessage::timestamp))
+                .skip(Math.max(0, offset))
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+
+    /**
+     * Counts the messages held within the inbox of the given target.
+     *
+     * @param target The owner of the inbox
+     * @return The number of messages within the inbox
+     * @throws Exception If the inbox fails to be read
+     */
+    default int count(UUID target) throws Exception {
+        return this.mail(target).size();
+    }
+
+    /**
+     * Counts the messages within the inbox of the given target which arrived after the inbox was
+     * last marked as read.
+     *
+     * @param target The owner of the inbox
+     * @return The number of unread messages within the inbox
+     * @throws Exception If the inbox fails to be read
+     */
+    default int unread(UUID target) throws Exception {
+        Optional<Instant> read = this.read(target);
+        if(read.isEmpty()) {
+            return this.count(target);
+        }
+
+        return (int) this.mail(target).stream()
+                .filter(message -> message.timestamp().isAfter(read.get()))
+                .count();
+    }
+
+    /**
+     * Provides the time the inbox of the given target was last marked as read, if ever.
+     *
+     * @param target The owner of the inbox
+     * @return The time the inbox was last marked as read
+     * @throws Exception If the inbox fails to be read
+     */
+    Optional<Instant> read(UUID target) throws Exception;
+
+    /**
+     * Marks every message within the inbox of the given target which arrived at or before the given
+     * time as read.
+     *
+     * @param target The owner of the inbox
+     * @param time The time to consider messages read up until
+     * @throws Exception If the inbox fails to be written
+     */
+    void read(UUID target, Instant time) throws Exception;
+
     boolean append(UUID target, MailMessage message) throws Exception;
 
+    /**
+     * Delivers a single message to the inbox of each of the given targets. Implementations should
+     * write the message to each inbox in batches where possible, rather than individually.
+     *
+     * @param targets The owners of the inboxes to deliver the message to
+     * @param message The message to deliver
+     * @return The number of inboxes the message was delivered to
+     * @throws Exception If the message fails to be written
+     */
+    default int appendAll(Collection<UUID> targets, MailMessage message) throws Exception {
+        int delivered = 0;
+        for(UUID target : targets) {
+            if(this.append(target, message)) {
+                delivered++;
+            }
+        }
+
+        return delivered;
+    }
+
     TriState delete(UUID target, MailMessage message) throws Exception;
 
     TriState deleteWhere(UUID target, MailFilter filter) throws Exception;
@@ -34,7 +34,9 @@ import net.impactdev.impactor.api.mail.filters.MailFilter;
 import net.impactdev.impactor.api.storage.connection.configurate.ConfigurateLoader;
 import net.impactdev.impactor.api.utility.ExceptionPrinter;
 import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
-import net.impactdev.impactor.core.mail.ImpactorMailMessage;
+import net.impactdev.impactor.core.mail.LazyMailMessage;
+import net.impactdev.impactor.core.mail.filters.StructuredMailFilter;
+import net.impactdev.impactor.core.mail.storage.MailBodyStore;
 import net.impactdev.impactor.core.mail.storage.MailStorageImplementation;
 import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
 import net.kyori.adventure.text.Component;
@@ -52,23 +54,27 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 public final class MailConfigurateProvider implements MailStorageImplementation {
 
     private final ConfigurateLoader loader;
     private final Path root;
+    private final MailBodyStore bodies;
     private final LoadingCache<Path, ReentrantLock> ioLocks;
 
     public MailConfigurateProvider(@NotNull final ConfigurateLoader loader) {
         this.loader = loader;
         this.root = Paths.get("config").resolve("impactor").resolve("mail").resolve("users");
+        this.bodies = new MailBodyStore(Paths.get("config").resolve("impactor").resolve("mail").resolve("broadcasts"));
         this.ioLocks = Caffeine.newBuilder()
                 .expireAfterAccess(10, TimeUnit.MINUTES)
                 .build(key -> new ReentrantLock());
@@ -119,15 +125,59 @@ public final class MailConfigurateProvider implements MailStorageImplementation
     }
 
     @Override
-    public boolean append(UUID target, MailMessage message) throws Exception {
-        String uuid = message.uuid().toString();
-        Path branch = this.target(target).resolve(uuid.substring(0, 2));
-        Files.createDirectories(branch);
+    public Optional<Instant> read(UUID target) throws Exception {
+        Path path = this.target(target).resolve("read.json");
+        if(!Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(path));
+        lock.lock();
+        try {
+            return Optional.ofNullable(this.loader.loader(path).load().node("read").get(Instant.class));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void read(UUID target, Instant time) throws Exception {
+        Path path = this.target(target).resolve("read.json");
+        ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(path));
+        lock.lock();
+        try {
+            ConfigurationLoader<?> loader = this.loader.loader(path);
+            ConfigurationNode node = loader.createNode();
+            node.node("read").set(Instant.class, time);
+            loader.save(node);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        this.writeMessage(branch.resolve(uuid + ".json"), message);
+    @Override
+    public boolean append(UUID target, MailMessage message) throws Exception {
+        this.writeMessage(this.leaf(target, message), message, false);
         return true;
     }
 
+    /**
+     * Writes the content of the message a single time, and delivers to each inbox a file referring
+     * to that content in place of a copy of it.
+     */
+    @Override
+    public int appendAll(Collection<UUID> targets, MailMessage message) throws Exception {
+        this.bodies.store(message, targets.size());
+
+        int delivered = 0;
+        for(UUID target : targets) {
+            this.writeMessage(this.leaf(target, message), message, true);
+            delivered++;
+        }
+
+        return delivered;
+    }
+
     @Override
     public TriState delete(UUID target, MailMessage message) throws Exception {
         String uuid = message.uuid().toString();
@@ -138,7 +188,11 @@ public final class MailConfigurateProvider implements MailStorageImplementation
 
         Path leaf = root.toPath().resolve(uuid.substring(0, 2)).resolve(uuid + ".json");
         if(Files.exists(leaf)) {
-            this.writeMessage(leaf, null);
+            boolean shared = this.shared(leaf);
+            this.writeMessage(leaf, null, false);
+            if(shared) {
+                this.bodies.release(List.of(message.uuid()));
+            }
             return TriState.TRUE;
         }
 
@@ -149,12 +203,26 @@ public final class MailConfigurateProvider implements MailStorageImplementation
     public TriState deleteWhere(@NotNull UUID target, @Nullable MailFilter filter) throws Exception {
         Path root = this.target(target);
         if(filter == null && Files.exists(root)) {
+            List<UUID> shared = Lists.newArrayList();
+            for(Path path : this.messages(root)) {
+                if(this.shared(path)) {
+                    shared.add(id(path));
+                }
+            }
+
             FileUtils.deleteDirectory(root.toFile());
+            this.bodies.release(shared);
             return TriState.TRUE;
         } else if(filter == null) {
             return TriState.NOT_SET;
         }
 
+        Optional<StructuredMailFilter> structured = StructuredMailFilter.of(filter);
+        if(structured.isPresent()) {
+            this.purge(root, structured.get());
+            return TriState.TRUE;
+        }
+
         boolean failed = false;
         Stream<MailMessage> mail = this.mail(target).stream().filter(filter);
         for(MailMessage message : mail.toList()) {
@@ -171,6 +239,81 @@ public final class MailConfigurateProvider implements MailStorageImplementation
         return TriState.byBoolean(!failed);
     }
 
+    /**
+     * Deletes each message of the inbox matching the given filter, by the path of each message. A
+     * filter of ids alone is evaluated against the path of each message without reading it, while
+     * any other filter is evaluated without deserializing the content of any message.
+     */
+    private void purge(Path inbox, StructuredMailFilter filter) throws IOException {
+        List<Path> candidates = Lists.newArrayList();
+        if(filter.ids().isPresent()) {
+            for(UUID id : filter.ids().get()) {
+                String uuid = id.toString();
+                candidates.add(inbox.resolve(uuid.substring(0, 2)).resolve(uuid + ".json"));
+            }
+        } else {
+            candidates.addAll(this.messages(inbox));
+        }
+
+        List<UUID> shared = Lists.newArrayList();
+        for(Path path : candidates) {
+            if(!Files.exists(path)) {
+                continue;
+            }
+
+            if(filter.idsOnly() || this.readMessage(path).filter(filter).isPresent()) {
+                boolean body = this.shared(path);
+                this.writeMessage(path, null, false);
+                if(body) {
+                    shared.add(id(path));
+                }
+            }
+        }
+
+        this.bodies.release(shared);
+    }
+
+    /**
+     * Lists the path of every message held within the given inbox.
+     */
+    private List<Path> messages(Path inbox) {
+        List<Path> messages = Lists.newArrayList();
+        File[] files = inbox.toFile().listFiles();
+        if(files == null) {
+            return messages;
+        }
+
+        for(File file : files) {
+            if(file.isDirectory()) {
+                for(File child : Objects.requireNonNull(file.listFiles())) {
+                    messages.add(child.toPath());
+                }
+            }
+        }
+
+        return messages;
+    }
+
+    /**
+     * Whether the message at the given path refers to a shared body in place of holding its content.
+     */
+    private boolean shared(Path path) {
+        ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(path));
+        lock.lock();
+        try {
+            return Files.exists(path) && this.loader.loader(path).load().node("shared").getBoolean();
+        } catch (Exception e) {
+            ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static UUID id(Path path) {
+        return UUID.fromString(path.getFileName().toString().replace(".json", ""));
+    }
+
     private Optional<MailMessage> readMessage(Path path) {
         if(path.toFile().exists()) {
             ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(path));
@@ -181,10 +324,16 @@ public final class MailConfigurateProvider implements MailStorageImplementation
                 UUID source = node.node("source").get(UUID.class);
                 Instant instant = node.node("timestamp").get(Instant.class);
 
-                JsonElement json = Objects.requireNonNull(node.node("message").get(JsonElement.class));
-                Component message = GsonComponentSerializer.gson().deserializeFromTree(json);
+                // Only the content is deferred, as it alone requires deserializing a component
+                Supplier<Component> content;
+                if(node.node("shared").getBoolean()) {
+                    content = this.bodies.content(uuid);
+                } else {
+                    JsonElement json = Objects.requireNonNull(node.node("message").get(JsonElement.class));
+                    content = () -> GsonComponentSerializer.gson().deserializeFromTree(json);
+                }
 
-                return Optional.of(new ImpactorMailMessage(uuid, source, message, instant));
+                return Optional.of(new LazyMailMessage(uuid, source, instant, content));
             } catch (Exception e) {
                 ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
                 return Optional.empty();
@@ -196,22 +345,29 @@ public final class MailConfigurateProvider implements MailStorageImplementation
         return Optional.empty();
     }
 
-    private void writeMessage(Path target, @Nullable MailMessage message) {
+    /**
+     * Writes the given message to the target path, or deletes the path should no message be given.
+     * A shared message is written without its content, which is instead held by the body store.
+     */
+    private void writeMessage(Path target, @Nullable MailMessage message, boolean shared) {
         ReentrantLock lock = Objects.requireNonNull(this.ioLocks.get(target));
         lock.lock();
         try {
             if(message == null) {
                 Files.deleteIfExists(target);
             } else {
-                JsonElement json = GsonComponentSerializer.gson().serializeToTree(message.content());
-
                 ConfigurationLoader<?> loader = this.loader.loader(target);
                 ConfigurationNode node = loader.createNode();
                 if(message.source().isPresent()) {
                     node.node("source").set(UUID.class, message.source().get());
                 }
                 node.node("timestamp").set(Instant.class, message.timestamp());
-                node.node("message").set(JsonElement.class, json);
+                if(shared) {
+                    node.node("shared").set(true);
+                } else {
+                    JsonElement json = GsonComponentSerializer.gson().serializeToTree(message.content());
+                    node.node("message").set(JsonElement.class, json);
+                }
 
                 loader.save(node);
             }
@@ -223,6 +379,14 @@ public final class MailConfigurateProvider implements MailStorageImplementation
         }
     }
 
+    private Path leaf(UUID target, MailMessage message) throws Exception {
+        String uuid = message.uuid().toString();
+        Path branch = this.target(target).resolve(uuid.substring(0, 2));
+        Files.createDirectories(branch);
+
+        return branch.resolve(uuid + ".json");
+    }
+
     private Path target(UUID target) throws Exception {
         String id = target.toString();
         Path path = this.root.resolve(id.substring(0, 2)).resolve(id);
@@ -0,0 +1,519 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.mail.storage.implementations;
+
+import com.google.common.collect.Iterables;
+import net.impactdev.impactor.api.mail.MailMessage;
+import net.impactdev.impactor.api.mail.filters.MailFilter;
+import net.impactdev.impactor.api.storage.connection.sql.SQLConnection;
+import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
+import net.impactdev.impactor.core.mail.LazyMailMessage;
+import net.impactdev.impactor.core.mail.filters.StructuredMailFilter;
+import net.impactdev.impactor.core.mail.storage.MailStorageImplementation;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.impactdev.impactor.core.storage.sql.SchemaLoader;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import net.kyori.adventure.util.TriState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Stores mail within a SQL database, such that servers sharing the database share inboxes. Messages
+ * are indexed by their target and the time they were sent, so a single page of an inbox is read
+ * without reading the remainder of the inbox.
+ *
+ * <p>A message delivered to many inboxes at once has its content written a single time, to a
+ * separate table of shared bodies, and each inbox holds a row without content which refers to it.
+ * A shared body is removed once the last inbox referring to it deletes the message.</p>
+ */
+public final class MailSQLProvider implements MailStorageImplementation {
+
+    public static final String MAIL = "SELECT m.id, m.sender, m.sent_at, m.sent_nanos, COALESCE(m.content, b.content) AS content FROM '{prefix}mail' m LEFT JOIN '{prefix}mail_body' b ON m.content IS NULL AND b.id = m.id WHERE m.target = ? ORDER BY m.sent_at, m.sent_nanos";
+    public static final String MAIL_PAGE = "SELECT m.id, m.sender, m.sent_at, m.sent_nanos, COALESCE(m.content, b.content) AS content FROM '{prefix}mail' m LEFT JOIN '{prefix}mail_body' b ON m.content IS NULL AND b.id = m.id WHERE m.target = ? ORDER BY m.sent_at, m.sent_nanos LIMIT ? OFFSET ?";
+    public static final String COUNT_MAIL = "SELECT COUNT(*) FROM '{prefix}mail' WHERE target = ?";
+    public static final String COUNT_UNREAD = "SELECT COUNT(*) FROM '{prefix}mail' m LEFT JOIN '{prefix}mail_read' r ON r.target = m.target WHERE m.target = ? AND (r.target IS NULL OR m.sent_at > r.read_at OR (m.sent_at = r.read_at AND m.sent_nanos > r.read_nanos))";
+    public static final String INSERT_MAIL = "INSERT INTO '{prefix}mail' (target, id, sender, sent_at, sent_nanos, content) VALUES(?, ?, ?, ?, ?, ?)";
+    public static final String DELETE_MAIL = "DELETE FROM '{prefix}mail' WHERE target = ? AND id = ?";
+    public static final String DELETE_INBOX = "DELETE FROM '{prefix}mail' WHERE target = ?";
+    public static final String INSERT_BODY = "INSERT INTO '{prefix}mail_body' (id, content) VALUES(?, ?) ON DUPLICATE KEY UPDATE content = VALUES(content)";
+    public static final String PRUNE_BODY = "DELETE FROM '{prefix}mail_body' WHERE id = ? AND NOT EXISTS (SELECT 1 FROM '{prefix}mail' WHERE id = ?)";
+    public static final String SHARED_MAIL = "SELECT id FROM '{prefix}mail' WHERE target = ? AND content IS NULL";
+    public static final String READ = "SELECT read_at, read_nanos FROM '{prefix}mail_read' WHERE target = ?";
+    public static final String MARK_READ = "INSERT INTO '{prefix}mail_read' (target, read_at, read_nanos) VALUES(?, ?, ?) ON DUPLICATE KEY UPDATE read_at = VALUES(read_at), read_nanos = VALUES(read_nanos)";
+
+    /** The maximum number of rows sent per batch */
+    private static final int BATCH_SIZE = 500;
+
+    private final BaseImpactorPlugin plugin;
+    private final SQLConnection factory;
+    private final Function<String, String> processor;
+    private final SchemaLoader schema;
+
+    public MailSQLProvider(SQLConnection connection, String prefix) {
+        this.plugin = BaseImpactorPlugin.instance();
+        this.factory = connection;
+        this.processor = connection.statementProcessor().compose(s -> s.replace("{prefix}", prefix));
+        this.schema = new SchemaLoader(connection, this.processor);
+    }
+
+    @Override
+    public String name() {
+        return this.factory.name();
+    }
+
+    @Override
+    public void init() throws Exception {
+        this.factory.init();
+        try(InputStream schema = this.plugin.resource(root -> root.resolve("schema").resolve("mail").resolve(this.factory.name().toLowerCase() + ".sql"))) {
+            this.schema.load(schema);
+        }
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        this.factory.shutdown();
+    }
+
+    @Override
+    public void meta(PrettyPrinter printer) throws Exception {
+        this.factory.meta(printer);
+    }
+
+    @Override
+    public List<MailMessage> mail(UUID target) throws Exception {
+        return this.query(MAIL, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(target));
+            return this.results(ps, this::messages);
+        });
+    }
+
+    @Override
+    public List<MailMessage> mail(UUID target, int offset, int limit) throws Exception {
+        if(limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        return this.query(MAIL_PAGE, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(target));
+            ps.setInt(2, limit);
+            ps.setInt(3, Math.max(0, offset));
+            return this.results(ps, this::messages);
+        });
+    }
+
+    @Override
+    public int count(UUID target) throws Exception {
+        return this.count(COUNT_MAIL, target);
+    }
+
+    @Override
+    public int unread(UUID target) throws Exception {
+        return this.count(COUNT_UNREAD, target);
+    }
+
+    @Override
+    public Optional<Instant> read(UUID target) throws Exception {
+        return this.query(READ, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(target));
+            return this.results(ps, results -> {
+                if(!results.next()) {
+                    return Optional.empty();
+                }
+
+                return Optional.of(instant(results.getLong("read_at"), results.getInt("read_nanos")));
+            });
+        });
+    }
+
+    @Override
+    public void read(UUID target, Instant time) throws Exception {
+        this.query(MARK_READ, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(target));
+            ps.setLong(2, time.toEpochMilli());
+            ps.setInt(3, time.getNano());
+            ps.executeUpdate();
+            return null;
+        });
+    }
+
+    @Override
+    public boolean append(UUID target, MailMessage message) throws Exception {
+        return this.query(INSERT_MAIL, (connection, ps) -> {
+            this.bind(ps, target, message, GsonComponentSerializer.gson().serialize(message.content()));
+            return ps.executeUpdate() > 0;
+        });
+    }
+
+    @Override
+    public int appendAll(Collection<UUID> targets, MailMessage message) throws Exception {
+        if(targets.isEmpty()) {
+            return 0;
+        }
+
+        String content = GsonComponentSerializer.gson().serialize(message.content());
+        return this.query(INSERT_MAIL, (connection, ps) -> {
+            boolean commit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try(PreparedStatement body = connection.prepareStatement(this.processor.apply(INSERT_BODY))) {
+                    body.setBytes(1, this.uuidToBytes(message.uuid()));
+                    body.setString(2, content);
+                    body.executeUpdate();
+                }
+
+                int delivered = 0;
+                for(List<UUID> partition : Iterables.partition(targets, BATCH_SIZE)) {
+                    for(UUID target : partition) {
+                        this.bind(ps, target, message, null);
+                        ps.addBatch();
+                    }
+
+                    for(int result : ps.executeBatch()) {
+                        if(result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                            delivered++;
+                        }
+                    }
+                }
+
+                connection.commit();
+                return delivered;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(commit);
+            }
+        });
+    }
+
+    @Override
+    public TriState delete(UUID target, MailMessage message) throws Exception {
+        boolean deleted = this.query(DELETE_MAIL, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(target));
+            ps.setBytes(2, this.uuidToBytes(message.uuid()));
+            return ps.executeUpdate() > 0;
+        });
+
+        if(deleted) {
+            this.query(PRUNE_BODY, (connection, ps) -> {
+                ps.setBytes(1, this.uuidToBytes(message.uuid()));
+                ps.setBytes(2, this.uuidToBytes(message.uuid()));
+                return ps.executeUpdate();
+            });
+        }
+
+        return TriState.byBoolean(deleted);
+    }
+
+    @Override
+    public TriState deleteWhere(@NotNull UUID target, @Nullable MailFilter filter) throws Exception {
+        if(filter == null) {
+            List<UUID> shared = this.shared(target, "", ps -> 1);
+            TriState result = this.query(DELETE_INBOX, (connection, ps) -> {
+                ps.setBytes(1, this.uuidToBytes(target));
+                return ps.executeUpdate() > 0 ? TriState.TRUE : TriState.NOT_SET;
+            });
+
+            this.prune(shared);
+            return result;
+        }
+
+        Optional<StructuredMailFilter> structured = StructuredMailFilter.of(filter);
+        if(structured.isPresent()) {
+            this.purge(target, structured.get());
+            return TriState.TRUE;
+        }
+
+        // Content is only deserialized should the filter inspect it
+        List<UUID> matches = this.mail(target).stream()
+                .filter(filter)
+                .map(MailMessage::uuid)
+                .toList();
+
+        this.delete(target, matches);
+        this.prune(matches);
+        return TriState.TRUE;
+    }
+
+    /**
+     * Deletes each message of the inbox of the target matching the given filter, by evaluating the
+     * filter within the database itself. A filter of ids is applied in batches of ids. Any shared
+     * body referred to by a deleted message is pruned once no other inbox refers to it.
+     *
+     * @return The number of messages which were deleted
+     */
+    private int purge(UUID target, StructuredMailFilter filter) throws Exception {
+        StringBuilder conditions = new StringBuilder();
+        if(filter.filtersSender()) {
+            conditions.append(filter.sender().isPresent() ? " AND sender = ?" : " AND sender IS NULL");
+        }
+        if(filter.before().isPresent()) {
+            conditions.append(" AND (sent_at < ? OR (sent_at = ? AND sent_nanos < ?))");
+        }
+        if(filter.after().isPresent()) {
+            conditions.append(" AND (sent_at > ? OR (sent_at = ? AND sent_nanos > ?))");
+        }
+
+        if(filter.ids().isEmpty()) {
+            return this.purge(target, filter, conditions.toString(), List.of());
+        }
+
+        int deleted = 0;
+        for(List<UUID> partition : Iterables.partition(filter.ids().get(), BATCH_SIZE)) {
+            String ids = " AND id IN (" + String.join(", ", Collections.nCopies(partition.size(), "?")) + ")";
+            deleted += this.purge(target, filter, conditions + ids, partition);
+        }
+
+        return deleted;
+    }
+
+    private int purge(UUID target, StructuredMailFilter filter, String conditions, List<UUID> ids) throws Exception {
+        List<UUID> shared = this.shared(target, conditions, ps -> this.bind(ps, filter, ids));
+        int deleted = this.query(DELETE_INBOX + conditions, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(target));
+            this.bind(ps, filter, ids);
+            return ps.executeUpdate();
+        });
+
+        this.prune(shared);
+        return deleted;
+    }
+
+    /**
+     * Binds the conditions of the given filter to a statement, following the target of the inbox.
+     *
+     * @return The index of the next parameter
+     */
+    private int bind(PreparedStatement ps, StructuredMailFilter filter, List<UUID> ids) throws SQLException {
+        int index = 2;
+        if(filter.filtersSender() && filter.sender().isPresent()) {
+            ps.setBytes(index++, this.uuidToBytes(filter.sender().get()));
+        }
+        for(Optional<Instant> bound : List.of(filter.before(), filter.after())) {
+            if(bound.isPresent()) {
+                ps.setLong(index++, bound.get().toEpochMilli());
+                ps.setLong(index++, bound.get().toEpochMilli());
+                ps.setInt(index++, bound.get().getNano());
+            }
+        }
+        for(UUID id : ids) {
+            ps.setBytes(index++, this.uuidToBytes(id));
+        }
+
+        return index;
+    }
+
+    /**
+     * Fetches the ids of each message of the inbox of the target which refers to a shared body,
+     * amongst those matching the given conditions.
+     */
+    private List<UUID> shared(UUID target, String conditions, ConditionBinder binder) throws Exception {
+        return this.query(SHARED_MAIL + conditions, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(target));
+            binder.bind(ps);
+            return this.results(ps, results -> {
+                List<UUID> ids = new ArrayList<>();
+                while(results.next()) {
+                    ids.add(this.bytesToUUID(results.getBytes("id")));
+                }
+
+                return ids;
+            });
+        });
+    }
+
+    /**
+     * Removes the shared body of each of the given messages, provided no inbox still refers to it.
+     */
+    private void prune(List<UUID> messages) throws Exception {
+        if(messages.isEmpty()) {
+            return;
+        }
+
+        this.query(PRUNE_BODY, (connection, ps) -> {
+            for(List<UUID> partition : Iterables.partition(messages, BATCH_SIZE)) {
+                for(UUID id : partition) {
+                    ps.setBytes(1, this.uuidToBytes(id));
+                    ps.setBytes(2, this.uuidToBytes(id));
+                    ps.addBatch();
+                }
+
+                ps.executeBatch();
+            }
+
+            return null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface ConditionBinder {
+
+        int bind(PreparedStatement ps) throws SQLException;
+
+    }
+
+    /**
+     * Deletes each of the given messages from the inbox of the target, in batches.
+     */
+    private void delete(UUID target, List<UUID> messages) throws Exception {
+        if(messages.isEmpty()) {
+            return;
+        }
+
+        this.query(DELETE_MAIL, (connection, ps) -> {
+            boolean commit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for(List<UUID> partition : Iterables.partition(messages, BATCH_SIZE)) {
+                    for(UUID id : partition) {
+                        ps.setBytes(1, this.uuidToBytes(target));
+                        ps.setBytes(2, this.uuidToBytes(id));
+                        ps.addBatch();
+                    }
+
+                    ps.executeBatch();
+                }
+
+                connection.commit();
+                return null;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(commit);
+            }
+        });
+    }
+
+    private int count(String statement, UUID target) throws Exception {
+        return this.query(statement, (connection, ps) -> {
+            ps.setBytes(1, this.uuidToBytes(target));
+            return this.results(ps, results -> results.next() ? results.getInt(1) : 0);
+        });
+    }
+
+    /**
+     * Binds the given message to an insert of mail. A message without content is expected to have
+     * its content held as a shared body.
+     */
+    private void bind(PreparedStatement ps, UUID target, MailMessage message, @Nullable String content) throws SQLException {
+        ps.setBytes(1, this.uuidToBytes(target));
+        ps.setBytes(2, this.uuidToBytes(message.uuid()));
+        if(message.source().isPresent()) {
+            ps.setBytes(3, this.uuidToBytes(message.source().get()));
+        } else {
+            ps.setNull(3, Types.BINARY);
+        }
+        ps.setLong(4, message.timestamp().toEpochMilli());
+        ps.setInt(5, message.timestamp().getNano());
+        if(content != null) {
+            ps.setString(6, content);
+        } else {
+            ps.setNull(6, Types.VARCHAR);
+        }
+    }
+
+    private List<MailMessage> messages(ResultSet results) throws SQLException {
+        List<MailMessage> messages = new ArrayList<>();
+        while(results.next()) {
+            byte[] sender = results.getBytes("sender");
+            String content = results.getString("content");
+            messages.add(new LazyMailMessage(
+                    this.bytesToUUID(results.getBytes("id")),
+                    sender != null ? this.bytesToUUID(sender) : null,
+                    instant(results.getLong("sent_at"), results.getInt("sent_nanos")),
+                    () -> GsonComponentSerializer.gson().deserialize(content)
+            ));
+        }
+
+        return messages;
+    }
+
+    /**
+     * Restores an instant from its epoch milliseconds and nanosecond of second, as stored.
+     */
+    private static Instant instant(long millis, int nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(millis, 1000), nanos);
+    }
+
+    private byte[] uuidToBytes(UUID uuid) {
+        byte[] bytes = new byte[16];
+        ByteBuffer.wrap(bytes)
+                .order(ByteOrder.BIG_ENDIAN)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits());
+
+        return bytes;
+    }
+
+    private UUID bytesToUUID(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    @FunctionalInterface
+    private interface Query<T> {
+        T prepare(Connection connection, PreparedStatement ps) throws Exception;
+    }
+
+    private <T> T query(String key, Query<T> action) throws Exception {
+        try(Connection connection = this.factory.connection()) {
+            try(PreparedStatement ps = connection.prepareStatement(this.processor.apply(key))) {
+                return action.prepare(connection, ps);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Results<T> {
+        T results(ResultSet rs) throws Exception;
+    }
+
+    private <T> T results(PreparedStatement ps, Results<T> action) throws Exception {
+        try(ResultSet rs = ps.executeQuery()) {
+            return action.results(rs);
+        }
+    }
+
+}
@@ -0,0 +1,697 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.mail.storage.implementations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Striped;
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.mail.MailMessage;
+import net.impactdev.impactor.api.mail.filters.MailFilter;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
+import net.impactdev.impactor.core.mail.LazyMailMessage;
+import net.impactdev.impactor.core.mail.filters.StructuredMailFilter;
+import net.impactdev.impactor.core.mail.storage.MailBodyStore;
+import net.impactdev.impactor.core.mail.storage.MailStorageImplementation;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import net.kyori.adventure.util.TriState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.CRC32;
+
+/**
+ * Stores each inbox within a single append-only segment file, rather than a file per message. Every
+ * message is appended as a length-prefixed, checksummed record, which leads with a small header of
+ * the message id, sender and timestamp ahead of the serialized content of the message. Deleting a
+ * message appends a tombstone for it, and once tombstoned records make up the majority of a segment,
+ * the segment is compacted in the background down to only the messages still held.
+ *
+ * <p>Headers of a segment are read into an in-memory index the first time an inbox is accessed,
+ * which records the position of each message within the segment. Message content is then only
+ * read for the messages actually requested, and only deserialized once accessed. Any incomplete
+ * record left at the tail of a segment by a crash is discarded when the segment is next indexed.</p>
+ *
+ * <p>A message delivered to many inboxes at once is instead appended to each segment as only its
+ * header, with the content held once by a {@link MailBodyStore} shared by all recipients.</p>
+ */
+public final class MailSegmentProvider implements MailStorageImplementation {
+
+    private static final int MAGIC = 0x494D4253;
+    private static final int VERSION = 1;
+    private static final int HEADER = 8;
+    private static final int PREFIX = 8;
+    /** The upper bound of a single record, such that no record is too large to be read into memory */
+    private static final int MAX_RECORD = 1 << 20;
+
+    private static final byte MESSAGE = 1;
+    private static final byte TOMBSTONE = 2;
+    private static final byte READ = 3;
+    private static final byte SHARED = 4;
+
+    private static final int TOMBSTONE_SIZE = PREFIX + 1 + 16;
+    private static final int READ_SIZE = PREFIX + 1 + 12;
+
+    private final Path root;
+    private final long threshold;
+    private final MailBodyStore bodies;
+
+    /** Locks guarding each segment, striped by inbox owner */
+    private final Striped<Lock> locks = Striped.lock(64);
+    private final Cache<UUID, Segment> segments = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * @param root The directory to store segments within
+     * @param threshold The number of bytes held by deleted messages a segment may reach before
+     *                  it becomes eligible for compaction
+     */
+    public MailSegmentProvider(Path root, long threshold) {
+        this.root = root;
+        this.threshold = threshold;
+        this.bodies = new MailBodyStore(root.resolve("broadcasts"));
+    }
+
+    @Override
+    public String name() {
+        return "Segmented Inboxes";
+    }
+
+    @Override
+    public void init() throws Exception {
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        this.segments.invalidateAll();
+    }
+
+    @Override
+    public void meta(PrettyPrinter printer) throws Exception {
+        printer.add("Indexed Inboxes: %d", (Number) this.segments.estimatedSize());
+    }
+
+    @Override
+    public List<MailMessage> mail(UUID target) throws Exception {
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            Segment segment = this.segment(target);
+            if(segment.entries.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            return this.read(target, segment.entries.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<MailMessage> mail(UUID target, int offset, int limit) throws Exception {
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            Segment segment = this.segment(target);
+            List<Entry> page = segment.entries.values().stream()
+                    .skip(Math.max(0, offset))
+                    .limit(Math.max(0, limit))
+                    .toList();
+
+            if(page.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            return this.read(target, page);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int count(UUID target) throws Exception {
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            return this.segment(target).entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int unread(UUID target) throws Exception {
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            Segment segment = this.segment(target);
+            if(segment.read == null) {
+                return segment.entries.size();
+            }
+
+            return (int) segment.entries.values().stream()
+                    .filter(entry -> entry.timestamp.isAfter(segment.read))
+                    .count();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Instant> read(UUID target) throws Exception {
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            return Optional.ofNullable(this.segment(target).read);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void read(UUID target, Instant time) throws Exception {
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            Segment segment = this.segment(target);
+            this.write(target, segment, record(marker(time)));
+            if(segment.read != null) {
+                segment.dead += READ_SIZE;
+            }
+            segment.read = time;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean append(UUID target, MailMessage message) throws Exception {
+        byte[] content = GsonComponentSerializer.gson().serialize(message.content()).getBytes(StandardCharsets.UTF_8);
+        this.append(target, message, payload(MESSAGE, message, content));
+        return true;
+    }
+
+    /**
+     * Writes the content of the message a single time, and appends to the segment of each inbox only
+     * the header of the message, which refers to that content.
+     */
+    @Override
+    public int appendAll(Collection<UUID> targets, MailMessage message) throws Exception {
+        this.bodies.store(message, targets.size());
+
+        byte[] payload = payload(SHARED, message, new byte[0]);
+        for(UUID target : targets) {
+            this.append(target, message, payload);
+        }
+
+        return targets.size();
+    }
+
+    private void append(UUID target, MailMessage message, byte[] payload) throws IOException {
+        Preconditions.checkArgument(payload.length <= MAX_RECORD, "Message exceeds the maximum size of a mail record (%s > %s bytes)", payload.length, MAX_RECORD);
+
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            Segment segment = this.segment(target);
+            long position = this.write(target, segment, record(payload));
+            segment.entries.put(message.uuid(), new Entry(
+                    message.uuid(),
+                    message.source().orElse(null),
+                    message.timestamp(),
+                    position,
+                    payload.length,
+                    payload[0] == SHARED
+            ));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public TriState delete(UUID target, MailMessage message) throws Exception {
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            Segment segment = this.segment(target);
+            if(segment.size == 0) {
+                return TriState.NOT_SET;
+            }
+
+            return TriState.byBoolean(this.tombstone(target, segment, List.of(message.uuid())) > 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public TriState deleteWhere(@NotNull UUID target, @Nullable MailFilter filter) throws Exception {
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            Segment segment = this.segment(target);
+            if(segment.size == 0) {
+                return TriState.NOT_SET;
+            }
+
+            if(filter == null) {
+                List<UUID> shared = segment.entries.values().stream()
+                        .filter(Entry::shared)
+                        .map(Entry::id)
+                        .toList();
+
+                Files.deleteIfExists(this.file(target));
+                this.segments.invalidate(target);
+                this.bodies.release(shared);
+                return TriState.TRUE;
+            }
+
+            // A structured filter is evaluated against the index alone, without reading the segment
+            Optional<StructuredMailFilter> structured = StructuredMailFilter.of(filter);
+            List<UUID> matches;
+            if(structured.isPresent()) {
+                matches = segment.entries.values().stream()
+                        .filter(entry -> structured.get().matches(entry.id, entry.sender, entry.timestamp))
+                        .map(Entry::id)
+                        .toList();
+            } else {
+                matches = this.read(target, segment.entries.values()).stream()
+                        .filter(filter)
+                        .map(MailMessage::uuid)
+                        .toList();
+            }
+
+            this.tombstone(target, segment, matches);
+            return TriState.TRUE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the segment of the given inbox such that it holds only the messages which have not
+     * been deleted. The new segment is written alongside the existing segment, and replaces it
+     * atomically once complete.
+     *
+     * @param target The owner of the inbox
+     * @throws IOException If the segment fails to be rewritten
+     */
+    public void compact(UUID target) throws IOException {
+        Lock lock = this.locks.get(target);
+        lock.lock();
+        try {
+            Segment segment = this.segment(target);
+            if(segment.dead == 0) {
+                return;
+            }
+
+            Path file = this.file(target);
+            if(segment.entries.isEmpty() && segment.read == null) {
+                Files.deleteIfExists(file);
+                this.segments.invalidate(target);
+                return;
+            }
+
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Map<UUID, Entry> relocated = new LinkedHashMap<>();
+            try(FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+                FileChannel output = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                write(output, ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION).flip(), 0);
+
+                long position = HEADER;
+                for(Entry entry : segment.entries.values()) {
+                    ByteBuffer record = read(source, entry.offset, PREFIX + entry.length);
+                    write(output, record, position);
+                    relocated.put(entry.id, entry.at(position));
+                    position += PREFIX + entry.length;
+                }
+
+                if(segment.read != null) {
+                    write(output, record(marker(segment.read)), position);
+                }
+
+                output.force(true);
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            segment.entries = relocated;
+            segment.size = Files.size(file);
+            segment.dead = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a tombstone for each of the given messages held by the segment, within a single write.
+     * Expects the lock of the inbox to be held.
+     *
+     * @return The number of messages which were deleted
+     */
+    private int tombstone(UUID target, Segment segment, Collection<UUID> ids) throws IOException {
+        List<Entry> removed = new ArrayList<>();
+        for(UUID id : ids) {
+            Entry entry = segment.entries.get(id);
+            if(entry != null) {
+                removed.add(entry);
+            }
+        }
+
+        if(removed.isEmpty()) {
+            return 0;
+        }
+
+        ByteBuffer records = ByteBuffer.allocate(removed.size() * TOMBSTONE_SIZE);
+        for(Entry entry : removed) {
+            ByteBuffer payload = ByteBuffer.allocate(TOMBSTONE_SIZE - PREFIX);
+            payload.put(TOMBSTONE);
+            payload.putLong(entry.id.getMostSignificantBits()).putLong(entry.id.getLeastSignificantBits());
+            records.put(record(payload.array()));
+        }
+
+        this.write(target, segment, records.flip());
+        List<UUID> shared = new ArrayList<>();
+        for(Entry entry : removed) {
+            segment.entries.remove(entry.id);
+            segment.dead += PREFIX + entry.length + TOMBSTONE_SIZE;
+            if(entry.shared) {
+                shared.add(entry.id);
+            }
+        }
+        this.bodies.release(shared);
+
+        if(segment.dead >= this.threshold && segment.dead * 2 >= segment.size) {
+            Impactor.instance().scheduler().async().execute(() -> {
+                try {
+                    this.compact(target);
+                } catch (Exception e) {
+                    ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+                }
+            });
+        }
+
+        return removed.size();
+    }
+
+    /**
+     * Reads the given messages from the segment of the inbox, in order of their position within the
+     * segment. The content of each message is deserialized only once it is first accessed. Expects
+     * the lock of the inbox to be held.
+     */
+    private List<MailMessage> read(UUID target, Collection<Entry> entries) throws IOException {
+        List<MailMessage> messages = new ArrayList<>(entries.size());
+        try(FileChannel channel = FileChannel.open(this.file(target), StandardOpenOption.READ)) {
+            for(Entry entry : entries) {
+                if(entry.shared) {
+                    messages.add(new LazyMailMessage(entry.id, entry.sender, entry.timestamp, this.bodies.content(entry.id)));
+                    continue;
+                }
+
+                ByteBuffer record = read(channel, entry.offset + PREFIX, entry.length);
+                int header = Entry.header(entry.sender);
+                byte[] content = record.array();
+
+                messages.add(new LazyMailMessage(entry.id, entry.sender, entry.timestamp, () -> GsonComponentSerializer.gson().deserialize(
+                        new String(content, header, content.length - header, StandardCharsets.UTF_8)
+                )));
+            }
+        }
+
+        return messages;
+    }
+
+    /**
+     * Appends the given records to the end of the segment, creating the segment if it does not yet
+     * exist. Expects the lock of the inbox to be held.
+     *
+     * @return The position the records were written at
+     */
+    private long write(UUID target, Segment segment, ByteBuffer records) throws IOException {
+        Path file = this.file(target);
+        Files.createDirectories(file.getParent());
+
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if(segment.size < HEADER) {
+                channel.truncate(0);
+                write(channel, ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION).flip(), 0);
+                segment.size = HEADER;
+            }
+
+            long position = segment.size;
+            int length = records.remaining();
+            write(channel, records, position);
+            segment.size += length;
+            return position;
+        }
+    }
+
+    /**
+     * Fetches the index of the given inbox, reading the headers of its segment should the inbox not
+     * currently be indexed. Expects the lock of the inbox to be held.
+     */
+    private Segment segment(UUID target) throws IOException {
+        Segment segment = this.segments.getIfPresent(target);
+        if(segment == null) {
+            segment = this.index(target);
+            this.segments.put(target, segment);
+        }
+
+        return segment;
+    }
+
+    private Segment index(UUID target) throws IOException {
+        Segment segment = new Segment();
+        Path file = this.file(target);
+        if(!Files.exists(file)) {
+            return segment;
+        }
+
+        long size = Files.size(file);
+        long position = HEADER;
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            try {
+                if(input.readInt() != MAGIC || input.readInt() != VERSION) {
+                    throw new IOException("Invalid mail segment: " + file);
+                }
+            } catch (EOFException e) {
+                return segment;
+            }
+
+            CRC32 crc = new CRC32();
+            while(true) {
+                byte[] payload;
+                try {
+                    int length = input.readInt();
+                    int checksum = input.readInt();
+                    if(length <= 0 || length > MAX_RECORD) {
+                        // No such record may ever be written, so the length itself is corrupted
+                        throw new IOException("Corrupted mail segment: " + file + " (invalid record length at " + position + ")");
+                    }
+
+                    long remaining = size - position - PREFIX;
+                    if(length > remaining) {
+                        // The record extends beyond the end of the file, so it is the final record, and
+                        // was only partially written
+                        break;
+                    }
+
+                    payload = new byte[length];
+                    input.readFully(payload);
+
+                    crc.reset();
+                    crc.update(payload);
+                    if((int) crc.getValue() != checksum) {
+                        if(length == remaining) {
+                            // The final record was torn by a crash while being written
+                            break;
+                        }
+
+                        throw new IOException("Corrupted mail segment: " + file + " (checksum mismatch at " + position + ")");
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                byte operation = buffer.get();
+                if(operation == MESSAGE || operation == SHARED) {
+                    UUID id = new UUID(buffer.getLong(), buffer.getLong());
+                    UUID sender = buffer.get() == 1 ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+                    Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+                    segment.entries.put(id, new Entry(id, sender, timestamp, position, payload.length, operation == SHARED));
+                } else if(operation == TOMBSTONE) {
+                    Entry removed = segment.entries.remove(new UUID(buffer.getLong(), buffer.getLong()));
+                    segment.dead += TOMBSTONE_SIZE + (removed != null ? PREFIX + removed.length : 0);
+                } else if(operation == READ) {
+                    if(segment.read != null) {
+                        segment.dead += READ_SIZE;
+                    }
+                    segment.read = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+                }
+
+                position += PREFIX + payload.length;
+            }
+        }
+
+        // Discard any incomplete record left at the tail of the segment, such that new records
+        // are never appended behind it. Records are only ever discarded from the tail, such that a
+        // corrupted record elsewhere never results in the loss of the records following it
+        if(size > position) {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+            }
+        }
+
+        segment.size = position;
+        return segment;
+    }
+
+    private Path file(UUID target) {
+        String id = target.toString();
+        return this.root.resolve(id.substring(0, 2)).resolve(id + ".inbox");
+    }
+
+    /**
+     * Builds the payload of a message record, being the header of the message followed by the given
+     * serialized content.
+     */
+    private static byte[] payload(byte operation, MailMessage message, byte[] content) {
+        UUID sender = message.source().orElse(null);
+
+        ByteBuffer payload = ByteBuffer.allocate(Entry.header(sender) + content.length);
+        payload.put(operation);
+        payload.putLong(message.uuid().getMostSignificantBits()).putLong(message.uuid().getLeastSignificantBits());
+        payload.put((byte) (sender != null ? 1 : 0));
+        if(sender != null) {
+            payload.putLong(sender.getMostSignificantBits()).putLong(sender.getLeastSignificantBits());
+        }
+        payload.putLong(message.timestamp().getEpochSecond()).putInt(message.timestamp().getNano());
+        payload.put(content);
+
+        return payload.array();
+    }
+
+    private static byte[] marker(Instant time) {
+        return ByteBuffer.allocate(READ_SIZE - PREFIX)
+                .put(READ)
+                .putLong(time.getEpochSecond())
+                .putInt(time.getNano())
+                .array();
+    }
+
+    private static ByteBuffer record(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        return ByteBuffer.allocate(PREFIX + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Mail segment ended unexpectedly");
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int start = buffer.position();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position() - start);
+        }
+    }
+
+    /**
+     * The index of a single inbox, being the location of each message still held by its segment in
+     * order of their arrival, alongside the number of bytes within the segment held by records
+     * which have since been superseded.
+     */
+    private static final class Segment {
+
+        private Map<UUID, Entry> entries = new LinkedHashMap<>();
+        private @Nullable Instant read;
+        private long size;
+        private long dead;
+
+    }
+
+    /**
+     * The header of a single message within a segment.
+     *
+     * @param offset The position of the record of the message within the segment
+     * @param length The length of the payload of the record
+     * @param shared Whether the content of the message is held by the body store, rather than the record
+     */
+    private record Entry(UUID id, @Nullable UUID sender, Instant timestamp, long offset, int length, boolean shared) {
+
+        private Entry at(long offset) {
+            return new Entry(this.id, this.sender, this.timestamp, offset, this.length, this.shared);
+        }
+
+        /**
+         * Provides the length of the header leading the payload of a message record, which varies
+         * only by whether the message has a sender.
+         */
+        private static int header(@Nullable UUID sender) {
+            return 1 + 16 + 1 + (sender != null ? 16 : 0) + 8 + 4;
+        }
+    }
+
+}
@@ -26,6 +26,7 @@
 package net.impactdev.impactor.core.plugin;
 
 import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
 import net.impactdev.impactor.api.scheduler.AbstractJavaScheduler;
 import net.impactdev.impactor.api.scheduler.v2.Scheduler;
 import net.impactdev.impactor.api.scheduler.v2.Schedulers;
@@ -34,6 +35,7 @@ import net.impactdev.impactor.core.commands.ImpactorCommandRegistry;
 import net.impactdev.impactor.core.configuration.ConfigModule;
 import net.impactdev.impactor.core.configuration.ImpactorConfig;
 import net.impactdev.impactor.api.logging.PluginLogger;
+import net.impactdev.impactor.api.mail.MailService;
 import net.impactdev.impactor.api.platform.Platform;
 import net.impactdev.impactor.api.platform.plugins.PluginMetadata;
 import net.impactdev.impactor.api.plugin.ImpactorPlugin;
@@ -42,11 +44,13 @@ import net.impactdev.impactor.api.services.permissions.PermissionsService;
 import net.impactdev.impactor.api.utility.ExceptionPrinter;
 import net.impactdev.impactor.core.api.APIRegister;
 import net.impactdev.impactor.core.api.ImpactorService;
+import net.impactdev.impactor.core.mail.ImpactorMailService;
 import net.impactdev.impactor.core.mail.MailModule;
 import net.impactdev.impactor.core.modules.ModuleInitializer;
 import net.impactdev.impactor.core.permissions.LuckPermsPermissionsService;
 import net.impactdev.impactor.core.permissions.NoOpPermissionsService;
 import net.impactdev.impactor.core.economy.EconomyModule;
+import net.impactdev.impactor.core.economy.ImpactorEconomyService;
 import net.impactdev.impactor.core.permissions.PermissionsModule;
 import net.impactdev.impactor.core.scheduler.AsyncScheduler;
 import net.impactdev.impactor.core.scheduler.SchedulerModule;
@@ -157,6 +161,26 @@ public abstract class BaseImpactorPlugin implements ImpactorPlugin, Configurable
 
     @Override
     public void shutdown() {
+        EconomyService economy = Impactor.instance().services().provide(EconomyService.class);
+        if(economy instanceof ImpactorEconomyService) {
+            this.logger().info("Flushing pending economy data...");
+            try {
+                ((ImpactorEconomyService) economy).storage().shutdown();
+            } catch (Exception e) {
+                ExceptionPrinter.print(this.logger(), e);
+            }
+        }
+
+        MailService mail = Impactor.instance().services().provide(MailService.class);
+        if(mail instanceof ImpactorMailService) {
+            this.logger().info("Closing mail storage...");
+            try {
+                ((ImpactorMailService) mail).storage().shutdown();
+            } catch (Exception e) {
+                ExceptionPrinter.print(this.logger(), e);
+            }
+        }
+
         this.logger().info("Shutting down schedulers...");
         AbstractJavaScheduler scheduler = (AbstractJavaScheduler) Impactor.instance().scheduler();
         scheduler.shutdownExecutor();
@@ -0,0 +1,94 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.storage.sql;
+
+import com.zaxxer.hikari.HikariConfig;
+import net.impactdev.impactor.api.storage.StorageCredentials;
+import net.impactdev.impactor.core.storage.hikari.DriverBasedHikariConnection;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An embedded H2 database, stored as a single file on disk. The database runs in MySQL compatibility
+ * mode, such that the statements and schemas written for MySQL require little to no modification.
+ */
+public final class H2ConnectionImpl extends DriverBasedHikariConnection {
+
+    private final Path file;
+
+    /**
+     * @param credentials The credentials of the connection, of which only the pool settings apply
+     * @param file The path of the database file, without the file extension appended by H2
+     */
+    public H2ConnectionImpl(StorageCredentials credentials, Path file) {
+        super(credentials);
+        this.file = file;
+    }
+
+    @Override
+    public String name() {
+        return "H2";
+    }
+
+    @Override
+    protected String defaultPort() {
+        return "";
+    }
+
+    @Override
+    protected String driverClassName() {
+        return "org.h2.Driver";
+    }
+
+    @Override
+    protected String driverJdbcIdentifier() {
+        return "h2";
+    }
+
+    @Override
+    protected void configure(HikariConfig config, StorageCredentials credentials, StorageConfiguration configuration) {
+        config.setDriverClassName(this.driverClassName());
+        config.setJdbcUrl(String.format(
+                "jdbc:%s:file:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+                this.driverJdbcIdentifier(),
+                this.file.toAbsolutePath()
+        ));
+    }
+
+    @Override
+    protected void overrideProperties(Map<String, Object> properties) {
+        // The configured properties target remote database drivers, and H2 rejects
+        // any connection setting it does not recognize
+        properties.clear();
+    }
+
+    @Override
+    public Function<String, String> statementProcessor() {
+        return s -> s.replace('\'', '`'); // use backticks for quotes
+    }
+}
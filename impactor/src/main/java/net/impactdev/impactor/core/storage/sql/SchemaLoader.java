@@ -0,0 +1,189 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.storage.sql;
+
+import net.impactdev.impactor.api.storage.connection.sql.SQLConnection;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Applies a schema file to a SQL database. Tables are only created where they do not yet exist,
+ * and alterations are only applied to tables which do, such that a schema may be applied each
+ * time the database is connected to.
+ */
+public final class SchemaLoader {
+
+    private final SQLConnection factory;
+    private final Function<String, String> processor;
+
+    /**
+     * @param factory The connection to the database
+     * @param processor Processes each statement of the schema prior to execution, such as to
+     *                  apply a table prefix
+     */
+    public SchemaLoader(SQLConnection factory, Function<String, String> processor) {
+        this.factory = factory;
+        this.processor = processor;
+    }
+
+    /**
+     * Reads the given schema, and applies each of its statements which are not yet reflected by
+     * the database within a single batch.
+     *
+     * @param schema The schema to apply
+     * @throws Exception If the schema fails to be read or applied
+     */
+    public void load(InputStream schema) throws Exception {
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(schema, StandardCharsets.UTF_8))) {
+            try(Connection connection = this.factory.connection()) {
+                try (Statement s = connection.createStatement()) {
+                    StringBuilder sb = new StringBuilder();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.startsWith("--") || line.startsWith("#")) continue;
+
+                        sb.append(line);
+
+                        // check for end of declaration
+                        if (line.endsWith(";")) {
+                            sb.deleteCharAt(sb.length() - 1);
+
+                            String result = this.processor.apply(sb.toString().trim());
+
+                            if (!result.isEmpty()) {
+                                if (result.startsWith("set mode")) {
+                                    s.addBatch(result);
+                                } else {
+                                    if (SchemaReaders.any(this, result)) {
+                                        SchemaReaders.first(this, result, s);
+                                    }
+                                }
+                            }
+
+                            // reset
+                            sb = new StringBuilder();
+                        }
+                    }
+                    s.executeBatch();
+                }
+            }
+        }
+    }
+
+    public boolean columnExists(String table, String column) throws SQLException {
+        try (Connection connection = this.factory.connection()) {
+            try (ResultSet rs = connection.getMetaData().getColumns(null, null, "%", "%")) {
+                while (rs.next()) {
+                    if (rs.getString(3).equalsIgnoreCase(table) && rs.getString(4).equalsIgnoreCase(column)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    public boolean tableExists(String table) throws SQLException {
+        try (Connection connection = this.factory.connection()) {
+            try (ResultSet rs = connection.getMetaData().getTables(null, null, "%", null)) {
+                while (rs.next()) {
+                    if (rs.getString(3).equalsIgnoreCase(table)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    private enum SchemaReaders {
+        CREATE_TABLE((impl, in) -> in.startsWith("CREATE TABLE"), (impl, in) -> !impl.tableExists(getTable(in))),
+        ALTER_TABLE((impl, in) -> in.startsWith("ALTER TABLE"), (impl, in) -> impl.tableExists(getTable(in))),
+        ANY((impl, input) -> true, (impl, input) -> true);
+
+        private final SchemaPredicate initial;
+        private final SchemaPredicate last;
+
+        SchemaReaders(SchemaPredicate initial, SchemaPredicate last) {
+            this.initial = initial;
+            this.last = last;
+        }
+
+        public static boolean any(SchemaLoader impl, String in) {
+            return Arrays.stream(values()).map(sr -> {
+                try {
+                    return sr.initial.test(impl, in);
+                } catch (Exception e) {
+                    ExceptionPrinter.print(BaseImpactorPlugin.instance().logger(), e);
+                    return false;
+                }
+            }).filter(x -> x).findAny().orElse(false);
+        }
+
+        public static void first(SchemaLoader impl, String in, Statement statement) throws Exception {
+            for(SchemaReaders reader : SchemaReaders.values()) {
+                if(reader != ANY) {
+                    if (reader.initial.test(impl, in) && reader.last.test(impl, in)) {
+                        statement.addBatch(in);
+                        return;
+                    }
+                } else {
+                    for(SchemaReaders r : Arrays.stream(SchemaReaders.values()).filter(sr -> sr != ANY).toList()) {
+                        if(r.initial.test(impl, in)) {
+                            return;
+                        }
+                    }
+
+                    statement.addBatch(in);
+                }
+            }
+        }
+
+        private static String getTable(String in) {
+            int start = in.indexOf('`');
+            return in.substring(start + 1, in.indexOf('`', start + 1));
+        }
+
+    }
+
+    private interface SchemaPredicate {
+
+        boolean test(SchemaLoader impl, String input) throws Exception;
+
+    }
+
+}
@@ -25,6 +25,7 @@
 
 package net.impactdev.impactor.core.text.placeholders.provided;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import net.impactdev.impactor.api.Impactor;
 import net.impactdev.impactor.api.economy.EconomyService;
 import net.impactdev.impactor.api.economy.accounts.Account;
@@ -41,6 +42,8 @@ import net.impactdev.impactor.api.utility.Context;
 import net.impactdev.impactor.core.economy.context.TransactionContext;
 import net.impactdev.impactor.core.economy.context.TransferTransactionContext;
 import net.impactdev.impactor.core.economy.placeholders.AccountPlaceholderParser;
+import net.impactdev.impactor.core.economy.metrics.EconomyStatistics;
+import net.impactdev.impactor.core.economy.storage.CacheStatistics;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
 import org.intellij.lang.annotations.Pattern;
@@ -196,6 +199,83 @@ public final class ImpactorPlaceholders {
                 return currency.format(amount);
             }
     );
+    public static final ImpactorPlaceholder ECONOMY_CACHE = new ImpactorPlaceholder(
+            impactor("economy_cache"),
+            (viewer, ctx) -> {
+                PlaceholderArguments arguments = ctx.require(PlaceholderArguments.class);
+                if(!arguments.hasNext()) {
+                    return empty();
+                }
+
+                CacheStatistics statistics = ctx.require(CacheStatistics.class);
+                CacheStats stats = statistics.stats();
+                switch (arguments.pop()) {
+                    case "size":
+                        return text(statistics.size());
+                    case "pinned":
+                        return text(statistics.pinned());
+                    case "hit_rate":
+                        return text(TWO_DECIMALS.format(stats.hitRate() * 100) + "%");
+                    case "hits":
+                        return text(stats.hitCount());
+                    case "misses":
+                        return text(stats.missCount());
+                    case "loads":
+                        return text(stats.loadCount());
+                    case "load_time":
+                        return text(THREE_DECIMALS.format(stats.averageLoadPenalty() / 1_000_000.0));
+                    case "load_failures":
+                        return text(stats.loadFailureCount());
+                    case "evictions":
+                        return text(stats.evictionCount());
+                }
+
+                return empty();
+            }
+    );
+    public static final ImpactorPlaceholder ECONOMY_STATS = new ImpactorPlaceholder(
+            impactor("economy_stats"),
+            (viewer, ctx) -> {
+                PlaceholderArguments arguments = ctx.require(PlaceholderArguments.class);
+                if(!arguments.hasNext()) {
+                    return empty();
+                }
+
+                EconomyStatistics statistics = ctx.require(EconomyStatistics.class);
+                switch (arguments.pop()) {
+                    case "transactions":
+                        return text(statistics.transactions());
+                    case "failed":
+                        return text(statistics.failed());
+                    case "rate":
+                        return text(TWO_DECIMALS.format(statistics.rate()));
+                    case "latency_p50":
+                        return text(THREE_DECIMALS.format(statistics.latency().quantile(0.5) / 1_000_000.0));
+                    case "latency_p99":
+                        return text(THREE_DECIMALS.format(statistics.latency().quantile(0.99) / 1_000_000.0));
+                    case "latency_max":
+                        return text(THREE_DECIMALS.format(statistics.latency().max() / 1_000_000.0));
+                    case "storage":
+                        return text(statistics.implementation());
+                    case "pending":
+                        return text(statistics.pending());
+                    case "loads":
+                        return text(statistics.loads().count());
+                    case "load_time":
+                        return text(THREE_DECIMALS.format(statistics.loads().mean() / 1_000_000.0));
+                    case "load_p99":
+                        return text(THREE_DECIMALS.format(statistics.loads().quantile(0.99) / 1_000_000.0));
+                    case "saves":
+                        return text(statistics.saves().count());
+                    case "save_time":
+                        return text(THREE_DECIMALS.format(statistics.saves().mean() / 1_000_000.0));
+                    case "save_p99":
+                        return text(THREE_DECIMALS.format(statistics.saves().quantile(0.99) / 1_000_000.0));
+                }
+
+                return empty();
+            }
+    );
     public static final ImpactorPlaceholder LANGUAGE = new ImpactorPlaceholder(
             impactor("language"),
             (viewer, ctx) -> {
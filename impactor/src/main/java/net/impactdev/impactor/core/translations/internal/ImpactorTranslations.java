@@ -73,6 +73,21 @@ public interface ImpactorTranslations {
     TranslationProvider<Component> ECONOMY_BALTOP_FOOTER = create("economy.baltop.footer");
     TranslationProvider<Component> ECONOMY_TRANSFER_NOT_ALLOWED = create("economy.transactions.transfer.not-allowed");
     TranslationProvider<Component> ECONOMY_RECEIVE_PAYMENT = create("economy.payments.receive");
+    TranslationProvider<Component> ECONOMY_CACHE_HEADER = create("economy.cache.header");
+    TranslationProvider<Component> ECONOMY_CACHE_SIZE = create("economy.cache.size");
+    TranslationProvider<Component> ECONOMY_CACHE_HIT_RATE = create("economy.cache.hit-rate");
+    TranslationProvider<Component> ECONOMY_CACHE_LOADS = create("economy.cache.loads");
+    TranslationProvider<Component> ECONOMY_CACHE_EVICTIONS = create("economy.cache.evictions");
+    TranslationProvider<Component> ECONOMY_CACHE_FOOTER = create("economy.cache.footer");
+    TranslationProvider<Component> ECONOMY_CACHE_UNAVAILABLE = create("economy.cache.unavailable");
+    TranslationProvider<Component> ECONOMY_STATS_HEADER = create("economy.stats.header");
+    TranslationProvider<Component> ECONOMY_STATS_TRANSACTIONS = create("economy.stats.transactions");
+    TranslationProvider<Component> ECONOMY_STATS_LATENCY = create("economy.stats.latency");
+    TranslationProvider<Component> ECONOMY_STATS_STORAGE = create("economy.stats.storage");
+    TranslationProvider<Component> ECONOMY_STATS_LOADS = create("economy.stats.loads");
+    TranslationProvider<Component> ECONOMY_STATS_SAVES = create("economy.stats.saves");
+    TranslationProvider<Component> ECONOMY_STATS_FOOTER = create("economy.stats.footer");
+    TranslationProvider<Component> ECONOMY_STATS_UNAVAILABLE = create("economy.stats.unavailable");
 
     // Translations
     TranslationProvider<Component> TRANSLATIONS_SEARCHING = create("translations.searching");
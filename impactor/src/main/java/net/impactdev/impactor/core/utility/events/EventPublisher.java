@@ -35,6 +35,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public final class EventPublisher {
 
+    /**
+     * Indicates whether any subscriber would receive an event of the given type, such that callers
+     * may skip constructing and posting the event entirely when none would.
+     *
+     * @param type The concrete type of the event
+     * @return True if at least one subscriber would receive the event, false otherwise
+     */
+    public static boolean subscribed(Class<? extends ImpactorEvent> type) {
+        return Impactor.instance().events().subscribed(type);
+    }
+
     public static void post(ImpactorEvent event) {
         PostResult result = Impactor.instance().events().post(event);
 
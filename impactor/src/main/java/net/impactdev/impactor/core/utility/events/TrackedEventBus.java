@@ -0,0 +1,104 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.utility.events;
+
+import net.impactdev.impactor.api.events.ImpactorEvent;
+import net.kyori.event.EventBus;
+import net.kyori.event.EventSubscriber;
+import net.kyori.event.EventSubscription;
+import net.kyori.event.PostResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Wraps an event bus in order to answer whether an event type has any subscribers without consulting
+ * the underlying bus on every post. Answers, whether positive or negative, are held until a subscriber
+ * is next added or removed through this bus, including via the {@link EventSubscription} returned on
+ * subscribing. This allows for callers to skip the construction and posting of an event entirely when
+ * nothing would receive it.
+ *
+ * <p>Subscribers must be registered through this bus, via {@link net.impactdev.impactor.api.Impactor#events()},
+ * for changes to be observed.</p>
+ */
+public final class TrackedEventBus implements EventBus<ImpactorEvent> {
+
+    private final EventBus<ImpactorEvent> delegate;
+
+    // Replaced rather than cleared on invalidation, such that an answer computed concurrently with a
+    // change to the subscribers can only ever be written to a discarded map
+    private volatile Map<Class<?>, Boolean> answers = new ConcurrentHashMap<>();
+
+    public TrackedEventBus(EventBus<ImpactorEvent> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Class<ImpactorEvent> type() {
+        return this.delegate.type();
+    }
+
+    @Override
+    public PostResult post(ImpactorEvent event) {
+        return this.delegate.post(event);
+    }
+
+    @Override
+    public boolean subscribed(Class<? extends ImpactorEvent> type) {
+        Map<Class<?>, Boolean> known = this.answers;
+        Boolean answer = known.get(type);
+        if(answer != null) {
+            return answer;
+        }
+
+        boolean result = this.delegate.subscribed(type);
+        known.put(type, result);
+        return result;
+    }
+
+    @Override
+    public <T extends ImpactorEvent> EventSubscription subscribe(Class<T> event, EventSubscriber<? super T> subscriber) {
+        EventSubscription subscription = this.delegate.subscribe(event, subscriber);
+        this.invalidate();
+
+        return () -> {
+            subscription.unsubscribe();
+            this.invalidate();
+        };
+    }
+
+    @Override
+    public void unsubscribeIf(Predicate<EventSubscriber<? super ImpactorEvent>> predicate) {
+        this.delegate.unsubscribeIf(predicate);
+        this.invalidate();
+    }
+
+    private void invalidate() {
+        this.answers = new ConcurrentHashMap<>();
+    }
+
+}
@@ -0,0 +1,12 @@
+CREATE TABLE `{prefix}accounts` (
+    `uuid`      BINARY(16)          NOT NULL,
+    `currency`  VARCHAR(100)        NOT NULL,
+    `virtual`   BOOLEAN             NOT NULL    DEFAULT false,
+    `balance`   DECIMAL(38, 8)      NOT NULL,
+    `version`   BIGINT              NOT NULL    DEFAULT 0,
+    `updated_at` BIGINT             NOT NULL    DEFAULT 0,
+    PRIMARY KEY (`uuid`, `currency`)
+);
+
+CREATE INDEX IF NOT EXISTS `{prefix}accounts_ranking` ON `{prefix}accounts` (`currency`, `balance`);
+CREATE INDEX IF NOT EXISTS `{prefix}accounts_updated` ON `{prefix}accounts` (`updated_at`);
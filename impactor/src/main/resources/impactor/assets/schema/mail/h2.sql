@@ -0,0 +1,25 @@
+CREATE TABLE `{prefix}mail` (
+    `target`    BINARY(16)          NOT NULL,
+    `id`        BINARY(16)          NOT NULL,
+    `sender`    BINARY(16),
+    `sent_at`   BIGINT              NOT NULL,
+    `sent_nanos` INT                NOT NULL    DEFAULT 0,
+    `content`   CLOB,
+    PRIMARY KEY (`target`, `id`)
+);
+
+CREATE TABLE `{prefix}mail_read` (
+    `target`    BINARY(16)          NOT NULL,
+    `read_at`   BIGINT              NOT NULL,
+    `read_nanos` INT                NOT NULL    DEFAULT 0,
+    PRIMARY KEY (`target`)
+);
+
+CREATE TABLE `{prefix}mail_body` (
+    `id`        BINARY(16)          NOT NULL,
+    `content`   CLOB                NOT NULL,
+    PRIMARY KEY (`id`)
+);
+
+CREATE INDEX IF NOT EXISTS `{prefix}mail_inbox` ON `{prefix}mail` (`target`, `sent_at`, `sent_nanos`);
+CREATE INDEX IF NOT EXISTS `{prefix}mail_id` ON `{prefix}mail` (`id`);
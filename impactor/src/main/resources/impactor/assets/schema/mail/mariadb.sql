@@ -0,0 +1,24 @@
+CREATE TABLE `{prefix}mail` (
+    `target`    BINARY(16)          NOT NULL,
+    `id`        BINARY(16)          NOT NULL,
+    `sender`    BINARY(16),
+    `sent_at`   BIGINT              NOT NULL,
+    `sent_nanos` INT                NOT NULL    DEFAULT 0,
+    `content`   MEDIUMTEXT,
+    PRIMARY KEY (`target`, `id`),
+    INDEX `{prefix}mail_inbox` (`target`, `sent_at`, `sent_nanos`),
+    INDEX `{prefix}mail_id` (`id`)
+) DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE `{prefix}mail_read` (
+    `target`    BINARY(16)          NOT NULL,
+    `read_at`   BIGINT              NOT NULL,
+    `read_nanos` INT                NOT NULL    DEFAULT 0,
+    PRIMARY KEY (`target`)
+) DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE `{prefix}mail_body` (
+    `id`        BINARY(16)          NOT NULL,
+    `content`   MEDIUMTEXT          NOT NULL,
+    PRIMARY KEY (`id`)
+) DEFAULT CHARSET = utf8mb4;
@@ -3,5 +3,9 @@ CREATE TABLE `{prefix}accounts` (
     `currency`  VARCHAR(100)        NOT NULL,
     `virtual`   BOOLEAN             NOT NULL    DEFAULT false,
     `balance`   DOUBLE              NOT NULL,
-    PRIMARY KEY (`uuid`, `currency`)
+    `version`   BIGINT              NOT NULL    DEFAULT 0,
+    `updated_at` BIGINT             NOT NULL    DEFAULT 0,
+    PRIMARY KEY (`uuid`, `currency`),
+    INDEX `{prefix}accounts_ranking` (`currency`, `balance`),
+    INDEX `{prefix}accounts_updated` (`updated_at`)
 ) DEFAULT CHARSET = utf8;
\ No newline at end of file
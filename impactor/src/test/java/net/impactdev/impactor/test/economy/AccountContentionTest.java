@@ -0,0 +1,122 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountContentionTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 1000;
+
+    @Test
+    public void concurrentDepositsAreNotLost() throws Exception {
+        EconomyService service = Impactor.instance().services().provide(EconomyService.class);
+        Currency currency = service.currencies().primary();
+        Account account = service.account(currency, UUID.randomUUID()).join();
+        BigDecimal initial = account.balance();
+
+        this.contend(index -> account.deposit(BigDecimal.ONE));
+        assertEquals(0, initial.add(BigDecimal.valueOf(THREADS * OPERATIONS)).compareTo(account.balance()));
+
+        service.deleteAccount(currency, account.owner()).join();
+    }
+
+    @Test
+    public void opposingTransfersConserveFunds() throws Exception {
+        EconomyService service = Impactor.instance().services().provide(EconomyService.class);
+        Currency currency = service.currencies().primary();
+        Account a = service.account(currency, UUID.randomUUID()).join();
+        Account b = service.account(currency, UUID.randomUUID()).join();
+
+        BigDecimal starting = BigDecimal.valueOf(THREADS * OPERATIONS);
+        assertTrue(a.set(starting).successful());
+        assertTrue(b.set(starting).successful());
+
+        this.contend(index -> {
+            if(index % 2 == 0) {
+                a.transfer(b, BigDecimal.ONE);
+            } else {
+                b.transfer(a, BigDecimal.ONE);
+            }
+        });
+
+        assertEquals(0, starting.compareTo(a.balance()));
+        assertEquals(0, starting.compareTo(b.balance()));
+
+        service.deleteAccount(currency, a.owner()).join();
+        service.deleteAccount(currency, b.owner()).join();
+    }
+
+    private void contend(Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int i = 0; i < THREADS; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for(int j = 0; j < OPERATIONS; j++) {
+                        operation.perform(index);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for(Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+
+        void perform(int index);
+
+    }
+}
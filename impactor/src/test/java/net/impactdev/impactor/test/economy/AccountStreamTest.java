@@ -0,0 +1,103 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.core.economy.ImpactorEconomyService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountStreamTest {
+
+    @Test
+    public void streamsAccountsOnDemand() throws Exception {
+        EconomyService service = Impactor.instance().services().provide(EconomyService.class);
+        Currency currency = service.currencies().primary();
+
+        List<Account> created = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            created.add(service.account(currency, UUID.randomUUID()).join());
+        }
+
+        // Held in memory with a change yet to be written, so should be streamed as is
+        Account modified = created.get(0);
+        assertTrue(modified.set(BigDecimal.valueOf(1234)).successful());
+
+        Map<UUID, Account> streamed = new ConcurrentHashMap<>();
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        ((ImpactorEconomyService) service).stream(currency).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Account item) {
+                streamed.put(item.owner(), item);
+                this.subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completion.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completion.complete(null);
+            }
+        });
+
+        completion.get(1, TimeUnit.MINUTES);
+        for(Account account : created) {
+            assertTrue(streamed.containsKey(account.owner()));
+        }
+        assertEquals(0, BigDecimal.valueOf(1234).compareTo(streamed.get(modified.owner()).balance()));
+
+        for(Account account : created) {
+            service.deleteAccount(currency, account.owner()).join();
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.core.economy.ranking.BalanceIndex;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class BalanceIndexTest {
+
+    @Test
+    public void ranksByBalance() {
+        Currency currency = Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+        BalanceIndex index = new BalanceIndex();
+
+        Account low = account(currency, 10, false);
+        Account mid = account(currency, 50, false);
+        Account high = account(currency, 100, false);
+        Account bank = account(currency, 1000, true);
+        List.of(low, mid, high, bank).forEach(index::update);
+
+        assertEquals(List.of(high.owner(), mid.owner(), low.owner()), index.top(currency, 0, 10, false));
+        assertEquals(List.of(bank.owner(), high.owner()), index.top(currency, 0, 2, true));
+        assertEquals(List.of(mid.owner(), low.owner()), index.top(currency, 1, 10, false));
+        assertEquals(OptionalInt.of(2), index.rank(mid));
+
+        Account raised = account(currency, low.owner(), 75, false);
+        index.update(raised);
+        assertEquals(List.of(high.owner(), low.owner(), mid.owner()), index.top(currency, 0, 10, false));
+        assertEquals(OptionalInt.of(3), index.rank(mid));
+
+        index.seed(account(currency, low.owner(), 0, false));
+        assertEquals(OptionalInt.of(2), index.rank(raised));
+
+        index.remove(currency, high.owner());
+        assertEquals(OptionalInt.of(1), index.rank(raised));
+        assertFalse(index.rank(high).isPresent());
+    }
+
+    @Test
+    public void pagesLargeRankings() {
+        Currency currency = Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+        BalanceIndex index = new BalanceIndex();
+
+        for(int i = 0; i < 10_000; i++) {
+            index.update(account(currency, i, false));
+        }
+
+        List<UUID> page = index.top(currency, 100, 50, false);
+        assertEquals(50, page.size());
+        for(int i = 0; i < page.size(); i++) {
+            Account account = account(currency, page.get(i), 9_899 - i, false);
+            assertEquals(OptionalInt.of(101 + i), index.rank(account));
+        }
+    }
+
+    private static Account account(Currency currency, long balance, boolean virtual) {
+        return account(currency, UUID.randomUUID(), balance, virtual);
+    }
+
+    private static Account account(Currency currency, UUID owner, long balance, boolean virtual) {
+        Account.AccountBuilder builder = Account.builder()
+                .owner(owner)
+                .currency(currency)
+                .balance(BigDecimal.valueOf(balance));
+
+        if(virtual) {
+            builder.virtual();
+        }
+
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.core.economy.placeholders.BalanceView;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BalanceViewTest {
+
+    @Test
+    public void readsResidentAccountsWithoutBlocking() {
+        EconomyService service = Impactor.instance().services().provide(EconomyService.class);
+        Currency currency = service.currencies().primary();
+        BalanceView view = new BalanceView(() -> service, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        Account account = service.account(currency, UUID.randomUUID()).join();
+        assertEquals(0, account.balance().compareTo(view.balance(account.owner(), currency)));
+
+        assertTrue(account.deposit(BigDecimal.TEN).successful());
+        assertEquals(0, account.balance().compareTo(view.balance(account.owner(), currency)));
+
+        service.deleteAccount(currency, account.owner()).join();
+    }
+
+    @Test
+    public void holdsPushedBalances() {
+        EconomyService service = Impactor.instance().services().provide(EconomyService.class);
+        Currency currency = service.currencies().primary();
+        BalanceView view = new BalanceView(() -> service, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        // Never held by the economy service, so the pushed balance is served by the view alone
+        Account pushed = Account.builder()
+                .owner(UUID.randomUUID())
+                .currency(currency)
+                .balance(BigDecimal.valueOf(42))
+                .build();
+        view.update(pushed);
+
+        assertEquals(0, BigDecimal.valueOf(42).compareTo(view.balance(pushed.owner(), currency)));
+    }
+
+}
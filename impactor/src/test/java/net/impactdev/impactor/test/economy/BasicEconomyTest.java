@@ -228,6 +228,10 @@ public class BasicEconomyTest {
 
         condensed = currency.format(large, Locale.ITALIAN);
         assertEquals("$100.540.233,00", PlainTextComponentSerializer.plainText().serialize(condensed));
+
+        BigDecimal precise = new BigDecimal("12345678901234567.89");
+        condensed = currency.format(precise, Locale.US);
+        assertEquals("$12,345,678,901,234,567.89", PlainTextComponentSerializer.plainText().serialize(condensed));
     }
 
     @Test
@@ -0,0 +1,116 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+import net.impactdev.impactor.core.economy.ImpactorEconomyService;
+import net.impactdev.impactor.core.economy.events.ImpactorBulkTransactionEvent;
+import net.impactdev.impactor.core.economy.transactions.BulkTransaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BulkTransactionTest {
+
+    @Test
+    public void depositFiresSingleEventPair() {
+        ImpactorEconomyService service = (ImpactorEconomyService) Impactor.instance().services().provide(EconomyService.class);
+        Currency currency = service.currencies().primary();
+
+        List<Account> accounts = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            accounts.add(service.account(currency, UUID.randomUUID()).join());
+        }
+
+        AtomicInteger pre = new AtomicInteger();
+        AtomicInteger post = new AtomicInteger();
+        Impactor.instance().events().subscribe(ImpactorBulkTransactionEvent.Pre.class, event -> {
+            if(event.accounts().equals(accounts)) {
+                pre.incrementAndGet();
+            }
+        });
+        Impactor.instance().events().subscribe(ImpactorBulkTransactionEvent.Post.class, event -> {
+            if(event.transaction().transactions().size() == accounts.size()) {
+                post.incrementAndGet();
+            }
+        });
+
+        BigDecimal initial = currency.defaultAccountBalance();
+        BulkTransaction result = service.bulk()
+                .accounts(accounts)
+                .type(EconomyTransactionType.DEPOSIT)
+                .amount(BigDecimal.TEN)
+                .build();
+
+        assertEquals(accounts.size(), result.successful().size());
+        assertEquals(accounts.size(), result.count(EconomyResultType.SUCCESS));
+        assertEquals(1, pre.get());
+        assertEquals(1, post.get());
+        for(Account account : accounts) {
+            assertEquals(0, initial.add(BigDecimal.TEN).compareTo(account.balance()));
+        }
+
+        accounts.forEach(account -> service.deleteAccount(currency, account.owner()).join());
+    }
+
+    @Test
+    public void withdrawRespectsRestrictionsPerAccount() {
+        ImpactorEconomyService service = (ImpactorEconomyService) Impactor.instance().services().provide(EconomyService.class);
+        Currency currency = service.currencies().primary();
+
+        Account rich = service.account(currency, UUID.randomUUID()).join();
+        Account poor = service.account(currency, UUID.randomUUID()).join();
+        rich.set(BigDecimal.valueOf(1000));
+        poor.set(BigDecimal.ONE);
+
+        BulkTransaction result = service.bulk()
+                .account(rich)
+                .account(poor)
+                .type(EconomyTransactionType.WITHDRAW)
+                .amount(BigDecimal.valueOf(100))
+                .build();
+
+        assertEquals(1, result.count(EconomyResultType.SUCCESS));
+        assertEquals(1, result.count(EconomyResultType.NOT_ENOUGH_FUNDS));
+        assertEquals(0, BigDecimal.valueOf(900).compareTo(rich.balance()));
+        assertEquals(0, BigDecimal.ONE.compareTo(poor.balance()));
+
+        service.deleteAccount(currency, rich.owner()).join();
+        service.deleteAccount(currency, poor.owner()).join();
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.storage.connection.configurate.loaders.JsonLoader;
+import net.impactdev.impactor.core.economy.storage.AccountCursor;
+import net.impactdev.impactor.core.economy.storage.implementations.ConfigurateProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigurateProviderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void indexesExistingFiles() throws Exception {
+        Currency currency = this.currency();
+        UUID kept = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+
+        ConfigurateProvider provider = new ConfigurateProvider(new JsonLoader(), this.directory);
+        provider.init();
+        provider.saveAll(List.of(account(currency, kept, 25), account(currency, removed, 10)));
+        provider.delete(currency, removed);
+        provider.shutdown();
+
+        ConfigurateProvider reopened = new ConfigurateProvider(new JsonLoader(), this.directory);
+        reopened.init();
+        assertTrue(reopened.hasAccount(currency, kept));
+        assertFalse(reopened.hasAccount(currency, removed));
+        assertFalse(reopened.hasAccount(currency, UUID.randomUUID()));
+        assertEquals(0, BigDecimal.valueOf(25).compareTo(reopened.accounts(currency, List.of(kept)).get(kept).balance()));
+        reopened.shutdown();
+    }
+
+    @Test
+    public void loadsAllAccounts() throws Exception {
+        Currency currency = this.currency();
+        ConfigurateProvider provider = new ConfigurateProvider(new JsonLoader(), this.directory);
+        provider.init();
+
+        List<Account> accounts = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            accounts.add(account(currency, UUID.randomUUID(), i));
+        }
+        provider.saveAll(accounts);
+
+        // Accounts already present within the cache must not be loaded a second time
+        Multimap<Currency, Account> cache = ArrayListMultimap.create();
+        cache.put(currency, accounts.get(0));
+        provider.accounts(cache);
+        assertEquals(1000, cache.get(currency).size());
+
+        List<Account> top = provider.top(currency, 0, 1, false);
+        assertEquals(0, BigDecimal.valueOf(999).compareTo(top.get(0).balance()));
+        provider.shutdown();
+    }
+
+    @Test
+    public void iteratesFilesLazily() throws Exception {
+        Currency currency = this.currency();
+        ConfigurateProvider provider = new ConfigurateProvider(new JsonLoader(), this.directory);
+        provider.init();
+
+        List<Account> accounts = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            accounts.add(account(currency, UUID.randomUUID(), i));
+        }
+        provider.saveAll(accounts);
+
+        Set<UUID> visited = new HashSet<>();
+        try(AccountCursor cursor = provider.cursor(currency)) {
+            while(cursor.hasNext()) {
+                assertTrue(visited.add(cursor.next().owner()));
+            }
+        }
+
+        assertEquals(100, visited.size());
+        provider.shutdown();
+    }
+
+    private Currency currency() {
+        return Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+    }
+
+    private static Account account(Currency currency, UUID owner, long balance) {
+        return Account.builder()
+                .owner(owner)
+                .currency(currency)
+                .balance(BigDecimal.valueOf(balance))
+                .build();
+    }
+
+}
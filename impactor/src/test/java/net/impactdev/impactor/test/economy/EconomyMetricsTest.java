@@ -0,0 +1,91 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+import net.impactdev.impactor.core.economy.metrics.EconomyMetrics;
+import net.impactdev.impactor.core.economy.metrics.EconomyStatistics;
+import net.impactdev.impactor.core.economy.metrics.LatencyHistogram;
+import net.impactdev.impactor.core.economy.metrics.StorageOperation;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EconomyMetricsTest {
+
+    @Test
+    public void quantilesStayWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 1; i <= 10_000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.count());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(10_000), snapshot.max());
+
+        long median = TimeUnit.MICROSECONDS.toNanos(5_000);
+        long p99 = TimeUnit.MICROSECONDS.toNanos(9_900);
+        assertTrue(Math.abs(snapshot.quantile(0.5) - median) <= median * 0.04);
+        assertTrue(Math.abs(snapshot.quantile(0.99) - p99) <= p99 * 0.04);
+    }
+
+    @Test
+    public void exportsPrometheusText() throws Exception {
+        Currency currency = Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+        EconomyMetrics metrics = new EconomyMetrics("Test", () -> 3);
+        metrics.transaction(currency, EconomyTransactionType.DEPOSIT, EconomyResultType.SUCCESS, 1_000_000);
+        metrics.transaction(currency, EconomyTransactionType.DEPOSIT, EconomyResultType.SUCCESS, 2_000_000);
+        metrics.transaction(currency, EconomyTransactionType.WITHDRAW, EconomyResultType.NOT_ENOUGH_FUNDS, 1_000_000);
+        metrics.storage(StorageOperation.SAVE, 5_000_000, false);
+
+        StringWriter writer = new StringWriter();
+        metrics.prometheus(writer);
+        String output = writer.toString();
+
+        String key = currency.key().asString();
+        assertTrue(output.contains("impactor_economy_transactions_total{currency=\"" + key + "\",type=\"deposit\",result=\"success\"} 2\n"));
+        assertTrue(output.contains("impactor_economy_transactions_total{currency=\"" + key + "\",type=\"withdraw\",result=\"not_enough_funds\"} 1\n"));
+        assertTrue(output.contains("impactor_economy_transaction_latency_seconds_count{currency=\"" + key + "\",type=\"deposit\"} 2\n"));
+        assertTrue(output.contains("impactor_economy_storage_failures_total{implementation=\"Test\",operation=\"save\"} 1\n"));
+        assertTrue(output.contains("impactor_economy_pending_saves{implementation=\"Test\"} 3\n"));
+
+        EconomyStatistics statistics = metrics.statistics();
+        assertEquals(3, statistics.transactions());
+        assertEquals(1, statistics.failed());
+        assertEquals(3, statistics.pending());
+        assertEquals(1, statistics.saves().count());
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.economy.events.EconomyTransactionEvent;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.events.ImpactorEvent;
+import net.impactdev.impactor.core.economy.events.ImpactorEconomyTransactionEvent;
+import net.kyori.event.EventSubscriber;
+import net.kyori.event.EventSubscription;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventSubscriptionTest {
+
+    @Test
+    public void tracksSubscribersAsTheyChange() {
+        EconomyService service = Impactor.instance().services().provide(EconomyService.class);
+        Currency currency = service.currencies().primary();
+        Account account = service.account(currency, UUID.randomUUID()).join();
+
+        // Resolve the answer for the event type ahead of subscribing, which subscribing must then invalidate
+        Impactor.instance().events().subscribed(ImpactorEconomyTransactionEvent.Pre.class);
+
+        AtomicInteger received = new AtomicInteger();
+        EventSubscriber<EconomyTransactionEvent.Pre> subscriber = event -> {
+            received.incrementAndGet();
+            event.cancelled(true);
+        };
+        Impactor.instance().events().subscribe(EconomyTransactionEvent.Pre.class, subscriber);
+        assertTrue(Impactor.instance().events().subscribed(ImpactorEconomyTransactionEvent.Pre.class));
+
+        assertEquals(EconomyResultType.CANCELLED, account.deposit(BigDecimal.ONE).result());
+        assertEquals(1, received.get());
+
+        Impactor.instance().events().unsubscribeIf(candidate -> (Object) candidate == subscriber);
+        assertEquals(EconomyResultType.SUCCESS, account.deposit(BigDecimal.ONE).result());
+        assertEquals(1, received.get());
+
+        service.deleteAccount(currency, account.owner()).join();
+    }
+
+    @Test
+    public void tracksSubscriptionsDisposedDirectly() {
+        assertFalse(Impactor.instance().events().subscribed(ProbeEvent.class));
+
+        EventSubscription subscription = Impactor.instance().events().subscribe(ProbeEvent.class, event -> {});
+        assertTrue(Impactor.instance().events().subscribed(ProbeEvent.class));
+
+        subscription.unsubscribe();
+        assertFalse(Impactor.instance().events().subscribed(ProbeEvent.class));
+    }
+
+    private static final class ProbeEvent implements ImpactorEvent {}
+
+}
@@ -0,0 +1,261 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import com.google.common.collect.ImmutableMap;
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.configuration.Config;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.storage.StorageCredentials;
+import net.impactdev.impactor.core.economy.EconomyConfig;
+import net.impactdev.impactor.core.economy.storage.AccountCursor;
+import net.impactdev.impactor.core.economy.storage.BalanceArithmetic;
+import net.impactdev.impactor.core.economy.storage.EconomyStorage;
+import net.impactdev.impactor.core.economy.storage.coherence.AccountChange;
+import net.impactdev.impactor.core.economy.storage.coherence.Invalidation;
+import net.impactdev.impactor.core.economy.storage.coherence.LoopbackMessenger;
+import net.impactdev.impactor.core.economy.storage.implementations.SQLProvider;
+import net.impactdev.impactor.core.storage.sql.H2ConnectionImpl;
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class H2StorageTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void storesAccountsInEmbeddedDatabase() throws Exception {
+        Currency currency = Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+        StorageCredentials credentials = new StorageCredentials("", "", "", "", 4, 4, 1800000, 0, 5000, ImmutableMap.of());
+        SQLProvider provider = new SQLProvider(new H2ConnectionImpl(credentials, this.directory.resolve("economy")), "test_");
+        provider.init();
+
+        try {
+            UUID owner = UUID.randomUUID();
+            Account created = provider.account(currency, owner, builder -> builder);
+            assertTrue(provider.hasAccount(currency, owner));
+            assertEquals(0, currency.defaultAccountBalance().compareTo(created.balance()));
+
+            Account rich = account(currency, UUID.randomUUID(), 1000);
+            Account poor = account(currency, UUID.randomUUID(), 1);
+            provider.saveAll(List.of(rich, poor, account(currency, owner, 250)));
+
+            Map<UUID, Account> loaded = provider.accounts(currency, List.of(owner, rich.owner(), UUID.randomUUID()));
+            assertEquals(2, loaded.size());
+            assertEquals(0, BigDecimal.valueOf(250).compareTo(loaded.get(owner).balance()));
+
+            List<Account> top = provider.top(currency, 0, 2, false);
+            assertEquals(List.of(rich.owner(), owner), top.stream().map(Account::owner).toList());
+
+            provider.delete(currency, owner);
+            assertFalse(provider.hasAccount(currency, owner));
+        } finally {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    public void tracksChangesAcrossServers() throws Exception {
+        Currency currency = Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+        StorageCredentials credentials = new StorageCredentials("", "", "", "", 4, 4, 1800000, 0, 5000, ImmutableMap.of());
+        SQLProvider first = new SQLProvider(new H2ConnectionImpl(credentials, this.directory.resolve("shared")), "test_");
+        SQLProvider second = new SQLProvider(new H2ConnectionImpl(credentials, this.directory.resolve("shared")), "test_");
+        first.init();
+        second.init();
+
+        try {
+            long since = System.currentTimeMillis() - 1;
+            UUID owner = UUID.randomUUID();
+            first.saveAll(List.of(account(currency, owner, 100)));
+            first.saveAll(List.of(account(currency, owner, 200)));
+
+            List<AccountChange> changes = second.changes(since);
+            assertEquals(1, changes.size());
+            assertEquals(owner, changes.get(0).account().owner());
+            assertEquals(0, BigDecimal.valueOf(200).compareTo(changes.get(0).account().balance()));
+            assertEquals(1, changes.get(0).version());
+            assertTrue(second.changes(changes.get(0).updated()).isEmpty());
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    @Test
+    public void reconcilesCachedAccountsWithRemoteChanges() throws Exception {
+        Currency currency = Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+        StorageCredentials credentials = new StorageCredentials("", "", "", "", 4, 4, 1800000, 0, 5000, ImmutableMap.of());
+        SQLProvider remote = new SQLProvider(new H2ConnectionImpl(credentials, this.directory.resolve("coherent")), "test_");
+
+        Path path = this.directory.resolve("economy.conf");
+        Files.writeString(path, "storage {\n  journal.enabled = false\n  coherence.enabled = true\n}\n");
+        Config config = Config.builder()
+                .path(path)
+                .provider(EconomyConfig.class)
+                .build();
+
+        EconomyStorage storage = new EconomyStorage(new SQLProvider(new H2ConnectionImpl(credentials, this.directory.resolve("coherent")), "test_"), config);
+        storage.init();
+        remote.init();
+
+        try {
+            UUID clean = UUID.randomUUID();
+            UUID dirty = UUID.randomUUID();
+            Account cached = storage.account(currency, clean, builder -> builder).join();
+            Account modified = storage.account(currency, dirty, builder -> builder).join();
+            storage.stage(account(currency, dirty, 75));
+
+            remote.saveAll(List.of(account(currency, clean, 500), account(currency, dirty, 500)));
+            storage.poll();
+
+            // The cached copy is updated in place, whilst the account with unwritten changes is skipped
+            assertSame(cached, storage.resident(currency, clean).orElseThrow());
+            assertEquals(0, BigDecimal.valueOf(500).compareTo(cached.balance()));
+            assertEquals(0, currency.defaultAccountBalance().compareTo(modified.balance()));
+
+            storage.flush();
+            assertEquals(0, BigDecimal.valueOf(75).compareTo(remote.accounts(currency, List.of(dirty)).get(dirty).balance()));
+        } finally {
+            storage.shutdown();
+            remote.shutdown();
+        }
+    }
+
+    @Test
+    public void appliesBalanceArithmeticInDatabase() throws Exception {
+        Currency currency = Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+        StorageCredentials credentials = new StorageCredentials("", "", "", "", 4, 4, 1800000, 0, 5000, ImmutableMap.of());
+        SQLProvider provider = new SQLProvider(new H2ConnectionImpl(credentials, this.directory.resolve("arithmetic")), "test_");
+        provider.init();
+
+        try {
+            BigDecimal maximum = BigDecimal.valueOf(1000);
+            Account from = account(currency, UUID.randomUUID(), 100);
+            Account to = account(currency, UUID.randomUUID(), 950);
+            provider.saveAll(List.of(from));
+
+            assertEquals(0, BigDecimal.valueOf(150).compareTo(provider.adjust(from, BigDecimal.valueOf(50), BigDecimal.ZERO, maximum).orElseThrow()));
+            assertTrue(provider.adjust(from, BigDecimal.valueOf(-200), BigDecimal.ZERO, maximum).isEmpty());
+
+            // The target has yet to be written, so it is written with its current balance first
+            BalanceArithmetic.TransferResult rejected = provider.transfer(from, to, BigDecimal.valueOf(100), BigDecimal.ZERO, maximum);
+            assertEquals(EconomyResultType.NO_REMAINING_SPACE, rejected.result());
+            assertEquals(0, BigDecimal.valueOf(150).compareTo(provider.accounts(currency, List.of(from.owner())).get(from.owner()).balance()));
+
+            BalanceArithmetic.TransferResult transferred = provider.transfer(from, to, BigDecimal.valueOf(50), BigDecimal.ZERO, maximum);
+            assertEquals(EconomyResultType.SUCCESS, transferred.result());
+            assertEquals(0, BigDecimal.valueOf(100).compareTo(transferred.from()));
+            assertEquals(0, maximum.compareTo(transferred.to()));
+
+            // Each leg of a bulk adjustment is bounded individually, leaving rejected legs untouched
+            List<Optional<BigDecimal>> bulk = provider.adjustAll(List.of(to, from), BigDecimal.valueOf(10), BigDecimal.ZERO, maximum);
+            assertTrue(bulk.get(0).isEmpty());
+            assertEquals(0, BigDecimal.valueOf(110).compareTo(bulk.get(1).orElseThrow()));
+            assertEquals(0, maximum.compareTo(provider.accounts(currency, List.of(to.owner())).get(to.owner()).balance()));
+        } finally {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    public void pagesThroughAccountsByOwner() throws Exception {
+        Currency currency = Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+        StorageCredentials credentials = new StorageCredentials("", "", "", "", 4, 4, 1800000, 0, 5000, ImmutableMap.of());
+        SQLProvider provider = new SQLProvider(new H2ConnectionImpl(credentials, this.directory.resolve("cursor")), "test_");
+        provider.init();
+
+        try {
+            List<Account> accounts = new ArrayList<>();
+            for(int i = 0; i < 1234; i++) {
+                accounts.add(account(currency, UUID.randomUUID(), i));
+            }
+            provider.saveAll(accounts);
+
+            Set<UUID> visited = new HashSet<>();
+            try(AccountCursor cursor = provider.cursor(currency)) {
+                while(cursor.hasNext()) {
+                    assertTrue(visited.add(cursor.next().owner()));
+                }
+            }
+
+            assertEquals(accounts.stream().map(Account::owner).collect(Collectors.toSet()), visited);
+        } finally {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    public void deliversInvalidationsToOtherServers() {
+        LoopbackMessenger first = new LoopbackMessenger("test");
+        LoopbackMessenger second = new LoopbackMessenger("test");
+        List<Invalidation> received = new ArrayList<>();
+        List<Invalidation> echoed = new ArrayList<>();
+        second.subscribe(received::add);
+        first.subscribe(echoed::add);
+
+        try {
+            Invalidation invalidation = new Invalidation(Key.key("impactor", "dollars"), UUID.randomUUID(), UUID.randomUUID());
+            first.publish(invalidation);
+
+            assertEquals(List.of(invalidation), received);
+            assertTrue(echoed.isEmpty());
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    private static Account account(Currency currency, UUID owner, long balance) {
+        return Account.builder()
+                .owner(owner)
+                .currency(currency)
+                .balance(BigDecimal.valueOf(balance))
+                .build();
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.storage.connection.configurate.loaders.JsonLoader;
+import net.impactdev.impactor.core.economy.storage.implementations.ConfigurateProvider;
+import net.impactdev.impactor.core.economy.storage.implementations.LocalStoreProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocalStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void replaysLogAfterCrash() throws Exception {
+        Currency currency = this.currency();
+        UUID kept = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+
+        LocalStoreProvider store = new LocalStoreProvider(this.directory, 1 << 20);
+        store.init();
+        store.saveAll(List.of(account(currency, kept, 25), account(currency, removed, 10)));
+        store.save(account(currency, kept, 40));
+        store.delete(currency, removed);
+
+        // Simulate a crash, leaving the log uncompacted with a partial record at its tail
+        Files.write(this.directory.resolve("accounts.log"), new byte[] { 0, 0, 0, 42, 1, 2 }, StandardOpenOption.APPEND);
+
+        LocalStoreProvider recovered = new LocalStoreProvider(this.directory, 1 << 20);
+        recovered.init();
+        assertTrue(recovered.hasAccount(currency, kept));
+        assertFalse(recovered.hasAccount(currency, removed));
+        assertEquals(0, BigDecimal.valueOf(40).compareTo(recovered.accounts(currency, List.of(kept)).get(kept).balance()));
+
+        recovered.save(account(currency, kept, 41));
+        recovered.shutdown();
+    }
+
+    @Test
+    public void compactsIntoSnapshot() throws Exception {
+        Currency currency = this.currency();
+        LocalStoreProvider store = new LocalStoreProvider(this.directory, 1);
+        store.init();
+
+        for(int i = 0; i < 500; i++) {
+            store.save(account(currency, UUID.randomUUID(), i));
+        }
+        assertTrue(Files.exists(this.directory.resolve("accounts.snapshot")));
+        store.shutdown();
+
+        LocalStoreProvider reopened = new LocalStoreProvider(this.directory, 1 << 20);
+        reopened.init();
+
+        Multimap<Currency, Account> accounts = ArrayListMultimap.create();
+        reopened.accounts(accounts);
+        assertEquals(500, accounts.get(currency).size());
+
+        List<Account> top = reopened.top(currency, 0, 3, false);
+        assertEquals(3, top.size());
+        assertEquals(0, BigDecimal.valueOf(499).compareTo(top.get(0).balance()));
+        assertEquals(0, BigDecimal.valueOf(497).compareTo(top.get(2).balance()));
+        reopened.shutdown();
+    }
+
+    @Test
+    public void importsFlatFileAccountsOnce() throws Exception {
+        Currency currency = this.currency();
+        UUID owner = UUID.randomUUID();
+        Path legacy = this.directory.resolve("legacy");
+
+        ConfigurateProvider flatfile = new ConfigurateProvider(new JsonLoader(), legacy);
+        flatfile.init();
+        flatfile.saveAll(List.of(account(currency, owner, 75), account(currency, UUID.randomUUID(), 5)));
+        flatfile.shutdown();
+
+        LocalStoreProvider store = new LocalStoreProvider(this.directory.resolve("local"), 1 << 20, new ConfigurateProvider(new JsonLoader(), legacy), List.of(currency));
+        store.init();
+        assertEquals(0, BigDecimal.valueOf(75).compareTo(store.accounts(currency, List.of(owner)).get(owner).balance()));
+        store.save(account(currency, owner, 80));
+        store.shutdown();
+
+        // The store now holds its own state, so the flat-file accounts are not imported again
+        LocalStoreProvider reopened = new LocalStoreProvider(this.directory.resolve("local"), 1 << 20, new ConfigurateProvider(new JsonLoader(), legacy), List.of(currency));
+        reopened.init();
+        assertEquals(0, BigDecimal.valueOf(80).compareTo(reopened.accounts(currency, List.of(owner)).get(owner).balance()));
+
+        Multimap<Currency, Account> accounts = ArrayListMultimap.create();
+        reopened.accounts(accounts);
+        assertEquals(2, accounts.get(currency).size());
+        reopened.shutdown();
+    }
+
+    private Currency currency() {
+        return Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+    }
+
+    private static Account account(Currency currency, UUID owner, long balance) {
+        return Account.builder()
+                .owner(owner)
+                .currency(currency)
+                .balance(BigDecimal.valueOf(balance))
+                .build();
+    }
+
+}
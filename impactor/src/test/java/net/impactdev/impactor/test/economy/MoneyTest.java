@@ -0,0 +1,112 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+import net.impactdev.impactor.core.economy.ImpactorEconomyService;
+import net.impactdev.impactor.core.economy.accounts.ImpactorAccount;
+import net.impactdev.impactor.core.economy.accounts.Money;
+import net.impactdev.impactor.core.economy.transactions.TransactionRestrictions;
+import net.impactdev.impactor.core.plugin.BaseImpactorPlugin;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoneyTest {
+
+    @Test
+    public void convertsBetweenDecimalsAndMinorUnits() {
+        assertEquals(1738, Money.units(new BigDecimal("17.38"), 2));
+        assertEquals(1738, Money.units(new BigDecimal("17.375"), 2));
+        assertEquals(50000, Money.units(BigDecimal.valueOf(500.0), 2));
+
+        assertEquals(new BigDecimal("17.38"), Money.decimal(1738, 2));
+        assertEquals(BigDecimal.valueOf(500.0), Money.decimal(50000, 2));
+        assertEquals(BigDecimal.valueOf(0.0), Money.decimal(0, 3));
+        assertEquals(BigDecimal.valueOf(12.0), Money.decimal(12, 0));
+    }
+
+    @Test
+    public void detectsOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.units(new BigDecimal("1E20"), 2));
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertEquals(Long.MAX_VALUE, Money.saturated(new BigDecimal("1E20"), 2));
+    }
+
+    @Test
+    public void clampsOutOfRangeStoredBalances() {
+        Currency currency = Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+        int scale = Money.scale(currency.decimals());
+
+        ImpactorAccount rich = ImpactorAccount.load(currency, UUID.randomUUID(), false, new BigDecimal("1E30"));
+        assertEquals(0, Money.decimal(Long.MAX_VALUE, scale).compareTo(rich.balance()));
+
+        ImpactorAccount indebted = ImpactorAccount.load(currency, UUID.randomUUID(), false, new BigDecimal("-1E30"));
+        assertEquals(0, Money.decimal(Long.MIN_VALUE, scale).compareTo(indebted.balance()));
+    }
+
+    @Test
+    public void appliesRestrictionsInMinorUnits() {
+        TransactionRestrictions restrictions = new TransactionRestrictions(true, BigDecimal.valueOf(-5), BigDecimal.valueOf(100));
+        assertEquals(0, restrictions.floor(2));
+        assertEquals(10000, restrictions.ceiling(2));
+
+        assertEquals(EconomyResultType.NOT_ENOUGH_FUNDS, restrictions.test(EconomyTransactionType.WITHDRAW, -1, 2));
+        assertEquals(EconomyResultType.NO_REMAINING_SPACE, restrictions.test(EconomyTransactionType.DEPOSIT, 10001, 2));
+        assertEquals(EconomyResultType.SUCCESS, restrictions.test(EconomyTransactionType.SET, 10000, 2));
+        assertEquals(Long.MAX_VALUE, TransactionRestrictions.NONE.ceiling(2));
+    }
+
+    @Test
+    public void refreshesRestrictionsOnReload() throws Exception {
+        ImpactorEconomyService service = (ImpactorEconomyService) Impactor.instance().services().provide(EconomyService.class);
+        Path config = BaseImpactorPlugin.instance().configurationDirectory().resolve("economy.conf");
+        String original = Files.readString(config);
+
+        try {
+            Files.writeString(config, original.replace("maximum-balance = \"100000000000.0\"", "maximum-balance = \"500.0\""));
+            service.reload();
+            assertEquals(0, BigDecimal.valueOf(500).compareTo(service.restrictions().maximum()));
+            assertEquals(50000, service.restrictions().ceiling(2));
+        } finally {
+            Files.writeString(config, original);
+            service.reload();
+        }
+
+        assertEquals(0, new BigDecimal("100000000000").compareTo(service.restrictions().maximum()));
+    }
+
+}
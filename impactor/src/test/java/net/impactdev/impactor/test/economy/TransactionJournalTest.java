@@ -0,0 +1,209 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
+import net.impactdev.impactor.api.economy.transactions.details.EconomyTransactionType;
+import net.impactdev.impactor.core.economy.ImpactorEconomyService;
+import net.impactdev.impactor.core.economy.accounts.ImpactorAccount;
+import net.impactdev.impactor.core.economy.journal.JournalEntry;
+import net.impactdev.impactor.core.economy.journal.TransactionJournal;
+import net.kyori.adventure.key.Key;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionJournalTest {
+
+    private static final Key CURRENCY = Key.key("impactor", "dollars");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void recordsSurviveRotationAndRestart() throws Exception {
+        UUID target = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        Instant start = Instant.now();
+
+        TransactionJournal journal = new TransactionJournal(this.directory, 1024, false, Runnable::run);
+        journal.init();
+        for(int i = 1; i <= 100; i++) {
+            journal.append(List.of(entry(target, i, start), entry(other, -i, start))).join();
+        }
+        journal.shutdown();
+
+        try(Stream<Path> files = Files.list(this.directory)) {
+            assertTrue(files.filter(path -> path.toString().endsWith(".journal")).count() > 1);
+        }
+
+        TransactionJournal reopened = new TransactionJournal(this.directory, 1024, false, Runnable::run);
+        reopened.init();
+
+        List<JournalEntry> entries = reopened.entries(target, CURRENCY, start);
+        assertEquals(100, entries.size());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(entries.get(99).balance()));
+        assertTrue(entries.stream().allMatch(entry -> entry.owner().equals(target)));
+
+        Optional<JournalEntry> latest = reopened.latest(other, CURRENCY, start);
+        assertTrue(latest.isPresent());
+        assertEquals(0, BigDecimal.valueOf(-100).compareTo(latest.get().balance()));
+        assertTrue(reopened.entries(target, CURRENCY, start.plusSeconds(60)).isEmpty());
+
+        reopened.shutdown();
+    }
+
+    @Test
+    public void discardsIncompleteTail() throws Exception {
+        UUID target = UUID.randomUUID();
+        Instant start = Instant.now();
+
+        TransactionJournal journal = new TransactionJournal(this.directory, 1 << 20, false, Runnable::run);
+        journal.init();
+        journal.append(List.of(entry(target, 1, start))).join();
+        journal.append(List.of(entry(target, 2, start))).join();
+        journal.shutdown();
+
+        Path segment;
+        try(Stream<Path> files = Files.list(this.directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+
+        try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        TransactionJournal recovered = new TransactionJournal(this.directory, 1 << 20, false, Runnable::run);
+        recovered.init();
+        assertEquals(1, recovered.entries(target, CURRENCY, start).size());
+
+        recovered.append(List.of(entry(target, 3, start))).join();
+        Optional<JournalEntry> latest = recovered.latest(target, CURRENCY, start);
+        assertTrue(latest.isPresent());
+        assertEquals(0, BigDecimal.valueOf(3).compareTo(latest.get().balance()));
+        recovered.shutdown();
+    }
+
+    @Test
+    public void checkpointDiscardsCoveredSegments() throws Exception {
+        UUID target = UUID.randomUUID();
+        Instant start = Instant.now().minusSeconds(60);
+
+        TransactionJournal journal = new TransactionJournal(this.directory, 1024, false, Runnable::run);
+        journal.init();
+        for(int i = 1; i <= 50; i++) {
+            journal.append(List.of(entry(target, i, start))).join();
+        }
+
+        Instant covered = start.plusSeconds(30);
+        journal.append(List.of(entry(target, 51, covered))).join();
+        assertEquals(Instant.EPOCH, journal.checkpoint());
+        assertEquals(51, journal.entries(Instant.EPOCH).size());
+
+        journal.checkpoint(covered);
+        journal.shutdown();
+
+        TransactionJournal reopened = new TransactionJournal(this.directory, 1024, false, Runnable::run);
+        reopened.init();
+        assertEquals(covered.toEpochMilli(), reopened.checkpoint().toEpochMilli());
+
+        List<JournalEntry> remaining = reopened.entries(reopened.checkpoint());
+        assertEquals(1, remaining.size());
+        assertEquals(0, BigDecimal.valueOf(51).compareTo(remaining.get(0).balance()));
+        assertTrue(reopened.entries(Instant.EPOCH).size() < 51);
+        reopened.shutdown();
+    }
+
+    @Test
+    public void retainsCoveredHistoryWithinRetention() throws Exception {
+        UUID target = UUID.randomUUID();
+        Instant start = Instant.now().minusSeconds(60);
+
+        TransactionJournal journal = new TransactionJournal(this.directory, 1024, false, Duration.ofHours(1), Runnable::run);
+        journal.init();
+        for(int i = 1; i <= 50; i++) {
+            journal.append(List.of(entry(target, i, start))).join();
+        }
+
+        journal.checkpoint(start.plusSeconds(30));
+        assertTrue(journal.entries(journal.checkpoint()).isEmpty());
+        assertEquals(50, journal.entries(target, CURRENCY, start).size());
+
+        journal.checkpoint(start.plus(Duration.ofHours(2)));
+        assertTrue(journal.entries(target, CURRENCY, start).size() < 50);
+        journal.shutdown();
+    }
+
+    @Test
+    public void syncRestoresJournaledBalance() {
+        ImpactorEconomyService service = (ImpactorEconomyService) Impactor.instance().services().provide(EconomyService.class);
+        Currency currency = service.currencies().primary();
+        Instant start = Instant.now();
+
+        Account account = service.account(currency, UUID.randomUUID()).join();
+        assertTrue(account.deposit(BigDecimal.valueOf(25)).successful());
+        BigDecimal expected = account.balance();
+
+        // Simulates a balance change which was journaled, but never written to storage
+        ((ImpactorAccount) account).restore(BigDecimal.ZERO);
+        service.storage().sync(account, start).join();
+        assertEquals(0, expected.compareTo(account.balance()));
+
+        service.deleteAccount(currency, account.owner()).join();
+    }
+
+    private static JournalEntry entry(UUID owner, long balance, Instant timestamp) {
+        return new JournalEntry(
+                CURRENCY,
+                owner,
+                null,
+                EconomyTransactionType.DEPOSIT,
+                EconomyResultType.SUCCESS,
+                BigDecimal.ONE,
+                BigDecimal.valueOf(balance),
+                timestamp
+        );
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.economy;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.configuration.Config;
+import net.impactdev.impactor.api.economy.EconomyService;
+import net.impactdev.impactor.api.economy.accounts.Account;
+import net.impactdev.impactor.api.economy.currency.Currency;
+import net.impactdev.impactor.api.storage.connection.configurate.loaders.JsonLoader;
+import net.impactdev.impactor.core.economy.EconomyConfig;
+import net.impactdev.impactor.core.economy.storage.EconomyStorage;
+import net.impactdev.impactor.core.economy.storage.implementations.ConfigurateProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WriteBehindTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void coalescesChangesToTheSameAccount() throws Exception {
+        Currency currency = this.currency();
+        CountingProvider provider = new CountingProvider(this.directory.resolve("accounts"));
+        EconomyStorage storage = this.storage(provider, 250);
+
+        try {
+            UUID owner = UUID.randomUUID();
+            for(int i = 1; i <= 10; i++) {
+                storage.stage(account(currency, owner, i));
+            }
+            storage.stage(account(currency, UUID.randomUUID(), 5));
+
+            storage.flush();
+            assertEquals(1, provider.batches.size());
+            assertEquals(2, provider.batches.get(0).size());
+            assertEquals(0, BigDecimal.TEN.compareTo(provider.accounts(currency, List.of(owner)).get(owner).balance()));
+
+            // Nothing remains pending, so no further write is made
+            storage.flush();
+            assertEquals(1, provider.batches.size());
+        } finally {
+            storage.shutdown();
+        }
+    }
+
+    @Test
+    public void flushesOnceTheBatchSizeIsReached() throws Exception {
+        Currency currency = this.currency();
+        CountingProvider provider = new CountingProvider(this.directory.resolve("accounts"));
+        EconomyStorage storage = this.storage(provider, 3);
+
+        try {
+            storage.save(account(currency, UUID.randomUUID(), 1));
+            storage.save(account(currency, UUID.randomUUID(), 2));
+            assertTrue(provider.batches.isEmpty());
+
+            storage.save(account(currency, UUID.randomUUID(), 3)).get(5, TimeUnit.SECONDS);
+            assertEquals(1, provider.batches.size());
+            assertEquals(3, provider.batches.get(0).size());
+        } finally {
+            storage.shutdown();
+        }
+    }
+
+    @Test
+    public void flushesPendingChangesOnShutdown() throws Exception {
+        Currency currency = this.currency();
+        CountingProvider provider = new CountingProvider(this.directory.resolve("accounts"));
+        EconomyStorage storage = this.storage(provider, 250);
+
+        UUID owner = UUID.randomUUID();
+        storage.stage(account(currency, owner, 40));
+        storage.stage(account(currency, UUID.randomUUID(), 60));
+        assertTrue(provider.batches.isEmpty());
+
+        storage.shutdown();
+        assertEquals(1, provider.batches.size());
+        assertEquals(2, provider.batches.get(0).size());
+        assertEquals(0, BigDecimal.valueOf(40).compareTo(provider.accounts(currency, List.of(owner)).get(owner).balance()));
+    }
+
+    private EconomyStorage storage(CountingProvider provider, int batch) throws Exception {
+        // A flush interval well beyond the length of the test, such that only the batch size and
+        // explicit flushes trigger a write
+        Path path = this.directory.resolve("economy.conf");
+        Files.writeString(path, "storage {\n  journal.enabled = false\n  write-behind {\n    flush-interval = 600000\n    batch-size = " + batch + "\n  }\n}\n");
+        Config config = Config.builder()
+                .path(path)
+                .provider(EconomyConfig.class)
+                .build();
+
+        EconomyStorage storage = new EconomyStorage(provider, config);
+        storage.init();
+        return storage;
+    }
+
+    private Currency currency() {
+        return Impactor.instance().services().provide(EconomyService.class).currencies().primary();
+    }
+
+    private static Account account(Currency currency, UUID owner, long balance) {
+        return Account.builder()
+                .owner(owner)
+                .currency(currency)
+                .balance(BigDecimal.valueOf(balance))
+                .build();
+    }
+
+    /**
+     * Records each batch of accounts written by the storage under test.
+     */
+    private static final class CountingProvider extends ConfigurateProvider {
+
+        private final List<List<Account>> batches = new CopyOnWriteArrayList<>();
+
+        private CountingProvider(Path root) {
+            super(new JsonLoader(), root);
+        }
+
+        @Override
+        public void saveAll(Collection<Account> accounts) throws Exception {
+            this.batches.add(List.copyOf(accounts));
+            super.saveAll(accounts);
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.mail;
+
+import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.mail.MailMessage;
+import net.impactdev.impactor.api.mail.MailService;
+import net.impactdev.impactor.core.mail.ImpactorMailService;
+import net.impactdev.impactor.core.mail.storage.MailBroadcast;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class MailBroadcastTest {
+
+    @Test
+    public void deliversToEveryTarget() {
+        ImpactorMailService service = (ImpactorMailService) Impactor.instance().services().provide(MailService.class);
+
+        List<UUID> targets = new ArrayList<>();
+        for(int i = 0; i < 1200; i++) {
+            targets.add(UUID.randomUUID());
+        }
+        // Duplicate recipients should only receive the message once
+        targets.add(targets.get(0));
+
+        List<MailBroadcast.Progress> reports = new CopyOnWriteArrayList<>();
+        Component content = Component.text("Server announcement");
+        int delivered = service.broadcastFromServer(targets, content, reports::add).join();
+        assertEquals(1200, delivered);
+
+        assertFalse(reports.isEmpty());
+        assertEquals(1200, reports.stream().mapToInt(MailBroadcast.Progress::processed).max().orElse(0));
+
+        try {
+            for(UUID target : List.of(targets.get(0), targets.get(600), targets.get(1199))) {
+                List<MailMessage> inbox = service.inbox(target).join();
+                assertEquals(1, inbox.size());
+                assertEquals(content, inbox.get(0).content());
+            }
+        } finally {
+            for(UUID target : targets.subList(0, 1200)) {
+                service.deleteWhere(target, null).join();
+            }
+        }
+    }
+
+}
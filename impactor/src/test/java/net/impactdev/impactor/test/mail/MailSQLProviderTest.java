@@ -0,0 +1,164 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.mail;
+
+import com.google.common.collect.ImmutableMap;
+import net.impactdev.impactor.api.mail.MailMessage;
+import net.impactdev.impactor.api.storage.StorageCredentials;
+import net.impactdev.impactor.core.mail.ImpactorMailMessage;
+import net.impactdev.impactor.core.mail.filters.StructuredMailFilter;
+import net.impactdev.impactor.core.mail.storage.implementations.MailSQLProvider;
+import net.impactdev.impactor.core.storage.sql.H2ConnectionImpl;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.util.TriState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MailSQLProviderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void storesMailInEmbeddedDatabase() throws Exception {
+        MailSQLProvider provider = this.provider("mail");
+        provider.init();
+
+        try {
+            UUID target = UUID.randomUUID();
+            UUID sender = UUID.randomUUID();
+            Instant start = Instant.now();
+            for(int i = 0; i < 30; i++) {
+                Component content = Component.text("Message #" + i).color(NamedTextColor.YELLOW);
+                assertTrue(provider.append(target, new ImpactorMailMessage(UUID.randomUUID(), i % 2 == 0 ? sender : null, content, start.plusSeconds(i))));
+            }
+
+            assertEquals(30, provider.count(target));
+            assertEquals(30, provider.unread(target));
+
+            List<MailMessage> page = provider.mail(target, 10, 5);
+            assertEquals(5, page.size());
+            assertEquals(Component.text("Message #10").color(NamedTextColor.YELLOW), page.get(0).content());
+            assertEquals(sender, page.get(0).source().orElseThrow());
+            assertTrue(page.get(1).source().isEmpty());
+            assertEquals(start.plusSeconds(14), page.get(4).timestamp());
+            assertTrue(provider.mail(target, 30, 5).isEmpty());
+
+            provider.read(target, start.plusSeconds(19));
+            assertEquals(10, provider.unread(target));
+            assertEquals(start.plusSeconds(19), provider.read(target).orElseThrow());
+
+            MailMessage first = provider.mail(target).get(0);
+            assertEquals(TriState.TRUE, provider.delete(target, first));
+            assertEquals(TriState.FALSE, provider.delete(target, first));
+            assertEquals(29, provider.count(target));
+
+            assertEquals(TriState.TRUE, provider.deleteWhere(target, null));
+            assertEquals(0, provider.count(target));
+            assertEquals(TriState.NOT_SET, provider.deleteWhere(target, null));
+        } finally {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    public void deliversToManyInboxesAtOnce() throws Exception {
+        MailSQLProvider provider = this.provider("broadcast");
+        provider.init();
+
+        try {
+            List<UUID> targets = new ArrayList<>();
+            for(int i = 0; i < 1200; i++) {
+                targets.add(UUID.randomUUID());
+            }
+
+            MailMessage message = new ImpactorMailMessage(UUID.randomUUID(), null, Component.text("Announcement"), Instant.now());
+            assertEquals(targets.size(), provider.appendAll(targets, message));
+
+            for(UUID target : List.of(targets.get(0), targets.get(599), targets.get(1199))) {
+                List<MailMessage> inbox = provider.mail(target);
+                assertEquals(1, inbox.size());
+                assertEquals(message.uuid(), inbox.get(0).uuid());
+                assertEquals(message.content(), inbox.get(0).content());
+            }
+
+            // The shared body must outlive deletion from any one inbox
+            assertEquals(TriState.TRUE, provider.delete(targets.get(0), message));
+            assertEquals(TriState.TRUE, provider.deleteWhere(targets.get(1), null));
+            assertEquals(TriState.TRUE, provider.deleteWhere(targets.get(2), StructuredMailFilter.builder().server().build()));
+            assertEquals(0, provider.count(targets.get(2)));
+            assertEquals(message.content(), provider.mail(targets.get(3)).get(0).content());
+        } finally {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    public void deletesByStructuredFilter() throws Exception {
+        MailSQLProvider provider = this.provider("filter");
+        provider.init();
+
+        try {
+            UUID target = UUID.randomUUID();
+            UUID sender = UUID.randomUUID();
+            Instant start = Instant.now();
+            List<MailMessage> sent = new ArrayList<>();
+            for(int i = 0; i < 30; i++) {
+                MailMessage message = new ImpactorMailMessage(UUID.randomUUID(), i % 2 == 0 ? sender : null, Component.text("Message #" + i), start.plusSeconds(i));
+                provider.append(target, message);
+                sent.add(message);
+            }
+
+            provider.deleteWhere(target, StructuredMailFilter.builder().before(start.plusSeconds(10)).build());
+            assertEquals(20, provider.count(target));
+
+            provider.deleteWhere(target, StructuredMailFilter.builder().sender(sender).after(start.plusSeconds(19)).build());
+            assertEquals(15, provider.count(target));
+
+            provider.deleteWhere(target, StructuredMailFilter.builder().server().ids(List.of(sent.get(11).uuid(), sent.get(12).uuid())).build());
+            assertEquals(14, provider.count(target));
+            assertEquals(Component.text("Message #10"), provider.mail(target).get(0).content());
+        } finally {
+            provider.shutdown();
+        }
+    }
+
+    private MailSQLProvider provider(String name) {
+        StorageCredentials credentials = new StorageCredentials("", "", "", "", 4, 4, 1800000, 0, 5000, ImmutableMap.of());
+        return new MailSQLProvider(new H2ConnectionImpl(credentials, this.directory.resolve(name)), "test_");
+    }
+
+}
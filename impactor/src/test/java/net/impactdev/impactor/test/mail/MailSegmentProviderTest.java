@@ -0,0 +1,290 @@
+/*
+ * This file is part of Impactor, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.test.mail;
+
+import net.impactdev.impactor.api.mail.MailMessage;
+import net.impactdev.impactor.core.mail.ImpactorMailMessage;
+import net.impactdev.impactor.core.mail.filters.StructuredMailFilter;
+import net.impactdev.impactor.core.mail.storage.implementations.MailSegmentProvider;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.util.TriState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MailSegmentProviderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void reindexesAfterRestart() throws Exception {
+        UUID target = UUID.randomUUID();
+        MailSegmentProvider provider = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        provider.init();
+
+        List<MailMessage> sent = this.populate(provider, target, 100);
+        for(int i = 0; i < 10; i++) {
+            assertEquals(TriState.TRUE, provider.delete(target, sent.get(i * 10)));
+        }
+        assertEquals(TriState.FALSE, provider.delete(target, sent.get(0)));
+
+        MailSegmentProvider restarted = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        restarted.init();
+
+        List<MailMessage> inbox = restarted.mail(target);
+        assertEquals(90, inbox.size());
+        for(MailMessage message : inbox) {
+            MailMessage original = sent.stream().filter(m -> m.uuid().equals(message.uuid())).findFirst().orElseThrow();
+            assertEquals(original.source(), message.source());
+            assertEquals(original.timestamp(), message.timestamp());
+            assertEquals(original.content(), message.content());
+        }
+    }
+
+    @Test
+    public void compactsDeletedMessages() throws Exception {
+        UUID target = UUID.randomUUID();
+        MailSegmentProvider provider = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        provider.init();
+
+        List<MailMessage> sent = this.populate(provider, target, 50);
+        for(int i = 0; i < sent.size(); i += 2) {
+            assertEquals(TriState.TRUE, provider.delete(target, sent.get(i)));
+        }
+
+        Path file = this.segment(target);
+        long before = Files.size(file);
+        provider.compact(target);
+        assertTrue(Files.size(file) < before);
+
+        assertEquals(25, provider.mail(target).size());
+        provider.append(target, new ImpactorMailMessage(UUID.randomUUID(), null, Component.text("After"), Instant.now()));
+
+        MailSegmentProvider restarted = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        restarted.init();
+        assertEquals(26, restarted.mail(target).size());
+    }
+
+    @Test
+    public void discardsIncompleteTail() throws Exception {
+        UUID target = UUID.randomUUID();
+        MailSegmentProvider provider = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        provider.init();
+        this.populate(provider, target, 5);
+
+        // Simulate a crash partway through appending a record
+        Files.write(this.segment(target), new byte[] { 0, 0, 0, 42, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        MailSegmentProvider restarted = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        restarted.init();
+        assertEquals(5, restarted.mail(target).size());
+
+        restarted.append(target, new ImpactorMailMessage(UUID.randomUUID(), null, Component.text("After"), Instant.now()));
+        assertEquals(6, new MailSegmentProvider(this.directory, Long.MAX_VALUE).mail(target).size());
+    }
+
+    @Test
+    public void retainsRecordsFollowingCorruptedLength() throws Exception {
+        UUID target = UUID.randomUUID();
+        MailSegmentProvider provider = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        provider.init();
+        this.populate(provider, target, 5);
+
+        Path segment = this.segment(target);
+        long size = Files.size(segment);
+        try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, 8);
+            length.flip();
+
+            // Overwrite the length of the second record with one no record could ever have
+            channel.write(ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE), 8 + 8 + length.getInt());
+        }
+
+        MailSegmentProvider restarted = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        restarted.init();
+        assertThrows(Exception.class, () -> restarted.mail(target));
+        assertEquals(size, Files.size(segment));
+    }
+
+    @Test
+    public void rejectsOversizedMessages() throws Exception {
+        UUID target = UUID.randomUUID();
+        MailSegmentProvider provider = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        provider.init();
+        this.populate(provider, target, 3);
+
+        MailMessage oversized = new ImpactorMailMessage(UUID.randomUUID(), null, Component.text("x".repeat(1 << 20)), Instant.now());
+        assertThrows(IllegalArgumentException.class, () -> provider.append(target, oversized));
+
+        this.populate(provider, target, 2);
+        assertEquals(5, new MailSegmentProvider(this.directory, Long.MAX_VALUE).mail(target).size());
+    }
+
+    @Test
+    public void pagesAndCountsUnread() throws Exception {
+        UUID target = UUID.randomUUID();
+        MailSegmentProvider provider = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        provider.init();
+
+        Instant start = Instant.now();
+        for(int i = 0; i < 30; i++) {
+            provider.append(target, new ImpactorMailMessage(UUID.randomUUID(), null, Component.text("Message #" + i), start.plusSeconds(i)));
+        }
+
+        assertEquals(30, provider.count(target));
+        assertEquals(30, provider.unread(target));
+
+        List<MailMessage> page = provider.mail(target, 10, 5);
+        assertEquals(5, page.size());
+        assertEquals(Component.text("Message #10"), page.get(0).content());
+        assertEquals(start.plusSeconds(14), page.get(4).timestamp());
+        assertTrue(provider.mail(target, 30, 5).isEmpty());
+
+        provider.read(target, start.plusSeconds(19));
+        assertEquals(10, provider.unread(target));
+
+        MailSegmentProvider restarted = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        restarted.init();
+        assertEquals(10, restarted.unread(target));
+        assertEquals(start.plusSeconds(19), restarted.read(target).orElseThrow());
+    }
+
+    @Test
+    public void sharesBroadcastContent() throws Exception {
+        MailSegmentProvider provider = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        provider.init();
+
+        List<UUID> targets = new ArrayList<>();
+        for(int i = 0; i < 20; i++) {
+            targets.add(UUID.randomUUID());
+        }
+
+        Component content = Component.text("Announcement").color(NamedTextColor.GOLD);
+        MailMessage message = new ImpactorMailMessage(UUID.randomUUID(), null, content, Instant.now());
+        assertEquals(20, provider.appendAll(targets, message));
+        provider.append(targets.get(0), new ImpactorMailMessage(UUID.randomUUID(), null, Component.text("Direct"), Instant.now()));
+
+        MailSegmentProvider restarted = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        restarted.init();
+        for(UUID target : targets) {
+            MailMessage received = restarted.mail(target).get(0);
+            assertEquals(message.uuid(), received.uuid());
+            assertEquals(message.timestamp(), received.timestamp());
+            assertEquals(content, received.content());
+        }
+        assertEquals(Component.text("Direct"), restarted.mail(targets.get(0)).get(1).content());
+    }
+
+    @Test
+    public void removesBroadcastContentOnceUnreferenced() throws Exception {
+        MailSegmentProvider provider = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        provider.init();
+
+        List<UUID> targets = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        MailMessage message = new ImpactorMailMessage(UUID.randomUUID(), null, Component.text("Announcement"), Instant.now());
+        assertEquals(3, provider.appendAll(targets, message));
+
+        String id = message.uuid().toString();
+        Path body = this.directory.resolve("broadcasts").resolve(id.substring(0, 2)).resolve(id + ".json");
+        assertTrue(Files.exists(body));
+
+        provider.delete(targets.get(0), message);
+        provider.deleteWhere(targets.get(1), StructuredMailFilter.builder().ids(List.of(message.uuid())).build());
+        assertTrue(Files.exists(body));
+        assertEquals(Component.text("Announcement"), provider.mail(targets.get(2)).get(0).content());
+
+        provider.deleteWhere(targets.get(2), null);
+        assertFalse(Files.exists(body));
+    }
+
+    @Test
+    public void deletesByStructuredFilter() throws Exception {
+        UUID target = UUID.randomUUID();
+        UUID sender = UUID.randomUUID();
+        MailSegmentProvider provider = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        provider.init();
+
+        Instant start = Instant.now();
+        List<MailMessage> sent = new ArrayList<>();
+        for(int i = 0; i < 30; i++) {
+            MailMessage message = new ImpactorMailMessage(UUID.randomUUID(), i % 2 == 0 ? sender : null, Component.text("Message #" + i), start.plusSeconds(i));
+            provider.append(target, message);
+            sent.add(message);
+        }
+
+        provider.deleteWhere(target, StructuredMailFilter.builder().before(start.plusSeconds(10)).build());
+        assertEquals(20, provider.count(target));
+
+        provider.deleteWhere(target, StructuredMailFilter.builder().sender(sender).after(start.plusSeconds(19)).build());
+        assertEquals(15, provider.count(target));
+
+        provider.deleteWhere(target, StructuredMailFilter.builder().ids(List.of(sent.get(11).uuid(), sent.get(0).uuid())).build());
+        assertEquals(14, provider.count(target));
+
+        MailSegmentProvider restarted = new MailSegmentProvider(this.directory, Long.MAX_VALUE);
+        restarted.init();
+        List<MailMessage> inbox = restarted.mail(target);
+        assertEquals(14, inbox.size());
+        assertEquals(Component.text("Message #10"), inbox.get(0).content());
+    }
+
+    private List<MailMessage> populate(MailSegmentProvider provider, UUID target, int count) throws Exception {
+        List<MailMessage> messages = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            UUID sender = i % 3 == 0 ? null : UUID.randomUUID();
+            Component content = Component.text("Message #" + i).color(NamedTextColor.YELLOW);
+            MailMessage message = new ImpactorMailMessage(UUID.randomUUID(), sender, content, Instant.now());
+
+            assertTrue(provider.append(target, message));
+            messages.add(message);
+        }
+
+        return messages;
+    }
+
+    private Path segment(UUID target) {
+        String id = target.toString();
+        return this.directory.resolve(id.substring(0, 2)).resolve(id + ".inbox");
+    }
+
+}
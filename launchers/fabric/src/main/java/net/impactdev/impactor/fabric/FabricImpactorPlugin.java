@@ -33,6 +33,7 @@ import net.impactdev.impactor.api.platform.players.PlatformPlayer;
 import net.impactdev.impactor.api.platform.players.events.ClientConnectionEvent;
 import net.impactdev.impactor.api.plugin.ImpactorPlugin;
 import net.impactdev.impactor.api.scoreboards.AssignedScoreboard;
+import net.impactdev.impactor.core.economy.accounts.AccountPreloader;
 import net.impactdev.impactor.core.modules.ModuleInitializer;
 import net.impactdev.impactor.core.plugin.ImpactorBootstrapper;
 import net.impactdev.impactor.fabric.commands.FabricCommandModule;
@@ -67,9 +68,11 @@ public final class FabricImpactorPlugin extends GameImpactorPlugin implements Im
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             PlatformPlayer player = PlatformPlayer.getOrCreate(handler.player.getUUID());
             player.withDynamic(ImpactorPlatformPlayer.PLAYER_FALLBACK, () -> handler.player);
+            AccountPreloader.join(player.uuid());
 
             Impactor.instance().events().post((ClientConnectionEvent.Join) () -> player);
         });
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> AccountPreloader.quit(handler.player.getUUID()));
     }
 
     @Override
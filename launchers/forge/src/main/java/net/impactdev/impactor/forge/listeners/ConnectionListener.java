@@ -25,6 +25,9 @@
 
 package net.impactdev.impactor.forge.listeners;
 
+import net.impactdev.impactor.core.economy.accounts.AccountPreloader;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
 @Mod.EventBusSubscriber(bus = Mod.EventBusSubscriber.Bus.FORGE)
@@ -32,4 +35,14 @@ public class ConnectionListener {
 
     // TODO - Post connection join to our API
 
+    @SubscribeEvent
+    public static void onJoin(PlayerEvent.PlayerLoggedInEvent event) {
+        AccountPreloader.join(event.getEntity().getUUID());
+    }
+
+    @SubscribeEvent
+    public static void onQuit(PlayerEvent.PlayerLoggedOutEvent event) {
+        AccountPreloader.quit(event.getEntity().getUUID());
+    }
+
 }